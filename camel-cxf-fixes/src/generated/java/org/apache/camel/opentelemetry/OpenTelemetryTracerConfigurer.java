@@ -21,16 +21,35 @@ public class OpenTelemetryTracerConfigurer extends org.apache.camel.support.comp
     public boolean configure(CamelContext camelContext, Object obj, String name, Object value, boolean ignoreCase) {
         org.apache.camel.opentelemetry.OpenTelemetryTracer target = (org.apache.camel.opentelemetry.OpenTelemetryTracer) obj;
         switch (ignoreCase ? name.toLowerCase() : name) {
+        case "baggagelimits":
+        case "BaggageLimits": target.setBaggageLimits(property(camelContext, org.apache.camel.opentelemetry.propagators.BaggageLimits.class, value)); return true;
+        case "binarypropagationpatterns":
+        case "BinaryPropagationPatterns": target.setBinaryPropagationPatterns(property(camelContext, java.lang.String.class, value)); return true;
         case "camelcontext":
         case "CamelContext": target.setCamelContext(property(camelContext, org.apache.camel.CamelContext.class, value)); return true;
         case "contextpropagators":
         case "ContextPropagators": target.setContextPropagators(property(camelContext, io.opentelemetry.context.propagation.ContextPropagators.class, value)); return true;
+        case "deadlineheader":
+        case "DeadlineHeader": target.setDeadlineHeader(property(camelContext, java.lang.String.class, value)); return true;
         case "encoding":
         case "Encoding": target.setEncoding(property(camelContext, boolean.class, value)); return true;
         case "excludepatterns":
         case "ExcludePatterns": target.setExcludePatterns(property(camelContext, java.lang.String.class, value)); return true;
+        case "fanoutsampleinterval":
+        case "FanOutMaxLinks": target.setFanOutMaxLinks(property(camelContext, int.class, value)); return true;
+        case "FanOutSampleInterval": target.setFanOutSampleInterval(property(camelContext, int.class, value)); return true;
+        case "injvmpropagation":
+        case "InJvmPropagation": target.setInJvmPropagation(property(camelContext, boolean.class, value)); return true;
         case "instrumentationname":
         case "InstrumentationName": target.setInstrumentationName(property(camelContext, java.lang.String.class, value)); return true;
+        case "maxfanoutspans":
+        case "MaxFanOutSpans": target.setMaxFanOutSpans(property(camelContext, int.class, value)); return true;
+        case "spanmetrics":
+        case "SpanMetrics": target.setSpanMetrics(property(camelContext, boolean.class, value)); return true;
+        case "spanmetricsmaxcardinality":
+        case "SpanMetricsMaxCardinality": target.setSpanMetricsMaxCardinality(property(camelContext, int.class, value)); return true;
+        case "suppressduplicateclientspans":
+        case "SuppressDuplicateClientSpans": target.setSuppressDuplicateClientSpans(property(camelContext, boolean.class, value)); return true;
         case "traceprocessors":
         case "TraceProcessors": target.setTraceProcessors(property(camelContext, boolean.class, value)); return true;
         case "tracer":
@@ -44,16 +63,35 @@ public class OpenTelemetryTracerConfigurer extends org.apache.camel.support.comp
     @Override
     public Class<?> getOptionType(String name, boolean ignoreCase) {
         switch (ignoreCase ? name.toLowerCase() : name) {
+        case "baggagelimits":
+        case "BaggageLimits": return org.apache.camel.opentelemetry.propagators.BaggageLimits.class;
+        case "binarypropagationpatterns":
+        case "BinaryPropagationPatterns": return java.lang.String.class;
         case "camelcontext":
         case "CamelContext": return org.apache.camel.CamelContext.class;
         case "contextpropagators":
         case "ContextPropagators": return io.opentelemetry.context.propagation.ContextPropagators.class;
+        case "deadlineheader":
+        case "DeadlineHeader": return java.lang.String.class;
         case "encoding":
         case "Encoding": return boolean.class;
         case "excludepatterns":
         case "ExcludePatterns": return java.lang.String.class;
+        case "fanoutsampleinterval":
+        case "FanOutMaxLinks": return int.class;
+        case "FanOutSampleInterval": return int.class;
+        case "injvmpropagation":
+        case "InJvmPropagation": return boolean.class;
         case "instrumentationname":
         case "InstrumentationName": return java.lang.String.class;
+        case "maxfanoutspans":
+        case "MaxFanOutSpans": return int.class;
+        case "spanmetrics":
+        case "SpanMetrics": return boolean.class;
+        case "spanmetricsmaxcardinality":
+        case "SpanMetricsMaxCardinality": return int.class;
+        case "suppressduplicateclientspans":
+        case "SuppressDuplicateClientSpans": return boolean.class;
         case "traceprocessors":
         case "TraceProcessors": return boolean.class;
         case "tracer":
@@ -68,16 +106,35 @@ public class OpenTelemetryTracerConfigurer extends org.apache.camel.support.comp
     public Object getOptionValue(Object obj, String name, boolean ignoreCase) {
         org.apache.camel.opentelemetry.OpenTelemetryTracer target = (org.apache.camel.opentelemetry.OpenTelemetryTracer) obj;
         switch (ignoreCase ? name.toLowerCase() : name) {
+        case "baggagelimits":
+        case "BaggageLimits": return target.getBaggageLimits();
+        case "binarypropagationpatterns":
+        case "BinaryPropagationPatterns": return target.getBinaryPropagationPatterns();
         case "camelcontext":
         case "CamelContext": return target.getCamelContext();
         case "contextpropagators":
         case "ContextPropagators": return target.getContextPropagators();
+        case "deadlineheader":
+        case "DeadlineHeader": return target.getDeadlineHeader();
         case "encoding":
         case "Encoding": return target.isEncoding();
         case "excludepatterns":
         case "ExcludePatterns": return target.getExcludePatterns();
+        case "fanoutsampleinterval":
+        case "FanOutMaxLinks": return target.getFanOutMaxLinks();
+        case "FanOutSampleInterval": return target.getFanOutSampleInterval();
+        case "injvmpropagation":
+        case "InJvmPropagation": return target.isInJvmPropagation();
         case "instrumentationname":
         case "InstrumentationName": return target.getInstrumentationName();
+        case "maxfanoutspans":
+        case "MaxFanOutSpans": return target.getMaxFanOutSpans();
+        case "spanmetrics":
+        case "SpanMetrics": return target.isSpanMetrics();
+        case "spanmetricsmaxcardinality":
+        case "SpanMetricsMaxCardinality": return target.getSpanMetricsMaxCardinality();
+        case "suppressduplicateclientspans":
+        case "SuppressDuplicateClientSpans": return target.isSuppressDuplicateClientSpans();
         case "traceprocessors":
         case "TraceProcessors": return target.isTraceProcessors();
         case "tracer":
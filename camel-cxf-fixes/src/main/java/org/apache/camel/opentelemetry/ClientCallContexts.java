@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.context.Context;
+
+/**
+ * The contexts of the CLIENT spans created by Camel for the cxf and cxfrs producer calls in progress, so that the CXF
+ * interceptors can make the Camel client span current while the response is handled.
+ * <p/>
+ * Camel never makes its client spans current, and the calls may complete on any thread, so the contexts are found by
+ * the span id Camel propagated in the headers of the outgoing message, as for {@link ClientSpanSuppression}.
+ */
+public final class ClientCallContexts {
+
+    private static final Map<String, Context> CONTEXTS = new ConcurrentHashMap<>();
+
+    private ClientCallContexts() {
+    }
+
+    static void register(Context context) {
+        SpanContext spanContext = Span.fromContext(context).getSpanContext();
+        if (spanContext.isValid()) {
+            CONTEXTS.put(spanContext.getSpanId(), context);
+        }
+    }
+
+    static void unregister(Context context) {
+        CONTEXTS.remove(Span.fromContext(context).getSpanContext().getSpanId());
+    }
+
+    /**
+     * Returns the context of the Camel client span of the call propagating the given parent span context, if the call
+     * is still in progress.
+     */
+    public static Context lookup(SpanContext propagated) {
+        if (propagated == null || !propagated.isValid()) {
+            return null;
+        }
+        return CONTEXTS.get(propagated.getSpanId());
+    }
+
+    static int size() {
+        return CONTEXTS.size();
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+
+/**
+ * Hands the CLIENT span created by Camel for a CXF producer call over to the CXF client interceptors, so they can
+ * enrich it instead of creating a second CLIENT span for the same HTTP call.
+ * <p/>
+ * The span is registered right before the producer is invoked, by its span id, which Camel propagates in the headers
+ * of the message. The CXF out interceptors claim it with the span id extracted from the headers of the outgoing
+ * message, so the hand over does not depend on the thread the interceptors run on, and an unrelated call can never
+ * claim it. The span is unregistered when the exchange is sent, whatever thread completes it, if it was not claimed.
+ */
+public final class ClientSpanSuppression {
+
+    private static final Map<String, Span> PENDING_CLIENT_SPANS = new ConcurrentHashMap<>();
+
+    private ClientSpanSuppression() {
+    }
+
+    static void register(Span span) {
+        SpanContext spanContext = span.getSpanContext();
+        if (spanContext.isValid()) {
+            PENDING_CLIENT_SPANS.put(spanContext.getSpanId(), span);
+        }
+    }
+
+    static void unregister(Span span) {
+        PENDING_CLIENT_SPANS.remove(span.getSpanContext().getSpanId(), span);
+    }
+
+    /**
+     * Returns the CLIENT span registered by Camel for the call propagating the given parent span context, if any. The
+     * span can only be claimed once.
+     */
+    public static Span claim(SpanContext propagated) {
+        if (propagated == null || !propagated.isValid()) {
+            return null;
+        }
+        return PENDING_CLIENT_SPANS.remove(propagated.getSpanId());
+    }
+
+    static int pending() {
+        return PENDING_CLIENT_SPANS.size();
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import org.apache.camel.Exchange;
+
+/**
+ * Summary of the children of a Splitter or Multicast beyond the configured number of child spans.
+ * <p/>
+ * Past {@code maxChildren}, only one child exchange out of {@code sampleInterval} gets its spans, the others are not
+ * traced. When the parent span ends, a summary span is created with the number of these children past
+ * {@code maxChildren}, and the errors and latency histogram of their hops (the spans they would have started directly
+ * under the parent), linked to up to {@code maxLinks} sampled hops. The first {@code maxChildren} children have their
+ * own spans and are not counted.
+ */
+final class FanOutSummary {
+
+    enum Decision {
+        SAMPLED,
+        SUPPRESSED
+    }
+
+    static final AttributeKey<Long> CHILDREN = AttributeKey.longKey("camel.fanout.children");
+    static final AttributeKey<Long> SAMPLED_CHILDREN = AttributeKey.longKey("camel.fanout.sampled");
+    static final AttributeKey<Long> HOPS = AttributeKey.longKey("camel.fanout.hops");
+    static final AttributeKey<Long> ERRORS = AttributeKey.longKey("camel.fanout.hop.errors");
+    static final AttributeKey<Long> MAX_LATENCY = AttributeKey.longKey("camel.fanout.hop.latency.max_ms");
+    static final AttributeKey<List<Long>> BUCKETS = AttributeKey.longArrayKey("camel.fanout.hop.latency.buckets_ms");
+    static final AttributeKey<List<Long>> COUNTS = AttributeKey.longArrayKey("camel.fanout.hop.latency.counts");
+
+    private static final String DECISION_PROPERTY = "CamelOpenTelemetryFanOutDecision";
+
+    // upper bounds, the last count is for the latencies above the last bound
+    private static final List<Long> BUCKET_BOUNDS = List.of(1L, 2L, 5L, 10L, 25L, 50L, 100L, 250L, 500L, 1000L, 2500L,
+            5000L, 10000L);
+    static final int DEFAULT_MAX_LINKS = 128;
+
+    private final int maxLinks;
+    private final Instant start = Instant.now();
+    private final AtomicLong children = new AtomicLong();
+    private final AtomicLong sampledChildren = new AtomicLong();
+    private final AtomicLong hops = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong maxLatency = new AtomicLong();
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_BOUNDS.size() + 1);
+    private final List<SpanContext> links = new ArrayList<>();
+
+    FanOutSummary(int maxLinks) {
+        this.maxLinks = maxLinks;
+    }
+
+    static Decision decide(
+            Exchange exchange, OpenTelemetryTracer.Holder parent, int maxChildren, int sampleInterval, int maxLinks) {
+        if (maxChildren <= 0 || parent == null || exchange.getExchangeId().equals(parent.getExchangeId())) {
+            // disabled, or not the first span of this exchange
+            return null;
+        }
+        Integer index = exchange.getProperty(Exchange.SPLIT_INDEX, Integer.class);
+        if (index == null) {
+            index = exchange.getProperty(Exchange.MULTICAST_INDEX, Integer.class);
+        }
+        if (index == null || index < maxChildren) {
+            return null;
+        }
+        // the index properties are copied back to the parent exchange once the split is done
+        String correlationId = exchange.getProperty(Exchange.CORRELATION_ID, String.class);
+        if (correlationId == null || correlationId.equals(exchange.getExchangeId())) {
+            return null;
+        }
+        Decision decision = exchange.getProperty(DECISION_PROPERTY, Decision.class);
+        if (decision == null) {
+            decision = (index - maxChildren) % Math.max(sampleInterval, 1) == 0 ? Decision.SAMPLED : Decision.SUPPRESSED;
+            exchange.setProperty(DECISION_PROPERTY, decision);
+            parent.getFanOut(maxLinks).childStarted(decision);
+        }
+        return decision;
+    }
+
+    private void childStarted(Decision decision) {
+        children.incrementAndGet();
+        if (decision == Decision.SAMPLED) {
+            sampledChildren.incrementAndGet();
+        }
+    }
+
+    synchronized void addLink(SpanContext spanContext) {
+        if (links.size() < maxLinks) {
+            links.add(spanContext);
+        }
+    }
+
+    void hopCompleted(long nanos, boolean failed) {
+        hops.incrementAndGet();
+        if (failed) {
+            errors.incrementAndGet();
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        maxLatency.accumulateAndGet(millis, Math::max);
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS.size() && millis > BUCKET_BOUNDS.get(bucket)) {
+            bucket++;
+        }
+        counts.incrementAndGet(bucket);
+    }
+
+    synchronized void end(Tracer tracer, Context parent) {
+        List<Long> latencyCounts = new ArrayList<>(counts.length());
+        for (int i = 0; i < counts.length(); i++) {
+            latencyCounts.add(counts.get(i));
+        }
+        SpanBuilder builder = tracer.spanBuilder("fan-out-summary")
+                .setParent(parent)
+                .setStartTimestamp(start)
+                .setAttribute(CHILDREN, children.get())
+                .setAttribute(SAMPLED_CHILDREN, sampledChildren.get())
+                .setAttribute(HOPS, hops.get())
+                .setAttribute(ERRORS, errors.get())
+                .setAttribute(MAX_LATENCY, maxLatency.get())
+                .setAttribute(BUCKETS, BUCKET_BOUNDS)
+                .setAttribute(COUNTS, latencyCounts);
+        for (SpanContext spanContext : links) {
+            builder.addLink(spanContext);
+        }
+        builder.startSpan().end();
+    }
+}
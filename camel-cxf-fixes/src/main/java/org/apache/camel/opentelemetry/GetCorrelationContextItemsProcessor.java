@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.opentelemetry.api.baggage.Baggage;
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.Exchange;
+import org.apache.camel.Message;
+import org.apache.camel.Traceable;
+import org.apache.camel.spi.IdAware;
+import org.apache.camel.spi.RouteIdAware;
+import org.apache.camel.support.AsyncProcessorSupport;
+import org.apache.camel.util.ObjectHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.apache.camel.opentelemetry.OpenTelemetryTracer.getHolder;
+
+/**
+ * Batch variant of {@link GetCorrelationContextProcessor} which copies several baggage entries to message headers,
+ * resolving the {@link Baggage} only once. The mapping is baggage key to header name.
+ */
+public class GetCorrelationContextItemsProcessor extends AsyncProcessorSupport
+        implements Traceable, IdAware, RouteIdAware {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GetCorrelationContextItemsProcessor.class);
+
+    private final Map<String, String> keyToHeaderNames;
+    private String id;
+    private String routeId;
+
+    public GetCorrelationContextItemsProcessor(Map<String, String> keyToHeaderNames) {
+        this.keyToHeaderNames = new LinkedHashMap<>(ObjectHelper.notNull(keyToHeaderNames, "keyToHeaderNames"));
+    }
+
+    @Override
+    public boolean process(Exchange exchange, AsyncCallback callback) {
+        try {
+            OpenTelemetryTracer.Holder holder = getHolder(exchange);
+            if (holder != null) {
+                Baggage baggage = holder.getBaggage();
+                Message message = exchange.getMessage();
+                for (Map.Entry<String, String> entry : keyToHeaderNames.entrySet()) {
+                    message.setHeader(entry.getValue(), baggage.getEntryValue(entry.getKey()));
+                }
+            } else {
+                LOG.warn("OpenTelemetry: Cannot find managed span for exchange: {}", exchange);
+            }
+        } catch (Exception e) {
+            exchange.setException(e);
+        } finally {
+            // callback must be invoked
+            callback.done(true);
+        }
+
+        return true;
+    }
+
+    @Override
+    public String getTraceLabel() {
+        return "getCorrelationContextItems" + keyToHeaderNames;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    @Override
+    public String getRouteId() {
+        return routeId;
+    }
+
+    @Override
+    public void setRouteId(String routeId) {
+        this.routeId = routeId;
+    }
+
+    public Map<String, String> getKeyToHeaderNames() {
+        return keyToHeaderNames;
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+}
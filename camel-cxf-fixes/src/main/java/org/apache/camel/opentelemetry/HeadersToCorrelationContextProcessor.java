@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.Exchange;
+import org.apache.camel.Traceable;
+import org.apache.camel.spi.IdAware;
+import org.apache.camel.spi.RouteIdAware;
+import org.apache.camel.support.AsyncProcessorSupport;
+import org.apache.camel.util.ObjectHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A processor which copies every message header starting with a prefix to the baggage, using the header name without
+ * the prefix as baggage key. All matching headers are written in a single builder pass.
+ */
+public class HeadersToCorrelationContextProcessor extends AsyncProcessorSupport
+        implements Traceable, IdAware, RouteIdAware {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HeadersToCorrelationContextProcessor.class);
+
+    private String id;
+    private String routeId;
+    private final String headerPrefix;
+
+    public HeadersToCorrelationContextProcessor(String headerPrefix) {
+        this.headerPrefix = ObjectHelper.notNull(headerPrefix, "headerPrefix");
+    }
+
+    @Override
+    public boolean process(Exchange exchange, AsyncCallback callback) {
+        try {
+            OpenTelemetryTracer.Holder holder = OpenTelemetryTracer.getHolder(exchange);
+            if (holder != null) {
+                Map<String, String> items = new HashMap<>();
+                for (Map.Entry<String, Object> header : exchange.getMessage().getHeaders().entrySet()) {
+                    String name = header.getKey();
+                    if (name.length() > headerPrefix.length() && name.startsWith(headerPrefix)) {
+                        items.put(name.substring(headerPrefix.length()),
+                                exchange.getContext().getTypeConverter().convertTo(String.class, exchange,
+                                        header.getValue()));
+                    }
+                }
+                OpenTelemetryTracer.getAdapter(holder).setCorrelationContextItems(items);
+            } else {
+                // avoid spamming logs
+                LOG.debug("OpenTelemetry: Cannot find managed span for Exchange: {}", exchange);
+            }
+        } catch (Exception e) {
+            exchange.setException(e);
+        } finally {
+            // callback must be invoked
+            callback.done(true);
+        }
+
+        return true;
+    }
+
+    @Override
+    public String getTraceLabel() {
+        return "headersToCorrelationContext[" + headerPrefix + "]";
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    @Override
+    public String getRouteId() {
+        return routeId;
+    }
+
+    @Override
+    public void setRouteId(String routeId) {
+        this.routeId = routeId;
+    }
+
+    public String getHeaderPrefix() {
+        return headerPrefix;
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry;
+
+import java.lang.management.ManagementFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Detects the OpenTelemetry Java agent.
+ * <p/>
+ * The agent already propagates the context through {@link java.util.concurrent.Executor}s, so when it is attached the
+ * thread pool and CXF work queue wrappers of this module step aside to avoid wrapping each task twice. This can be
+ * disabled with the {@value #COORDINATION_PROPERTY} system property.
+ */
+public final class OpenTelemetryAgent {
+
+    public static final String COORDINATION_PROPERTY = "camel.opentelemetry.agent-coordination";
+
+    private static final Logger LOG = LoggerFactory.getLogger(OpenTelemetryAgent.class);
+    private static final String AGENT_CLASS = "io.opentelemetry.javaagent.bootstrap.AgentInitializer";
+
+    private static final boolean ATTACHED = detect();
+    private static final boolean CONTEXT_PROPAGATION_DELEGATED = ATTACHED
+            && !"false".equalsIgnoreCase(System.getProperty(COORDINATION_PROPERTY));
+
+    private OpenTelemetryAgent() {
+    }
+
+    /**
+     * Whether the OpenTelemetry Java agent is attached to this JVM.
+     */
+    public static boolean isAttached() {
+        return ATTACHED;
+    }
+
+    /**
+     * Whether executor context propagation is left to the agent.
+     */
+    public static boolean isContextPropagationDelegated() {
+        return CONTEXT_PROPAGATION_DELEGATED;
+    }
+
+    private static boolean detect() {
+        try {
+            // the agent bootstrap classes are on the bootstrap class loader
+            Class.forName(AGENT_CLASS, false, null);
+            return true;
+        } catch (ClassNotFoundException e) {
+            // fall back to the command line, as the class name is an implementation detail of the agent
+        }
+        try {
+            return ManagementFactory.getRuntimeMXBean().getInputArguments().stream()
+                    .anyMatch(arg -> arg.startsWith("-javaagent:") && arg.contains("opentelemetry-javaagent"));
+        } catch (Exception e) {
+            LOG.debug("Cannot read the JVM arguments to detect the OpenTelemetry agent", e);
+            return false;
+        }
+    }
+}
@@ -18,7 +18,11 @@ public class OpenTelemetryInstrumentedThreadPoolFactory extends DefaultThreadPoo
 
     @Override
     public ExecutorService newCachedThreadPool(ThreadFactory threadFactory) {
-        return Context.taskWrapping(super.newCachedThreadPool(threadFactory));
+        ExecutorService executorService = super.newCachedThreadPool(threadFactory);
+        if (OpenTelemetryAgent.isContextPropagationDelegated()) {
+            return executorService;
+        }
+        return Context.taskWrapping(executorService);
     }
 
     @Override
@@ -43,11 +47,18 @@ public class OpenTelemetryInstrumentedThreadPoolFactory extends DefaultThreadPoo
                 rejectedExecutionHandler,
                 threadFactory);
 
+        if (OpenTelemetryAgent.isContextPropagationDelegated()) {
+            return executorService;
+        }
         return Context.taskWrapping(executorService);
     }
 
     @Override
     public ScheduledExecutorService newScheduledThreadPool(ThreadPoolProfile profile, ThreadFactory threadFactory) {
-        return new CurrentContextScheduledExecutorService(super.newScheduledThreadPool(profile, threadFactory));
+        ScheduledExecutorService executorService = super.newScheduledThreadPool(profile, threadFactory);
+        if (OpenTelemetryAgent.isContextPropagationDelegated()) {
+            return executorService;
+        }
+        return new CurrentContextScheduledExecutorService(executorService);
     }
 }
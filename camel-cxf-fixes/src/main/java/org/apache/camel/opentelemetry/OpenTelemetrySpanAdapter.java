@@ -163,6 +163,25 @@ public class OpenTelemetrySpanAdapter implements SpanAdapter {
         this.holder.setBaggage(builder.build());
     }
 
+    /**
+     * Sets several baggage items at once, rebuilding the {@link Baggage} in a single builder pass. A {@code null}
+     * value removes the entry.
+     */
+    public void setCorrelationContextItems(Map<String, String> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        BaggageBuilder builder = this.holder.getBaggage().toBuilder();
+        for (Map.Entry<String, String> item : items.entrySet()) {
+            if (item.getValue() != null) {
+                builder.put(item.getKey(), item.getValue());
+            } else {
+                builder.remove(item.getKey());
+            }
+        }
+        this.holder.setBaggage(builder.build());
+    }
+
     public String getContextPropagationItem(String key) {
         return this.holder.getBaggage().getEntryValue(key);
     }
@@ -17,11 +17,16 @@
 package org.apache.camel.opentelemetry;
 
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.ServiceLoader;
 
 import io.opentelemetry.api.GlobalOpenTelemetry;
 import io.opentelemetry.api.baggage.Baggage;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.ObservableLongGauge;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.SpanBuilder;
 import io.opentelemetry.api.trace.SpanKind;
@@ -39,6 +44,9 @@ import org.apache.camel.RuntimeCamelException;
 import org.apache.camel.StaticService;
 import org.apache.camel.api.management.ManagedAttribute;
 import org.apache.camel.api.management.ManagedResource;
+import org.apache.camel.opentelemetry.propagators.BaggageLimits;
+import org.apache.camel.opentelemetry.propagators.EncodedHeaderKeys;
+import org.apache.camel.opentelemetry.propagators.InternalContextPropagator;
 import org.apache.camel.opentelemetry.propagators.OpenTelemetryGetter;
 import org.apache.camel.opentelemetry.propagators.OpenTelemetrySetter;
 import org.apache.camel.spi.CamelEvent;
@@ -83,6 +91,7 @@ public class OpenTelemetryTracer extends ServiceSupport implements CamelTracingS
     private boolean traceProcessors;
 
     private static final String ACTIVE_SPAN = "OpenTracing.activeSpan";
+    private static final AttributeKey<String> LAYER = AttributeKey.stringKey("layer");
 
     protected static final Map<String, SpanDecorator> DECORATORS = new HashMap<>();
 
@@ -105,6 +114,18 @@ public class OpenTelemetryTracer extends ServiceSupport implements CamelTracingS
     private String excludePatterns;
     private InterceptStrategy tracingStrategy;
     private CamelContext camelContext;
+    private BaggageLimits baggageLimits = new BaggageLimits();
+    private final InternalContextPropagator internalContextPropagator = new InternalContextPropagator();
+    private EncodedHeaderKeys encodedHeaderKeys;
+    private boolean suppressDuplicateClientSpans;
+    private int maxFanOutSpans;
+    private String deadlineHeader;
+    private int fanOutSampleInterval = 100;
+    private int fanOutMaxLinks = FanOutSummary.DEFAULT_MAX_LINKS;
+    private boolean spanMetrics;
+    private int spanMetricsMaxCardinality = 1000;
+    private SpanMetrics metrics;
+    private ObservableLongGauge layersGauge;
 
     public Tracer getTracer() {
         return tracer;
@@ -198,6 +219,149 @@ public class OpenTelemetryTracer extends ServiceSupport implements CamelTracingS
         this.encoding = encoding;
     }
 
+    public BaggageLimits getBaggageLimits() {
+        return baggageLimits;
+    }
+
+    /**
+     * Limits applied to the baggage propagated to outbound endpoints.
+     */
+    public void setBaggageLimits(BaggageLimits baggageLimits) {
+        this.baggageLimits = ObjectHelper.notNull(baggageLimits, "baggageLimits");
+    }
+
+    @ManagedAttribute(description = "Number of baggage entries dropped from outbound messages because of the baggage limits")
+    public long getBaggageDroppedEntries() {
+        return baggageLimits.getDroppedEntries();
+    }
+
+    @ManagedAttribute(description = "Number of baggage values truncated in outbound messages because of the baggage limits")
+    public long getBaggageTruncatedEntries() {
+        return baggageLimits.getTruncatedEntries();
+    }
+
+    @ManagedAttribute(description = "Whether the context is handed over to in-JVM endpoints without text headers")
+    public boolean isInJvmPropagation() {
+        return internalContextPropagator.isInJvm();
+    }
+
+    /**
+     * Setting this to true hands over the live OpenTelemetry context to in-JVM endpoints (direct, seda, ...) through an
+     * exchange property, instead of injecting and extracting W3C text headers.
+     */
+    public void setInJvmPropagation(boolean inJvmPropagation) {
+        internalContextPropagator.setInJvm(inJvmPropagation);
+    }
+
+    @ManagedAttribute(description = "Endpoint patterns propagating the context with a compact binary header")
+    public String getBinaryPropagationPatterns() {
+        return internalContextPropagator.getBinaryPatterns();
+    }
+
+    /**
+     * Endpoint pattern(s), separated by comma, of Camel to Camel transports which propagate the span context with a
+     * compact binary header instead of the W3C text format. Both sides must use the same setting.
+     */
+    public void setBinaryPropagationPatterns(String binaryPropagationPatterns) {
+        internalContextPropagator.setBinaryPatterns(binaryPropagationPatterns);
+    }
+
+    @ManagedAttribute(description = "Whether CXF client spans are merged into the Camel client span of the same call")
+    public boolean isSuppressDuplicateClientSpans() {
+        return suppressDuplicateClientSpans;
+    }
+
+    /**
+     * Setting this to true hands the CLIENT span of cxf and cxfrs producers over to the
+     * {@link org.apache.camel.opentelemetry.cxf.CamelOpenTelemetryClientFeature}, which enriches it instead of creating
+     * a second CLIENT span for the same HTTP call.
+     */
+    public void setSuppressDuplicateClientSpans(boolean suppressDuplicateClientSpans) {
+        this.suppressDuplicateClientSpans = suppressDuplicateClientSpans;
+    }
+
+    @ManagedAttribute(description = "Number of Splitter or Multicast children traced in full before sampling them")
+    public int getMaxFanOutSpans() {
+        return maxFanOutSpans;
+    }
+
+    /**
+     * Number of children of a Splitter or Multicast which get their spans as usual. Beyond that, only one child out of
+     * {@link #setFanOutSampleInterval(int) fanOutSampleInterval} is traced, and a fan-out-summary span is added under
+     * the parent with the count, errors and latency histogram of the children past this number, linked to up to
+     * {@link #setFanOutMaxLinks(int) fanOutMaxLinks} of the sampled ones. The default value 0 traces all the children.
+     */
+    public void setMaxFanOutSpans(int maxFanOutSpans) {
+        this.maxFanOutSpans = maxFanOutSpans;
+    }
+
+    @ManagedAttribute(description = "One child out of this number is traced past the max fan-out spans")
+    public int getFanOutSampleInterval() {
+        return fanOutSampleInterval;
+    }
+
+    /**
+     * One child out of this number is traced once a Splitter or Multicast went past
+     * {@link #setMaxFanOutSpans(int) maxFanOutSpans} children. The default value is 100.
+     */
+    public void setFanOutSampleInterval(int fanOutSampleInterval) {
+        this.fanOutSampleInterval = fanOutSampleInterval;
+    }
+
+    @ManagedAttribute(description = "Maximum number of links from a fan-out summary span to the sampled children")
+    public int getFanOutMaxLinks() {
+        return fanOutMaxLinks;
+    }
+
+    /**
+     * Maximum number of links from a fan-out-summary span to the spans of the sampled children, the next sampled
+     * children are still counted but not linked. The default value is 128, the default span link limit of the SDK.
+     */
+    public void setFanOutMaxLinks(int fanOutMaxLinks) {
+        this.fanOutMaxLinks = fanOutMaxLinks;
+    }
+
+    public String getDeadlineHeader() {
+        return deadlineHeader;
+    }
+
+    /**
+     * Name of the inbound header holding the time the caller is willing to wait, in milliseconds or as an ISO-8601
+     * duration. The resulting deadline is carried in the {@value RequestDeadline#BAGGAGE_KEY} baggage entry, along with
+     * the one from the {@value RequestDeadline#ROUTE_PROPERTY} route property, the earliest one wins.
+     */
+    public void setDeadlineHeader(String deadlineHeader) {
+        this.deadlineHeader = deadlineHeader;
+    }
+
+    @ManagedAttribute(description = "Whether the rate, errors and duration of the spans are recorded as metrics")
+    public boolean isSpanMetrics() {
+        return spanMetrics;
+    }
+
+    /**
+     * Setting this to true records the number, errors and duration of the exchanges received by the routes and sent
+     * to endpoints in the camel.exchange.requests, camel.exchange.errors and camel.exchange.duration metrics, by route
+     * id, component and span kind. They are recorded for the spans which are not sampled as well, with exemplars
+     * pointing to the sampled ones.
+     */
+    public void setSpanMetrics(boolean spanMetrics) {
+        this.spanMetrics = spanMetrics;
+    }
+
+    @ManagedAttribute(description = "Maximum number of distinct attribute sets of the span metrics")
+    public int getSpanMetricsMaxCardinality() {
+        return spanMetricsMaxCardinality;
+    }
+
+    /**
+     * Maximum number of distinct route id, component and span kind combinations recorded by the span metrics, the
+     * route id of the next ones is replaced by _other_. The default value is 1000.
+     */
+    public void setSpanMetricsMaxCardinality(int spanMetricsMaxCardinality) {
+        this.spanMetricsMaxCardinality = spanMetricsMaxCardinality;
+    }
+
     @Override
     public RoutePolicy createRoutePolicy(CamelContext camelContext, String routeId, NamedNode route) {
         init(camelContext);
@@ -260,6 +424,10 @@ public class OpenTelemetryTracer extends ServiceSupport implements CamelTracingS
             openTelemetryTracingStrategy.setPropagateContext(true);
             setTracingStrategy(openTelemetryTracingStrategy);
         }
+        if (spanMetrics && metrics == null) {
+            metrics = new SpanMetrics(GlobalOpenTelemetry.get().getMeter(instrumentationName),
+                    spanMetricsMaxCardinality);
+        }
     }
 
     protected void initContextPropagators() {
@@ -270,20 +438,43 @@ public class OpenTelemetryTracer extends ServiceSupport implements CamelTracingS
             // GlobalOpenTelemetry.get() is always NotNull, falls back to OpenTelemetry.noop()
             contextPropagators = GlobalOpenTelemetry.get().getPropagators();
         }
+        if (encoding) {
+            Set<String> fields = new LinkedHashSet<>(contextPropagators.getTextMapPropagator().fields());
+            fields.addAll(GlobalOpenTelemetry.get().getPropagators().getTextMapPropagator().fields());
+            encodedHeaderKeys = new EncodedHeaderKeys(fields);
+        }
+    }
+
+    protected ExtractAdapter getExtractAdapter(SpanDecorator sd, Exchange exchange) {
+        if (encodedHeaderKeys != null && encodedHeaderKeys.supports(sd)) {
+            return encodedHeaderKeys.extractAdapter(exchange.getIn().getHeaders());
+        }
+        return sd.getExtractAdapter(exchange.getIn().getHeaders(), encoding);
+    }
+
+    protected InjectAdapter getInjectAdapter(SpanDecorator sd, Exchange exchange) {
+        if (encodedHeaderKeys != null && encodedHeaderKeys.supports(sd)) {
+            return encodedHeaderKeys.injectAdapter(exchange.getIn().getHeaders());
+        }
+        return sd.getInjectAdapter(exchange.getIn().getHeaders(), encoding);
     }
 
     protected Context startSpan(Exchange exchange, SpanDecorator sd, Endpoint endpoint, SpanKind kind) {
         Holder holder = getHolder(exchange);
         String operationName = sd.getOperationName(exchange, endpoint);
         SpanBuilder builder = tracer.spanBuilder(operationName).setSpanKind(kind);
-        Context context = null;
+        // consumed by the first route receiving the exchange, even when the holder is used
+        Context context = internalContextPropagator.takeInJvm(exchange);
         if (holder != null) {
             context = holder.getContext();
         }
         if (context == null) {
-            ExtractAdapter adapter = sd.getExtractAdapter(exchange.getIn().getHeaders(), encoding);
-            context = GlobalOpenTelemetry.get().getPropagators().getTextMapPropagator().extract(Context.root(), adapter,
-                    new OpenTelemetryGetter(adapter));
+            ExtractAdapter adapter = getExtractAdapter(sd, exchange);
+            context = internalContextPropagator.extractBinary(adapter);
+            if (context == null) {
+                context = GlobalOpenTelemetry.get().getPropagators().getTextMapPropagator().extract(Context.root(),
+                        adapter, new OpenTelemetryGetter(adapter));
+            }
         }
         if (context == null) {
             context = Context.root();
@@ -300,7 +491,26 @@ public class OpenTelemetryTracer extends ServiceSupport implements CamelTracingS
     }
 
     protected void inject(Holder holder, InjectAdapter adapter) {
-        GlobalOpenTelemetry.get().getPropagators().getTextMapPropagator().inject(holder.getContext(), adapter,
+        inject(holder.getContext(), adapter);
+    }
+
+    protected void inject(Holder holder, InjectAdapter adapter, Exchange exchange, Endpoint endpoint) {
+        Context context = holder.getContext();
+        if (internalContextPropagator.injectInJvm(context, exchange, endpoint)) {
+            return;
+        }
+        Baggage baggage = Baggage.fromContext(context);
+        Baggage limited = baggageLimits.apply(baggage, exchange.getContext(), endpoint.getEndpointUri());
+        if (limited != baggage) {
+            context = context.with(limited);
+        }
+        if (!internalContextPropagator.injectBinary(context, exchange, endpoint, adapter)) {
+            inject(context, adapter);
+        }
+    }
+
+    private void inject(Context context, InjectAdapter adapter) {
+        GlobalOpenTelemetry.get().getPropagators().getTextMapPropagator().inject(context, adapter,
                 new OpenTelemetrySetter());
     }
 
@@ -309,10 +519,44 @@ public class OpenTelemetryTracer extends ServiceSupport implements CamelTracingS
         super.doStart();
 
         LOG.info("OpenTelemetryTracer enabled using instrumentation-name: {}", instrumentationName);
+        reportInstrumentationLayers();
+        if (baggageLimits.isEnabled()) {
+            LOG.info("OpenTelemetryTracer propagating baggage with {}", baggageLimits);
+        }
+    }
+
+    private void reportInstrumentationLayers() {
+        boolean agent = OpenTelemetryAgent.isAttached();
+        boolean contextWrapping = !OpenTelemetryAgent.isContextPropagationDelegated();
+        LOG.info("OpenTelemetry instrumentation layers: java-agent={}, camel-tracer=true, camel-thread-pools={},"
+                 + " cxf-work-queues={}", agent, contextWrapping, contextWrapping);
+        if (agent && !"false".equals(System.getProperty("otel.instrumentation.camel.enabled"))) {
+            LOG.warn("The OpenTelemetry agent Camel instrumentation is enabled along with the OpenTelemetryTracer,"
+                     + " Camel exchanges may be traced twice. Disable it with -Dotel.instrumentation.camel.enabled=false");
+        }
+        layersGauge = GlobalOpenTelemetry.get().getMeter(instrumentationName)
+                .gaugeBuilder("camel.opentelemetry.instrumentation.layers")
+                .setDescription("Active OpenTelemetry instrumentation layers, 1 if active")
+                .ofLongs()
+                .buildWithCallback(measurement -> {
+                    measurement.record(agent ? 1 : 0, Attributes.of(LAYER, "java-agent"));
+                    measurement.record(1, Attributes.of(LAYER, "camel-tracer"));
+                    measurement.record(contextWrapping ? 1 : 0, Attributes.of(LAYER, "camel-thread-pools"));
+                    measurement.record(contextWrapping ? 1 : 0, Attributes.of(LAYER, "cxf-work-queues"));
+                });
+    }
+
+    @ManagedAttribute(description = "Whether the OpenTelemetry Java agent is attached")
+    public boolean isJavaAgentAttached() {
+        return OpenTelemetryAgent.isAttached();
     }
 
     @Override
     protected void doShutdown() {
+        if (layersGauge != null) {
+            layersGauge.close();
+            layersGauge = null;
+        }
         // stop event notifier
         camelContext.getManagementStrategy().removeEventNotifier(eventNotifier);
         ServiceHelper.stopService(eventNotifier);
@@ -344,6 +588,10 @@ public class OpenTelemetryTracer extends ServiceSupport implements CamelTracingS
         return sd;
     }
 
+    private static boolean isCxfDecorator(SpanDecorator sd) {
+        return "cxf".equals(sd.getComponent()) || "cxfrs".equals(sd.getComponent());
+    }
+
     private boolean isExcluded(Exchange exchange, Endpoint endpoint) {
         String url = endpoint.getEndpointUri();
         if (url != null && excludePatterns != null) {
@@ -369,6 +617,8 @@ public class OpenTelemetryTracer extends ServiceSupport implements CamelTracingS
         Holder holder = getHolder(exchange);
         if (holder != null) {
             OpenTelemetrySpanAdapter span = getAdapter(holder);
+            holder.endFanOut(tracer);
+            holder.fanOutHopCompleted(exchange.isFailed());
             try (Scope ignored = holder.getContext().makeCurrent()) {
                 span.getOpenTelemetrySpan().end();
             }
@@ -394,6 +644,59 @@ public class OpenTelemetryTracer extends ServiceSupport implements CamelTracingS
         }
     }
 
+    private void applyDeadline(Exchange exchange, Route route, Holder holder) {
+        long timeout = RequestDeadline.parseTimeout(route.getProperties().get(RequestDeadline.ROUTE_PROPERTY));
+        if (deadlineHeader != null) {
+            long headerTimeout = RequestDeadline.parseTimeout(exchange.getIn().getHeader(deadlineHeader));
+            if (headerTimeout >= 0 && (timeout < 0 || headerTimeout < timeout)) {
+                timeout = headerTimeout;
+            }
+        }
+        if (timeout >= 0) {
+            OpenTelemetrySpanAdapter adapter = getAdapter(holder);
+            adapter.setBaggage(RequestDeadline.shorten(adapter.getBaggage(), timeout));
+        }
+    }
+
+    private void recordMetrics(Holder holder, SpanDecorator sd, SpanKind kind, Exchange exchange) {
+        if (metrics != null) {
+            metrics.record(holder.getRouteId(exchange), sd.getComponent(), kind, holder.startNanos,
+                    exchange.isFailed(), holder.getContext());
+        }
+    }
+
+    FanOutSummary.Decision fanOutDecision(Exchange exchange, Holder parent) {
+        if (parent != null && parent.isSuppressed()) {
+            return FanOutSummary.Decision.SUPPRESSED;
+        }
+        return FanOutSummary.decide(exchange, parent, maxFanOutSpans, fanOutSampleInterval, fanOutMaxLinks);
+    }
+
+    /**
+     * Pushes a holder without span for a fan-out child which is not traced, or any exchange nested in one. Only the
+     * hops of the children themselves are counted in the summary of their parent.
+     */
+    static Holder setSuppressedHolder(Exchange exchange, Holder parent) {
+        Holder holder = new Holder(parent, parent.getContext(), exchange.getExchangeId());
+        holder.suppressed = true;
+        if (!parent.isSuppressed()) {
+            holder.countIn(parent.getFanOut());
+        }
+        setHolder(exchange, holder);
+        return holder;
+    }
+
+    static void trackSampledHop(Holder parent, Holder child) {
+        FanOutSummary fanOut = parent.getFanOut();
+        fanOut.addLink(Span.fromContext(child.getContext()).getSpanContext());
+        child.countIn(fanOut);
+    }
+
+    static void unsetSuppressedHolder(Exchange exchange, Holder holder) {
+        holder.fanOutHopCompleted(exchange.isFailed());
+        unsetHolder(exchange, holder);
+    }
+
     public static Holder getHolder(Exchange exchange) {
         return exchange.getProperty(ACTIVE_SPAN, Holder.class);
     }
@@ -450,13 +753,30 @@ public class OpenTelemetryTracer extends ServiceSupport implements CamelTracingS
             if (shouldExclude(sd, exchange, endpoint)) {
                 return;
             }
-            final Context context = startSpan(exchange, sd, endpoint, mapToSpanKind(sd.getInitiatorSpanKind()));
-            final Holder child = new Holder(getHolder(exchange), context);
+            final Holder parent = getHolder(exchange);
+            final FanOutSummary.Decision decision = fanOutDecision(exchange, parent);
+            if (decision == FanOutSummary.Decision.SUPPRESSED) {
+                // downstream services still join the trace under the parent span
+                inject(setSuppressedHolder(exchange, parent), getInjectAdapter(sd, exchange), exchange, endpoint);
+                return;
+            }
+            final SpanKind kind = mapToSpanKind(sd.getInitiatorSpanKind());
+            final Context context = startSpan(exchange, sd, endpoint, kind);
+            final Holder child = new Holder(parent, context, exchange.getExchangeId());
             setHolder(exchange, child);
+            if (decision == FanOutSummary.Decision.SAMPLED) {
+                trackSampledHop(parent, child);
+            }
+            if (kind == SpanKind.CLIENT && isCxfDecorator(sd)) {
+                ClientCallContexts.register(context);
+                if (suppressDuplicateClientSpans) {
+                    ClientSpanSuppression.register(Span.fromContext(context));
+                }
+            }
             final SpanAdapter adapter = getAdapter(child);
             sd.pre(adapter, exchange, endpoint);
-            final InjectAdapter injectAdapter = sd.getInjectAdapter(exchange.getIn().getHeaders(), encoding);
-            inject(child, injectAdapter);
+            final InjectAdapter injectAdapter = getInjectAdapter(sd, exchange);
+            inject(child, injectAdapter, exchange, endpoint);
             if (LOG.isTraceEnabled()) {
                 LOG.trace("Tracing: start client span: {}", Span.fromContext(context));
             }
@@ -468,12 +788,24 @@ public class OpenTelemetryTracer extends ServiceSupport implements CamelTracingS
                 return;
             }
 
+            internalContextPropagator.clearInJvm(event.getExchange());
             Holder holder = getHolder(event.getExchange());
             if (holder != null) {
+                recordMetrics(holder, sd, mapToSpanKind(sd.getInitiatorSpanKind()), event.getExchange());
+            }
+            if (holder != null && holder.isSuppressed()) {
+                unsetSuppressedHolder(event.getExchange(), holder);
+            } else if (holder != null) {
                 if (LOG.isTraceEnabled()) {
                     LOG.trace("Tracing: stop client context: {}", holder.getContext());
                 }
-                SpanAdapter adapter = getAdapter(holder);
+                OpenTelemetrySpanAdapter adapter = getAdapter(holder);
+                if (isCxfDecorator(sd)) {
+                    ClientCallContexts.unregister(holder.getContext());
+                    if (suppressDuplicateClientSpans) {
+                        ClientSpanSuppression.unregister(adapter.getOpenTelemetrySpan());
+                    }
+                }
                 sd.post(adapter, event.getExchange(), event.getEndpoint());
                 finishSpan(event.getExchange());
             } else {
@@ -491,14 +823,25 @@ public class OpenTelemetryTracer extends ServiceSupport implements CamelTracingS
             }
 
             SpanDecorator sd = getSpanDecorator(route.getEndpoint());
-            SpanKind kind = getHolder(exchange) == null ? mapToSpanKind(sd.getReceiverSpanKind()) : SpanKind.INTERNAL;
+            Holder parent = getHolder(exchange);
+            SpanKind kind = parent == null ? mapToSpanKind(sd.getReceiverSpanKind()) : SpanKind.INTERNAL;
 
             try {
+                FanOutSummary.Decision decision = fanOutDecision(exchange, parent);
+                if (decision == FanOutSummary.Decision.SUPPRESSED) {
+                    setSuppressedHolder(exchange, parent).routeId = route.getRouteId();
+                    return;
+                }
                 Context context = startSpan(exchange, sd, route.getEndpoint(), kind);
-                Holder child = new Holder(getHolder(exchange), context);
+                Holder child = new Holder(parent, context, exchange.getExchangeId());
+                child.routeId = route.getRouteId();
                 setHolder(exchange, child);
+                if (decision == FanOutSummary.Decision.SAMPLED) {
+                    trackSampledHop(parent, child);
+                }
                 SpanAdapter adapter = getAdapter(child);
                 sd.pre(adapter, exchange, route.getEndpoint());
+                applyDeadline(exchange, route, child);
                 if (LOG.isTraceEnabled()) {
                     LOG.trace("Tracing: start server span={}", Span.fromContext(child.getContext()));
                 }
@@ -514,12 +857,22 @@ public class OpenTelemetryTracer extends ServiceSupport implements CamelTracingS
                 if (isExcluded(exchange, route.getEndpoint())) {
                     return;
                 }
+                SpanDecorator sd = getSpanDecorator(route.getEndpoint());
+                Holder holder = getHolder(exchange);
+                if (holder != null) {
+                    SpanKind kind = holder.getParent() == null
+                            ? mapToSpanKind(sd.getReceiverSpanKind()) : SpanKind.INTERNAL;
+                    recordMetrics(holder, sd, kind, exchange);
+                }
+                if (holder != null && holder.isSuppressed()) {
+                    unsetSuppressedHolder(exchange, holder);
+                    return;
+                }
                 SpanAdapter span = getAdapter(exchange);
                 if (span != null) {
                     if (LOG.isTraceEnabled()) {
                         LOG.trace("Tracing: finish server span={}", span);
                     }
-                    SpanDecorator sd = getSpanDecorator(route.getEndpoint());
                     sd.post(span, exchange, route.getEndpoint());
                     finishSpan(exchange);
                 } else {
@@ -556,15 +909,83 @@ public class OpenTelemetryTracer extends ServiceSupport implements CamelTracingS
 
         private Context context;
 
+        private final String exchangeId;
+
+        // for the span metrics, the route id is only set on the holders of the routes
+        private final long startNanos = System.nanoTime();
+        private String routeId;
+
+        // no span of its own, the context is the parent's
+        private boolean suppressed;
+
+        // summary of the children of this span past the max fan-out spans
+        private FanOutSummary fanOut;
+
+        // summary this span is a child hop of, with its start time
+        private FanOutSummary countedIn;
+        private long countedSince;
+
         public Holder(Holder parent, Context context) {
+            this(parent, context, null);
+        }
+
+        Holder(Holder parent, Context context, String exchangeId) {
             this.parent = parent;
             this.context = context;
+            this.exchangeId = exchangeId;
         }
 
         public Holder getParent() {
             return parent;
         }
 
+        String getExchangeId() {
+            return exchangeId;
+        }
+
+        String getRouteId(Exchange exchange) {
+            for (Holder holder = this; holder != null; holder = holder.parent) {
+                if (holder.routeId != null) {
+                    return holder.routeId;
+                }
+            }
+            return exchange.getFromRouteId();
+        }
+
+        boolean isSuppressed() {
+            return suppressed;
+        }
+
+        synchronized FanOutSummary getFanOut() {
+            return getFanOut(FanOutSummary.DEFAULT_MAX_LINKS);
+        }
+
+        synchronized FanOutSummary getFanOut(int maxLinks) {
+            if (fanOut == null) {
+                fanOut = new FanOutSummary(maxLinks);
+            }
+            return fanOut;
+        }
+
+        synchronized void endFanOut(Tracer tracer) {
+            if (fanOut != null) {
+                fanOut.end(tracer, context);
+                fanOut = null;
+            }
+        }
+
+        void countIn(FanOutSummary summary) {
+            countedIn = summary;
+            countedSince = System.nanoTime();
+        }
+
+        void fanOutHopCompleted(boolean failed) {
+            if (countedIn != null) {
+                countedIn.hopCompleted(System.nanoTime() - countedSince, failed);
+                countedIn = null;
+            }
+        }
+
         public Context getContext() {
             return context;
         }
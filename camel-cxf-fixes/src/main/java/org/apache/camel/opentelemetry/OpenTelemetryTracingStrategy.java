@@ -32,7 +32,10 @@ import org.apache.camel.tracing.SpanDecorator;
 import static org.apache.camel.opentelemetry.OpenTelemetryTracer.Holder;
 import static org.apache.camel.opentelemetry.OpenTelemetryTracer.getHolder;
 import static org.apache.camel.opentelemetry.OpenTelemetryTracer.setHolder;
+import static org.apache.camel.opentelemetry.OpenTelemetryTracer.setSuppressedHolder;
+import static org.apache.camel.opentelemetry.OpenTelemetryTracer.trackSampledHop;
 import static org.apache.camel.opentelemetry.OpenTelemetryTracer.unsetHolder;
+import static org.apache.camel.opentelemetry.OpenTelemetryTracer.unsetSuppressedHolder;
 
 public class OpenTelemetryTracingStrategy implements InterceptStrategy {
 
@@ -86,20 +89,38 @@ public class OpenTelemetryTracingStrategy implements InterceptStrategy {
                 context = Context.root();
             }
 
+            boolean activateExchange = !(target instanceof GetCorrelationContextProcessor
+                    || target instanceof SetCorrelationContextProcessor
+                    || target instanceof GetCorrelationContextItemsProcessor
+                    || target instanceof SetCorrelationContextItemsProcessor
+                    || target instanceof HeadersToCorrelationContextProcessor);
+
+            FanOutSummary.Decision decision = activateExchange ? tracer.fanOutDecision(exchange, holder) : null;
+            if (decision == FanOutSummary.Decision.SUPPRESSED) {
+                Holder suppressed = setSuppressedHolder(exchange, holder);
+                try {
+                    target.process(exchange);
+                } finally {
+                    unsetSuppressedHolder(exchange, suppressed);
+                }
+                return;
+            }
+
             final Span processorSpan = tracer.getTracer().spanBuilder(getOperationName(processorDefinition))
                     .setParent(context)
                     .setAttribute("component", getComponentName(processorDefinition))
                     .startSpan();
 
-            boolean activateExchange = !(target instanceof GetCorrelationContextProcessor
-                    || target instanceof SetCorrelationContextProcessor);
-
-            Holder child = new Holder(holder, context.with(processorSpan));
+            Holder child = new Holder(holder, context.with(processorSpan), exchange.getExchangeId());
             if (activateExchange) {
                 setHolder(exchange, child);
             }
+            if (decision == FanOutSummary.Decision.SAMPLED) {
+                trackSampledHop(holder, child);
+            }
 
-            try (Scope ignored = processorSpan.makeCurrent()) {
+            // the whole context, not only the span, so that the baggage such as the request deadline is current too
+            try (Scope ignored = child.getContext().makeCurrent()) {
                 target.process(exchange);
             } catch (Exception ex) {
                 processorSpan.setStatus(StatusCode.ERROR);
@@ -109,6 +130,8 @@ public class OpenTelemetryTracingStrategy implements InterceptStrategy {
                 if (activateExchange) {
                     unsetHolder(exchange, child);
                 }
+                child.endFanOut(tracer.getTracer());
+                child.fanOutHopCompleted(exchange.isFailed());
                 processorSpan.end();
             }
         }
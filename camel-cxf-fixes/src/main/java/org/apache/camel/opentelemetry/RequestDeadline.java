@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry;
+
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+
+import io.opentelemetry.api.baggage.Baggage;
+import io.opentelemetry.context.Context;
+
+/**
+ * Deadline of the request being processed, carried as an absolute epoch millis time in the {@value #BAGGAGE_KEY}
+ * baggage entry, so that it follows the request through threads, CXF calls and downstream services.
+ * <p/>
+ * The tracer sets it when a route starts from the timeout found in the configured header, or in the
+ * {@value #ROUTE_PROPERTY} route property, and only ever shortens a deadline received from the caller.
+ */
+public final class RequestDeadline {
+
+    public static final String BAGGAGE_KEY = "camel.deadline";
+    public static final String ROUTE_PROPERTY = "deadline";
+
+    private RequestDeadline() {
+    }
+
+    /**
+     * The deadline in epoch millis, or {@code null} if the baggage has none.
+     */
+    public static Long get(Baggage baggage) {
+        String value = baggage.getEntryValue(BAGGAGE_KEY);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The milliseconds left before the deadline, which may be negative, or {@link Long#MAX_VALUE} if there is none.
+     */
+    public static long remainingMillis(Baggage baggage) {
+        Long deadline = get(baggage);
+        return deadline != null ? deadline - System.currentTimeMillis() : Long.MAX_VALUE;
+    }
+
+    public static boolean isExpired(Context context) {
+        return remainingMillis(Baggage.fromContext(context)) <= 0;
+    }
+
+    /**
+     * Returns the baggage with a deadline {@code timeoutMillis} from now, unless it already has an earlier one.
+     */
+    static Baggage shorten(Baggage baggage, long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        Long current = get(baggage);
+        if (current != null && current <= deadline) {
+            return baggage;
+        }
+        return baggage.toBuilder().put(BAGGAGE_KEY, Long.toString(deadline)).build();
+    }
+
+    /**
+     * Parses a timeout given in milliseconds or as an ISO-8601 duration such as {@code PT2S}, returning -1 if there is
+     * none or it cannot be parsed.
+     */
+    static long parseTimeout(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value == null || value.toString().isBlank()) {
+            return -1;
+        }
+        String text = value.toString().trim();
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            // not millis
+        }
+        try {
+            return Duration.parse(text).toMillis();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+}
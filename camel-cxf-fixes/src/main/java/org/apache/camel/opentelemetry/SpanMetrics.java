@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+
+/**
+ * Rate, errors and duration (RED) of the Camel spans, recorded as OpenTelemetry metrics whether the spans are sampled
+ * or not, so that the latency SLOs stay accurate with a low trace sampling rate.
+ * <p/>
+ * The measurements are recorded in the context of the span, for the SDK to attach exemplars pointing to the sampled
+ * traces. Their attributes are the route id, the component of the span decorator and the span kind. Past
+ * {@code maxCardinality} distinct sets of attributes, the route id is replaced by {@value #OVERFLOW}.
+ */
+final class SpanMetrics {
+
+    static final String REQUESTS = "camel.exchange.requests";
+    static final String ERRORS = "camel.exchange.errors";
+    static final String DURATION = "camel.exchange.duration";
+    static final String OVERFLOW = "_other_";
+
+    static final AttributeKey<String> ROUTE_ID = AttributeKey.stringKey("camel.route.id");
+    static final AttributeKey<String> COMPONENT = AttributeKey.stringKey("camel.component");
+    static final AttributeKey<String> KIND = AttributeKey.stringKey("camel.span.kind");
+
+    private static final List<Double> BUCKET_BOUNDS = List.of(0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25,
+            0.5, 1.0, 2.5, 5.0, 10.0, 30.0);
+
+    private final LongCounter requests;
+    private final LongCounter errors;
+    private final DoubleHistogram duration;
+    private final int maxCardinality;
+    private final Map<String, Attributes> attributes = new ConcurrentHashMap<>();
+    // reserved before a set of attributes is cached, so that concurrent new route ids cannot exceed the bound
+    private final AtomicInteger cardinality = new AtomicInteger();
+
+    SpanMetrics(Meter meter, int maxCardinality) {
+        this.requests = meter.counterBuilder(REQUESTS)
+                .setDescription("Camel exchanges received by the routes or sent to endpoints")
+                .build();
+        this.errors = meter.counterBuilder(ERRORS)
+                .setDescription("Camel exchanges received by the routes or sent to endpoints which failed")
+                .build();
+        this.duration = meter.histogramBuilder(DURATION)
+                .setDescription("Duration of the Camel exchanges received by the routes or sent to endpoints")
+                .setUnit("s")
+                .setExplicitBucketBoundariesAdvice(BUCKET_BOUNDS)
+                .build();
+        this.maxCardinality = maxCardinality;
+    }
+
+    void record(String routeId, String component, SpanKind kind, long startNanos, boolean failed, Context context) {
+        Attributes attrs = attributes(routeId != null ? routeId : "", component != null ? component : "", kind);
+        requests.add(1, attrs, context);
+        if (failed) {
+            errors.add(1, attrs, context);
+        }
+        duration.record((System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1), attrs, context);
+    }
+
+    private Attributes attributes(String routeId, String component, SpanKind kind) {
+        String key = kind.ordinal() + "\n" + component + "\n" + routeId;
+        Attributes attrs = attributes.get(key);
+        if (attrs != null) {
+            return attrs;
+        }
+        if (cardinality.get() < maxCardinality) {
+            attrs = attributes.computeIfAbsent(key, k -> reserve() ? of(routeId, component, kind) : null);
+            if (attrs != null) {
+                return attrs;
+            }
+        }
+        // not cached, the overflow attributes are only built for the new route ids
+        return of(OVERFLOW, component, kind);
+    }
+
+    private boolean reserve() {
+        int current;
+        do {
+            current = cardinality.get();
+            if (current >= maxCardinality) {
+                return false;
+            }
+        } while (!cardinality.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private static Attributes of(String routeId, String component, SpanKind kind) {
+        return Attributes.of(ROUTE_ID, routeId, COMPONENT, component, KIND, kind.name().toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.cxf;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.feature.AbstractPortableFeature;
+import org.apache.cxf.feature.DelegatingFeature;
+import org.apache.cxf.interceptor.InterceptorProvider;
+
+/**
+ * Bounds the receive timeout of CXF client calls by the time left before the
+ * {@link org.apache.camel.opentelemetry.RequestDeadline request deadline}, and fails the calls past the deadline
+ * without sending them.
+ * <p/>
+ * {@link CamelOpenTelemetryClientFeature} already does it, this feature is for the clients traced otherwise, such as
+ * JAX-RS clients traced by the {@code OpenTelemetryProvider}.
+ */
+public class CamelDeadlineFeature extends DelegatingFeature<CamelDeadlineFeature.Portable> {
+
+    public CamelDeadlineFeature() {
+        this(CamelOpenTelemetryClientFeature.DEFAULT_MAX_RECEIVE_TIMEOUT);
+    }
+
+    public CamelDeadlineFeature(long maxReceiveTimeout) {
+        super(new Portable(maxReceiveTimeout));
+    }
+
+    public static class Portable implements AbstractPortableFeature {
+
+        private final DeadlineInterceptor interceptor;
+
+        public Portable(long maxReceiveTimeout) {
+            this.interceptor = new DeadlineInterceptor(maxReceiveTimeout);
+        }
+
+        @Override
+        public void doInitializeProvider(InterceptorProvider provider, Bus bus) {
+            provider.getOutInterceptors().add(interceptor);
+        }
+    }
+}
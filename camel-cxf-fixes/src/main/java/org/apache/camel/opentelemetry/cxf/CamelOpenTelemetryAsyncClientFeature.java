@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.cxf;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.endpoint.Client;
+import org.apache.cxf.feature.AbstractPortableFeature;
+import org.apache.cxf.feature.DelegatingFeature;
+import org.apache.cxf.interceptor.InterceptorProvider;
+
+/**
+ * Switches CXF clients to the asynchronous HttpClient 5 conduit, and makes the OTEL context of the caller current
+ * while the response is handled.
+ * <p/>
+ * With Camel asynchronous producers, the response is processed, and the Camel {@code AsyncCallback} invoked, on the
+ * thread dispatching the HTTP response, which has no OTEL context. The conduit needs
+ * {@code cxf-rt-transports-http-hc5} on the classpath, otherwise the blocking URLConnection conduit is still used and
+ * only the context restoring applies.
+ */
+public class CamelOpenTelemetryAsyncClientFeature
+        extends DelegatingFeature<CamelOpenTelemetryAsyncClientFeature.Portable> {
+
+    public CamelOpenTelemetryAsyncClientFeature() {
+        this(true);
+    }
+
+    public CamelOpenTelemetryAsyncClientFeature(boolean useAsyncConduit) {
+        super(new Portable(useAsyncConduit));
+    }
+
+    public static class Portable implements AbstractPortableFeature {
+
+        // see AsyncHTTPConduitFactory.USE_ASYNC
+        static final String USE_ASYNC = "use.async.http.conduit";
+
+        private final boolean useAsyncConduit;
+        private final ContextRestoringInterceptor interceptor = new ContextRestoringInterceptor();
+
+        public Portable(boolean useAsyncConduit) {
+            this.useAsyncConduit = useAsyncConduit;
+        }
+
+        @Override
+        public void doInitializeProvider(InterceptorProvider provider, Bus bus) {
+            provider.getOutInterceptors().add(interceptor);
+        }
+
+        @Override
+        public void initialize(Client client, Bus bus) {
+            if (useAsyncConduit) {
+                client.getEndpoint().put(USE_ASYNC, Boolean.TRUE);
+            }
+            doInitializeProvider(client, bus);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.cxf;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.OpenTelemetry;
+import org.apache.camel.opentelemetry.propagators.BaggageLimits;
+import org.apache.cxf.Bus;
+import org.apache.cxf.feature.AbstractPortableFeature;
+import org.apache.cxf.feature.DelegatingFeature;
+import org.apache.cxf.interceptor.InterceptorProvider;
+
+/**
+ * Client tracing feature for CXF endpoints invoked from Camel, replacing {@code OpenTelemetryClientFeature}.
+ * <p/>
+ * When the call is made by a Camel producer which already created a CLIENT span, that span is enriched with the HTTP
+ * request and response details, instead of creating a second CLIENT span describing the same call. Other calls get
+ * their own CLIENT span, as with the CXF feature.
+ * <p/>
+ * The receive timeout of the calls is also bounded by the time left before the
+ * {@link org.apache.camel.opentelemetry.RequestDeadline request deadline}, up to {@value #DEFAULT_MAX_RECEIVE_TIMEOUT}
+ * ms by default as the CXF receive timeout, and the calls past the deadline fail without being sent.
+ * <p/>
+ * The propagated baggage is left as is, unless {@link #setBaggageLimits(BaggageLimits) baggage limits} are set, usually
+ * the ones of the {@link org.apache.camel.opentelemetry.OpenTelemetryTracer}. The allowed keys patterns are then
+ * matched against the endpoint address.
+ */
+public class CamelOpenTelemetryClientFeature extends DelegatingFeature<CamelOpenTelemetryClientFeature.Portable> {
+
+    public CamelOpenTelemetryClientFeature() {
+        this(GlobalOpenTelemetry.get());
+    }
+
+    // the default HTTPClientPolicy receive timeout, for the conduits without HTTPClientPolicy
+    public static final long DEFAULT_MAX_RECEIVE_TIMEOUT = 60_000L;
+
+    public CamelOpenTelemetryClientFeature(OpenTelemetry openTelemetry) {
+        this(openTelemetry, DEFAULT_MAX_RECEIVE_TIMEOUT);
+    }
+
+    public CamelOpenTelemetryClientFeature(OpenTelemetry openTelemetry, long maxReceiveTimeout) {
+        super(new Portable(openTelemetry, maxReceiveTimeout));
+    }
+
+    /**
+     * Limits applied to the baggage propagated in the HTTP headers.
+     */
+    public void setBaggageLimits(BaggageLimits baggageLimits) {
+        getDelegate().setBaggageLimits(baggageLimits);
+    }
+
+    public static class Portable implements AbstractPortableFeature {
+
+        private final ClientSpanStartInterceptor startInterceptor;
+        private final ClientSpanStopInterceptor stopInterceptor;
+        private final DeadlineInterceptor deadlineInterceptor;
+
+        public Portable(OpenTelemetry openTelemetry) {
+            this(openTelemetry, DEFAULT_MAX_RECEIVE_TIMEOUT);
+        }
+
+        public Portable(OpenTelemetry openTelemetry, long maxReceiveTimeout) {
+            this.startInterceptor = new ClientSpanStartInterceptor(openTelemetry);
+            this.stopInterceptor = new ClientSpanStopInterceptor();
+            this.deadlineInterceptor = new DeadlineInterceptor(maxReceiveTimeout);
+        }
+
+        public void setBaggageLimits(BaggageLimits baggageLimits) {
+            startInterceptor.setBaggageLimits(baggageLimits);
+        }
+
+        @Override
+        public void doInitializeProvider(InterceptorProvider provider, Bus bus) {
+            provider.getOutInterceptors().add(startInterceptor);
+            provider.getOutInterceptors().add(deadlineInterceptor);
+            provider.getInInterceptors().add(stopInterceptor);
+            provider.getInFaultInterceptors().add(stopInterceptor);
+        }
+    }
+}
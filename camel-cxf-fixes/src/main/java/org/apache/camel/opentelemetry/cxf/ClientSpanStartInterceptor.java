@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.cxf;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.baggage.Baggage;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.semconv.SemanticAttributes;
+import org.apache.camel.opentelemetry.ClientSpanSuppression;
+import org.apache.camel.opentelemetry.propagators.BaggageLimits;
+import org.apache.cxf.interceptor.StaxOutInterceptor;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+
+/**
+ * Claims the CLIENT span created by Camel for this call, or starts a new one, and propagates it in the HTTP headers.
+ */
+class ClientSpanStartInterceptor extends AbstractPhaseInterceptor<Message> {
+
+    static final String CLIENT_CALL = ClientSpanStartInterceptor.class.getName() + ".CLIENT_CALL";
+    static final AttributeKey<Long> REQUEST_BODY_SIZE = AttributeKey.longKey("http.request.body.size");
+    static final AttributeKey<Long> RESPONSE_BODY_SIZE = AttributeKey.longKey("http.response.body.size");
+
+    private static final String DEFAULT_METHOD = "POST";
+
+    private final OpenTelemetry openTelemetry;
+    private final Tracer tracer;
+    private volatile BaggageLimits baggageLimits;
+
+    ClientSpanStartInterceptor(OpenTelemetry openTelemetry) {
+        super(Phase.PRE_STREAM);
+        // count the bytes below the XML writer
+        addBefore(StaxOutInterceptor.class.getName());
+        this.openTelemetry = openTelemetry;
+        this.tracer = openTelemetry.getTracer("camel-cxf");
+    }
+
+    @Override
+    public void handleMessage(Message message) {
+        String method = (String) message.get(Message.HTTP_REQUEST_METHOD);
+        if (method == null) {
+            method = DEFAULT_METHOD;
+        }
+        String address = (String) message.get(Message.ENDPOINT_ADDRESS);
+
+        Map<String, List<String>> headers = ProtocolHeaders.getOrCreate(message);
+        Span span = ClientSpanSuppression.claim(ProtocolHeaders.propagatedSpanContext(
+                openTelemetry.getPropagators().getTextMapPropagator(), headers));
+        boolean owned = span == null;
+        if (owned) {
+            span = tracer.spanBuilder(address != null ? method + " " + address : method)
+                    .setSpanKind(SpanKind.CLIENT)
+                    .setParent(Context.current())
+                    .startSpan();
+        }
+        span.setAttribute(SemanticAttributes.HTTP_REQUEST_METHOD, method);
+        if (address != null) {
+            span.setAttribute(SemanticAttributes.URL_FULL, address);
+        }
+        message.getExchange().put(CLIENT_CALL, new ClientCall(span, owned));
+
+        OutputStream os = message.getContent(OutputStream.class);
+        if (os != null) {
+            Span requestSpan = span;
+            message.setContent(OutputStream.class, new CountingStreams.CountingOutputStream(os,
+                    count -> requestSpan.setAttribute(REQUEST_BODY_SIZE, count)));
+        }
+
+        Context context = Context.current().with(span);
+        BaggageLimits limits = baggageLimits;
+        if (limits != null) {
+            Baggage baggage = Baggage.fromContext(context);
+            Baggage limited = limits.apply(baggage, null, address);
+            if (limited != baggage) {
+                context = context.with(limited);
+            }
+        }
+        openTelemetry.getPropagators().getTextMapPropagator().inject(context, headers, ProtocolHeaders.SETTER);
+    }
+
+    void setBaggageLimits(BaggageLimits baggageLimits) {
+        this.baggageLimits = baggageLimits;
+    }
+
+    @Override
+    public void handleFault(Message message) {
+        ClientCall call = (ClientCall) message.getExchange().remove(CLIENT_CALL);
+        if (call != null) {
+            Exception exception = message.getContent(Exception.class);
+            call.span().setStatus(StatusCode.ERROR);
+            if (exception != null) {
+                call.span().recordException(exception);
+            }
+            call.end();
+        }
+    }
+
+    /**
+     * The span of a client call, which is only ended here if it was not created by Camel, and only once, whichever of
+     * the response stream and the exchange completes first.
+     */
+    static final class ClientCall {
+
+        private final Span span;
+        private final boolean owned;
+        private final AtomicBoolean ended = new AtomicBoolean();
+
+        ClientCall(Span span, boolean owned) {
+            this.span = span;
+            this.owned = owned;
+        }
+
+        Span span() {
+            return span;
+        }
+
+        boolean owned() {
+            return owned;
+        }
+
+        void end() {
+            if (owned && ended.compareAndSet(false, true)) {
+                span.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.cxf;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.semconv.SemanticAttributes;
+import org.apache.camel.Exchange;
+import org.apache.camel.support.SynchronizationAdapter;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+
+import static org.apache.camel.opentelemetry.cxf.ClientSpanStartInterceptor.CLIENT_CALL;
+import static org.apache.camel.opentelemetry.cxf.ClientSpanStartInterceptor.RESPONSE_BODY_SIZE;
+import static org.apache.camel.opentelemetry.cxf.DeadlineInterceptor.CAMEL_EXCHANGE;
+
+/**
+ * Records the response status and size on the client span. The span created by {@link ClientSpanStartInterceptor} is
+ * ended once the response body is read to its end or closed, so that it covers a body streamed to the caller, or when
+ * the Camel exchange making the call completes, if the body was left unread. Without a Content-Length header the size
+ * is counted while the response is read, so it is only recorded on a span created by Camel if the span is still open by
+ * then.
+ */
+class ClientSpanStopInterceptor extends AbstractPhaseInterceptor<Message> {
+
+    ClientSpanStopInterceptor() {
+        super(Phase.RECEIVE);
+    }
+
+    @Override
+    public void handleMessage(Message message) {
+        ClientSpanStartInterceptor.ClientCall call =
+                (ClientSpanStartInterceptor.ClientCall) message.getExchange().remove(CLIENT_CALL);
+        if (call == null) {
+            return;
+        }
+        Integer responseCode = (Integer) message.get(Message.RESPONSE_CODE);
+        if (responseCode != null) {
+            call.span().setAttribute(SemanticAttributes.HTTP_RESPONSE_STATUS_CODE, responseCode.longValue());
+            if (responseCode >= 400) {
+                call.span().setStatus(StatusCode.ERROR);
+            }
+        }
+        Long contentLength = contentLength(message);
+        if (contentLength != null) {
+            call.span().setAttribute(RESPONSE_BODY_SIZE, contentLength);
+        }
+        InputStream is = message.getContent(InputStream.class);
+        if (is == null) {
+            call.end();
+            return;
+        }
+        message.setContent(InputStream.class, new CountingStreams.CountingInputStream(is, count -> {
+            if (contentLength == null) {
+                call.span().setAttribute(RESPONSE_BODY_SIZE, count);
+            }
+            call.end();
+        }));
+        if (call.owned()) {
+            endOnCompletion(message, call);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Long contentLength(Message message) {
+        Map<String, List<String>> headers = (Map<String, List<String>>) message.get(Message.PROTOCOL_HEADERS);
+        List<String> contentLength = headers != null ? headers.get("Content-Length") : null;
+        if (contentLength != null && !contentLength.isEmpty()) {
+            try {
+                return Long.parseLong(contentLength.get(0).trim());
+            } catch (NumberFormatException e) {
+                // count it instead
+            }
+        }
+        return null;
+    }
+
+    // the body of a streamed response may never be read to its end, nor closed
+    private static void endOnCompletion(Message message, ClientSpanStartInterceptor.ClientCall call) {
+        if (message.getExchange().get(CAMEL_EXCHANGE) instanceof Exchange exchange) {
+            exchange.getExchangeExtension().addOnCompletion(new SynchronizationAdapter() {
+                @Override
+                public void onDone(Exchange exchange) {
+                    call.end();
+                }
+            });
+        }
+    }
+}
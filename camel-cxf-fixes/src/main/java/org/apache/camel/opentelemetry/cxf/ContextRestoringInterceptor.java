@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.cxf;
+
+import java.util.List;
+import java.util.Map;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import org.apache.camel.opentelemetry.ClientCallContexts;
+import org.apache.cxf.interceptor.MessageSenderInterceptor;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+import org.apache.cxf.transport.Conduit;
+import org.apache.cxf.transport.MessageObserver;
+
+/**
+ * Keeps the OTEL context of the call in the CXF exchange, and wraps the observer of the conduit so that this context
+ * is current while the response, and the client callback, are handled on whichever thread the conduit uses.
+ * <p/>
+ * For the calls made by Camel producers, this is the context of the Camel CLIENT span of the call, found by the span
+ * id propagated in the headers, as Camel does not make it current. For other calls, it is the current context.
+ */
+class ContextRestoringInterceptor extends AbstractPhaseInterceptor<Message> {
+
+    ContextRestoringInterceptor() {
+        super(Phase.PREPARE_SEND);
+        addBefore(MessageSenderInterceptor.class.getName());
+    }
+
+    @Override
+    public void handleMessage(Message message) {
+        Exchange exchange = message.getExchange();
+        exchange.put(Context.class, callContext(message));
+        Conduit conduit = exchange.getConduit(message);
+        if (conduit == null) {
+            return;
+        }
+        // the conduit is shared by the calls of the client, its observer is the client itself
+        synchronized (conduit) {
+            MessageObserver observer = conduit.getMessageObserver();
+            if (observer != null && !(observer instanceof ContextRestoringObserver)) {
+                conduit.setMessageObserver(new ContextRestoringObserver(observer));
+            }
+        }
+    }
+
+    private static Context callContext(Message message) {
+        @SuppressWarnings("unchecked")
+        Map<String, List<String>> headers = (Map<String, List<String>>) message.get(Message.PROTOCOL_HEADERS);
+        Context context = ClientCallContexts.lookup(ProtocolHeaders.propagatedSpanContext(
+                GlobalOpenTelemetry.get().getPropagators().getTextMapPropagator(), headers));
+        return context != null ? context : Context.current();
+    }
+
+    private record ContextRestoringObserver(MessageObserver delegate) implements MessageObserver {
+
+        @Override
+        public void onMessage(Message message) {
+            Exchange exchange = message.getExchange();
+            Context context = exchange != null ? exchange.get(Context.class) : null;
+            if (context == null) {
+                delegate.onMessage(message);
+                return;
+            }
+            try (Scope ignored = context.makeCurrent()) {
+                delegate.onMessage(message);
+            }
+        }
+    }
+}
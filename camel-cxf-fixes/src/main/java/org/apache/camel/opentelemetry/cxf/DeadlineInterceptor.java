@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.cxf;
+
+import java.util.concurrent.TimeoutException;
+
+import io.opentelemetry.api.baggage.Baggage;
+import org.apache.camel.opentelemetry.OpenTelemetryTracer;
+import org.apache.camel.opentelemetry.RequestDeadline;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.interceptor.MessageSenderInterceptor;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+import org.apache.cxf.transport.http.HTTPConduit;
+import org.apache.cxf.transports.http.configuration.HTTPClientPolicy;
+
+/**
+ * Bounds the receive timeout of the call by the time left before the request deadline, and fails the call without
+ * sending it once the deadline has passed.
+ * <p/>
+ * The deadline can only shorten the receive timeout configured for the call: the receive timeout of the message, or of
+ * the {@link HTTPClientPolicy} of the conduit, or {@code maxReceiveTimeout} for the other conduits.
+ */
+class DeadlineInterceptor extends AbstractPhaseInterceptor<Message> {
+
+    // see CxfConstants.CAMEL_EXCHANGE
+    static final String CAMEL_EXCHANGE = "CamelExchange";
+
+    private final long maxReceiveTimeout;
+
+    DeadlineInterceptor(long maxReceiveTimeout) {
+        super(Phase.PREPARE_SEND);
+        // the conduit reads the receive timeout when it is prepared
+        addBefore(MessageSenderInterceptor.class.getName());
+        this.maxReceiveTimeout = maxReceiveTimeout;
+    }
+
+    @Override
+    public void handleMessage(Message message) {
+        long remaining = RequestDeadline.remainingMillis(baggage(message));
+        if (remaining == Long.MAX_VALUE) {
+            return;
+        }
+        if (remaining <= 0) {
+            throw new Fault(new TimeoutException("Request deadline exceeded before calling "
+                                                 + message.get(Message.ENDPOINT_ADDRESS)));
+        }
+        message.put(Message.RECEIVE_TIMEOUT, Math.min(remaining, receiveTimeout(message)));
+    }
+
+    private long receiveTimeout(Message message) {
+        // set per call, see HTTPConduit.determineReceiveTimeout
+        Object configured = message.get(Message.RECEIVE_TIMEOUT);
+        if (configured != null) {
+            return positiveOrUnbounded(configured instanceof Number n
+                    ? n.longValue() : Long.parseLong(configured.toString()));
+        }
+        if (message.getExchange().getConduit(message) instanceof HTTPConduit conduit) {
+            HTTPClientPolicy policy = conduit.getClient(message);
+            if (policy != null) {
+                return positiveOrUnbounded(policy.getReceiveTimeout());
+            }
+        }
+        return maxReceiveTimeout;
+    }
+
+    // a receive timeout of 0 waits forever
+    private static long positiveOrUnbounded(long timeout) {
+        return timeout > 0 ? timeout : Long.MAX_VALUE;
+    }
+
+    private static Baggage baggage(Message message) {
+        // the Camel exchange has the baggage of the producer span, the current context may not
+        if (message.getExchange().get(CAMEL_EXCHANGE) instanceof org.apache.camel.Exchange exchange) {
+            OpenTelemetryTracer.Holder holder = OpenTelemetryTracer.getHolder(exchange);
+            if (holder != null) {
+                return holder.getBaggage();
+            }
+        }
+        return Baggage.current();
+    }
+}
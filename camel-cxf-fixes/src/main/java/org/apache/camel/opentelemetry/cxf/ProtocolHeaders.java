@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.cxf;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.context.propagation.TextMapSetter;
+import org.apache.cxf.message.Message;
+
+/**
+ * Access to the OTEL context propagated in the protocol headers of a CXF message.
+ */
+final class ProtocolHeaders {
+
+    static final TextMapSetter<Map<String, List<String>>> SETTER
+            = (headers, key, value) -> headers.put(key, List.of(value));
+    static final TextMapGetter<Map<String, List<String>>> GETTER = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(Map<String, List<String>> headers) {
+            return headers.keySet();
+        }
+
+        @Override
+        public String get(Map<String, List<String>> headers, String key) {
+            List<String> values = headers != null ? headers.get(key) : null;
+            return values == null || values.isEmpty() ? null : values.get(0);
+        }
+    };
+
+    private ProtocolHeaders() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, List<String>> getOrCreate(Message message) {
+        Map<String, List<String>> headers = (Map<String, List<String>>) message.get(Message.PROTOCOL_HEADERS);
+        if (headers == null) {
+            headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            message.put(Message.PROTOCOL_HEADERS, headers);
+        }
+        return headers;
+    }
+
+    /**
+     * The span context propagated by Camel in the headers copied from the exchange, if any.
+     */
+    static SpanContext propagatedSpanContext(TextMapPropagator propagator, Map<String, List<String>> headers) {
+        if (headers == null || headers.isEmpty()) {
+            return null;
+        }
+        return Span.fromContext(propagator.extract(Context.root(), headers, GETTER)).getSpanContext();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.cxf;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.feature.AbstractPortableFeature;
+import org.apache.cxf.feature.DelegatingFeature;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.interceptor.InterceptorProvider;
+import org.apache.cxf.interceptor.MessageSenderInterceptor;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+import org.apache.cxf.workqueue.AutomaticWorkQueue;
+import org.apache.cxf.workqueue.AutomaticWorkQueueImpl;
+import org.apache.cxf.workqueue.PriorityAutomaticWorkQueueImpl;
+import org.apache.cxf.workqueue.WorkQueueManager;
+import org.apache.cxf.workqueue.WorkQueueRejections;
+
+/**
+ * Server feature shedding the requests received while a CXF work queue is full, before any work is done for them.
+ * <p/>
+ * The request is answered right away with a fault, a SOAP fault for SOAP endpoints, with the HTTP status 503 and a
+ * {@code Retry-After} header. Shed requests are recorded as rejections of the queue, with the {@code shed} reason.
+ */
+public class WorkQueueOverloadFeature extends DelegatingFeature<WorkQueueOverloadFeature.Portable> {
+
+    public WorkQueueOverloadFeature() {
+        this("default", 1);
+    }
+
+    public WorkQueueOverloadFeature(String queueName, long retryAfterSeconds) {
+        super(new Portable(queueName, retryAfterSeconds));
+    }
+
+    public static class Portable implements AbstractPortableFeature {
+
+        private static final String OVERLOADED = WorkQueueOverloadFeature.class.getName() + ".OVERLOADED";
+
+        private final GuardInterceptor guardInterceptor;
+        private final RetryAfterInterceptor retryAfterInterceptor;
+
+        public Portable(String queueName, long retryAfterSeconds) {
+            this.guardInterceptor = new GuardInterceptor(queueName);
+            this.retryAfterInterceptor = new RetryAfterInterceptor(retryAfterSeconds);
+        }
+
+        @Override
+        public void doInitializeProvider(InterceptorProvider provider, Bus bus) {
+            provider.getInInterceptors().add(guardInterceptor);
+            provider.getOutFaultInterceptors().add(retryAfterInterceptor);
+        }
+    }
+
+    static final class GuardInterceptor extends AbstractPhaseInterceptor<Message> {
+
+        private final String queueName;
+
+        GuardInterceptor(String queueName) {
+            super(Phase.RECEIVE);
+            this.queueName = queueName;
+        }
+
+        @Override
+        public void handleMessage(Message message) {
+            WorkQueueManager manager = message.getExchange().getBus().getExtension(WorkQueueManager.class);
+            if (manager == null || !isFull(manager.getNamedWorkQueue(queueName))) {
+                return;
+            }
+            WorkQueueRejections.record(queueName, "shed");
+            message.getExchange().put(Portable.OVERLOADED, Boolean.TRUE);
+            Fault fault = new Fault(new RejectedExecutionException("Server overloaded, work queue " + queueName
+                                                                   + " is full"));
+            fault.setStatusCode(503);
+            throw fault;
+        }
+
+        private static boolean isFull(AutomaticWorkQueue queue) {
+            if (queue instanceof AutomaticWorkQueueImpl impl) {
+                return impl.isFull();
+            }
+            return queue instanceof PriorityAutomaticWorkQueueImpl priorityQueue && priorityQueue.isFull();
+        }
+    }
+
+    static final class RetryAfterInterceptor extends AbstractPhaseInterceptor<Message> {
+
+        private final String retryAfter;
+
+        RetryAfterInterceptor(long retryAfterSeconds) {
+            super(Phase.PREPARE_SEND);
+            addBefore(MessageSenderInterceptor.class.getName());
+            this.retryAfter = Long.toString(retryAfterSeconds);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void handleMessage(Message message) {
+            if (!Boolean.TRUE.equals(message.getExchange().get(Portable.OVERLOADED))) {
+                return;
+            }
+            message.put(Message.RESPONSE_CODE, 503);
+            Map<String, List<String>> headers = (Map<String, List<String>>) message.get(Message.PROTOCOL_HEADERS);
+            if (headers == null) {
+                headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+                message.put(Message.PROTOCOL_HEADERS, headers);
+            }
+            headers.put("Retry-After", List.of(retryAfter));
+        }
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.export;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Exporter spilling to disk the batches its delegate fails to export, or does not export in time, and replaying them
+ * once the delegate exports again.
+ * <p/>
+ * The batches are appended to memory-mapped segment files in a directory, up to a size cap past which the oldest
+ * segments are evicted. While batches wait on disk, the new ones are spilled as well, so that they are replayed in
+ * order. The replay is attempted every {@code retryInterval}, and stops at the first failure. A batch spilled after
+ * the export timeout, or replayed without the delegate exporting it in time, is discarded from the disk if the delegate
+ * exports it later on, so that it is not exported twice. Batches failing to export after the shutdown are dropped.
+ */
+public final class DiskBufferingSpanExporter implements SpanExporter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DiskBufferingSpanExporter.class);
+
+    private final SpanExporter delegate;
+    private final MappedSpillStore store;
+    private final long exportTimeoutNanos;
+    private final ScheduledExecutorService replayer;
+    // apart from the replayer, which may wait for a hanging delegate
+    private final ScheduledExecutorService timer;
+
+    private final LongAdder spilledBatches = new LongAdder();
+    private final LongAdder replayedBatches = new LongAdder();
+    private final LongAdder discardedBatches = new LongAdder();
+    private final LongAdder droppedSpans = new LongAdder();
+    private final AtomicBoolean metricsRegistered = new AtomicBoolean();
+
+    private DiskBufferingSpanExporter(Builder builder) throws IOException {
+        this.delegate = builder.delegate;
+        this.store = new MappedSpillStore(builder.directory, builder.segmentSize, builder.maxBytes);
+        this.exportTimeoutNanos = builder.exportTimeoutNanos;
+        this.replayer = Executors.newSingleThreadScheduledExecutor(daemon("camel-otel-span-replay"));
+        this.timer = Executors.newSingleThreadScheduledExecutor(daemon("camel-otel-span-export-timeout"));
+        this.replayer.scheduleWithFixedDelay(this::replay, builder.retryIntervalNanos, builder.retryIntervalNanos,
+                TimeUnit.NANOSECONDS);
+    }
+
+    public static Builder builder(SpanExporter delegate, Path directory) {
+        return new Builder(delegate, directory);
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        if (!store.isEmpty()) {
+            return spill(spans) != null ? CompletableResultCode.ofSuccess() : CompletableResultCode.ofFailure();
+        }
+        CompletableResultCode exported;
+        try {
+            exported = delegate.export(spans);
+        } catch (RuntimeException e) {
+            LOG.debug("Failed to export {} spans, spilling them", spans.size(), e);
+            exported = CompletableResultCode.ofFailure();
+        }
+        PendingExport pending = new PendingExport(spans, exported);
+        exported.whenComplete(pending::exported);
+        if (!exported.isDone()) {
+            // a hanging exporter must not hold the spans
+            timer.schedule(pending::timedOut, exportTimeoutNanos, TimeUnit.NANOSECONDS);
+        }
+        return pending.result;
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return delegate.flush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        replayer.shutdownNow();
+        timer.shutdownNow();
+        store.close();
+        return delegate.shutdown();
+    }
+
+    public long getBacklogBatches() {
+        return store.batches();
+    }
+
+    public long getBacklogBytes() {
+        return store.backlogBytes();
+    }
+
+    /**
+     * Returns the spilled batch, or null if it was dropped.
+     */
+    private MappedSpillStore.Entry spill(Collection<SpanData> spans) {
+        try {
+            MappedSpillStore.Entry entry = store.append(SpanDataCodec.encode(spans));
+            if (entry != null) {
+                spilledBatches.increment();
+                return entry;
+            }
+            LOG.warn("Dropping a batch of {} spans, larger than a spill segment or spilled after the shutdown",
+                    spans.size());
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Failed to spill {} spans. This exception is ignored.", spans.size(), e);
+        }
+        droppedSpans.add(spans.size());
+        return null;
+    }
+
+    private void replay() {
+        registerMetrics();
+        try {
+            MappedSpillStore.Batch batch;
+            while ((batch = store.peek()) != null) {
+                List<SpanData> spans;
+                try {
+                    spans = SpanDataCodec.decode(batch.bytes());
+                } catch (IOException | RuntimeException e) {
+                    LOG.warn("Skipping a spilled span batch which cannot be read. This exception is ignored.", e);
+                    store.commit(batch);
+                    continue;
+                }
+                CompletableResultCode result = delegate.export(spans);
+                result.join(exportTimeoutNanos, TimeUnit.NANOSECONDS);
+                if (!result.isDone()) {
+                    // left on disk and retried on the next run, unless the delegate exports it meanwhile
+                    MappedSpillStore.Entry entry = new MappedSpillStore.Entry(batch.segment(), batch.position());
+                    result.whenComplete(() -> {
+                        if (result.isSuccess()) {
+                            discard(entry);
+                        }
+                    });
+                    return;
+                }
+                if (!result.isSuccess()) {
+                    // retried on the next run
+                    return;
+                }
+                store.commit(batch);
+                replayedBatches.increment();
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to replay the spilled spans. This exception is ignored.", e);
+        }
+    }
+
+    // a batch exported after the timeout must not be replayed
+    private void discard(MappedSpillStore.Entry entry) {
+        if (store.discard(entry)) {
+            discardedBatches.increment();
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static void complete(CompletableResultCode result, boolean success) {
+        if (success) {
+            result.succeed();
+        } else {
+            result.fail();
+        }
+    }
+
+    // on the first replay run, once the global OpenTelemetry instance is set up
+    private void registerMetrics() {
+        if (!metricsRegistered.compareAndSet(false, true)) {
+            return;
+        }
+        Meter meter = GlobalOpenTelemetry.getMeter("camel-cxf");
+        meter.gaugeBuilder("camel.otel.span.spill.backlog.batches")
+                .setDescription("Span batches spilled to disk and not replayed yet")
+                .ofLongs()
+                .buildWithCallback(m -> m.record(store.batches()));
+        meter.gaugeBuilder("camel.otel.span.spill.backlog.size")
+                .setDescription("Size of the span batches spilled to disk and not replayed yet")
+                .setUnit("By")
+                .ofLongs()
+                .buildWithCallback(m -> m.record(store.backlogBytes()));
+        meter.counterBuilder("camel.otel.span.spill.spilled")
+                .setDescription("Span batches spilled to disk")
+                .buildWithCallback(m -> m.record(spilledBatches.sum()));
+        meter.counterBuilder("camel.otel.span.spill.replayed")
+                .setDescription("Span batches replayed from disk")
+                .buildWithCallback(m -> m.record(replayedBatches.sum()));
+        meter.counterBuilder("camel.otel.span.spill.discarded")
+                .setDescription("Span batches discarded from disk, the delegate having exported them after the timeout")
+                .buildWithCallback(m -> m.record(discardedBatches.sum()));
+        meter.counterBuilder("camel.otel.span.spill.evicted")
+                .setDescription("Span batches evicted from disk before being replayed, to stay under the size cap")
+                .buildWithCallback(m -> m.record(store.evictedBatches()));
+        meter.counterBuilder("camel.otel.span.spill.dropped")
+                .setDescription("Spans which could neither be exported nor spilled")
+                .buildWithCallback(m -> m.record(droppedSpans.sum()));
+    }
+
+    /**
+     * An export of the delegate, completed by the first of its result and the timeout.
+     */
+    private final class PendingExport {
+
+        private final Collection<SpanData> spans;
+        private final CompletableResultCode exported;
+        private final CompletableResultCode result = new CompletableResultCode();
+        private boolean handled;
+        private MappedSpillStore.Entry spilled;
+
+        private PendingExport(Collection<SpanData> spans, CompletableResultCode exported) {
+            this.spans = spans;
+            this.exported = exported;
+        }
+
+        synchronized void exported() {
+            if (!handled) {
+                handled = true;
+                complete(result, exported.isSuccess() || spill(spans) != null);
+            } else if (spilled != null && exported.isSuccess()) {
+                discard(spilled);
+                spilled = null;
+            }
+        }
+
+        synchronized void timedOut() {
+            if (!handled) {
+                handled = true;
+                spilled = spill(spans);
+                complete(result, spilled != null);
+            }
+        }
+    }
+
+    public static final class Builder {
+
+        private final SpanExporter delegate;
+        private final Path directory;
+        private int segmentSize = 8 * 1024 * 1024;
+        private long maxBytes = 256L * 1024 * 1024;
+        private long exportTimeoutNanos = TimeUnit.SECONDS.toNanos(10);
+        private long retryIntervalNanos = TimeUnit.SECONDS.toNanos(5);
+
+        private Builder(SpanExporter delegate, Path directory) {
+            this.delegate = delegate;
+            this.directory = directory;
+        }
+
+        /**
+         * Size of the segment files, the largest batch which can be spilled. The default value is 8MB.
+         */
+        public Builder setSegmentSize(int segmentSize) {
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        /**
+         * Size cap of the segment files, past which the oldest ones are evicted. The default value is 256MB.
+         */
+        public Builder setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * Time after which a batch the delegate did not export yet is spilled. The default value is 10 seconds.
+         */
+        public Builder setExportTimeout(long timeout, TimeUnit unit) {
+            this.exportTimeoutNanos = unit.toNanos(timeout);
+            return this;
+        }
+
+        /**
+         * Interval between the attempts to replay the spilled batches. The default value is 5 seconds.
+         */
+        public Builder setRetryInterval(long interval, TimeUnit unit) {
+            this.retryIntervalNanos = unit.toNanos(interval);
+            return this;
+        }
+
+        public DiskBufferingSpanExporter build() throws IOException {
+            return new DiskBufferingSpanExporter(this);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.export;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import io.opentelemetry.sdk.autoconfigure.spi.AutoConfigurationCustomizer;
+import io.opentelemetry.sdk.autoconfigure.spi.AutoConfigurationCustomizerProvider;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * Wraps the span exporters of the autoconfigured SDK, except the logging one, in a {@link DiskBufferingSpanExporter}
+ * when {@value #DIRECTORY_PROPERTY} is set. Each exporter spills in a sub-directory named after its class.
+ */
+public class DiskBufferingSpanExporterCustomizer implements AutoConfigurationCustomizerProvider {
+
+    public static final String DIRECTORY_PROPERTY = "otel.camel.span.spill.directory";
+    public static final String SEGMENT_SIZE_PROPERTY = "otel.camel.span.spill.segment.size";
+    public static final String MAX_BYTES_PROPERTY = "otel.camel.span.spill.max.size";
+    public static final String EXPORT_TIMEOUT_PROPERTY = "otel.camel.span.spill.export.timeout";
+    public static final String RETRY_INTERVAL_PROPERTY = "otel.camel.span.spill.retry.interval";
+
+    private static final String LOGGING_EXPORTER = "io.opentelemetry.exporter.logging.LoggingSpanExporter";
+
+    @Override
+    public void customize(AutoConfigurationCustomizer customizer) {
+        customizer.addSpanExporterCustomizer(DiskBufferingSpanExporterCustomizer::wrap);
+    }
+
+    private static SpanExporter wrap(SpanExporter exporter, ConfigProperties config) {
+        String directory = config.getString(DIRECTORY_PROPERTY);
+        if (directory == null || LOGGING_EXPORTER.equals(exporter.getClass().getName())) {
+            return exporter;
+        }
+        try {
+            return DiskBufferingSpanExporter.builder(exporter, Path.of(directory, exporter.getClass().getSimpleName()))
+                    .setSegmentSize(config.getInt(SEGMENT_SIZE_PROPERTY, 8 * 1024 * 1024))
+                    .setMaxBytes(config.getLong(MAX_BYTES_PROPERTY, 256L * 1024 * 1024))
+                    .setExportTimeout(config.getDuration(EXPORT_TIMEOUT_PROPERTY, Duration.ofSeconds(10)).toNanos(),
+                            TimeUnit.NANOSECONDS)
+                    .setRetryInterval(config.getDuration(RETRY_INTERVAL_PROPERTY, Duration.ofSeconds(5)).toNanos(),
+                            TimeUnit.NANOSECONDS)
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create the span spill directory " + directory, e);
+        }
+    }
+}
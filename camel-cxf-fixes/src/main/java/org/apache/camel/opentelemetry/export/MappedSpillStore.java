@@ -0,0 +1,407 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only store of span batches in memory-mapped segment files of a fixed size, replayed oldest first.
+ * <p/>
+ * A segment starts with a header holding its write and replay positions, followed by the records, each made of its
+ * length, its CRC32 and the batch. The high bit of the length marks the records discarded before being replayed. The
+ * positions are updated in the mapping on each append and commit, so that the
+ * batches not replayed yet are found again after a restart. Segments are deleted once replayed, and the oldest ones
+ * are evicted, replayed or not, to stay under the size cap.
+ */
+final class MappedSpillStore implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MappedSpillStore.class);
+
+    private static final int MAGIC = 0x43534731;
+    private static final int HEADER_SIZE = 12;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int DISCARDED = 0x80000000;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("spans-(\\d+)\\.seg");
+
+    /**
+     * The batch at the replay position of a segment, committed once exported.
+     */
+    record Batch(Segment segment, int position, int next, byte[] bytes) {
+    }
+
+    /**
+     * The position of an appended batch, to discard it.
+     */
+    record Entry(Segment segment, int position) {
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long maxBytes;
+    // oldest first, the last one is appended to
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private long nextSequence;
+    private long evictedBatches;
+    private long evictedBytes;
+    private boolean closed;
+
+    MappedSpillStore(Path directory, int segmentSize, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxBytes = Math.max(maxBytes, segmentSize);
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> existing = files.filter(f -> SEGMENT_NAME.matcher(f.getFileName().toString()).matches())
+                    .sorted((a, b) -> Long.compare(sequence(a), sequence(b)))
+                    .toList();
+            for (Path file : existing) {
+                Segment segment = Segment.open(file, sequence(file));
+                nextSequence = sequence(file) + 1;
+                if (segment == null || segment.isReplayed()) {
+                    delete(segment, file);
+                } else {
+                    segments.addLast(segment);
+                }
+            }
+        }
+        if (!segments.isEmpty()) {
+            LOG.info("Found {} spilled span batches in {}", batches(), directory);
+        }
+    }
+
+    /**
+     * Appends a batch, evicting the oldest segments past the size cap. Returns null if the batch is larger than a
+     * segment, or if the store is closed.
+     */
+    synchronized Entry append(byte[] batch) throws IOException {
+        int size = RECORD_HEADER_SIZE + batch.length;
+        if (closed || size > segmentSize - HEADER_SIZE) {
+            // no segment is mapped once closed, an export completing after the shutdown must not leak one
+            return null;
+        }
+        Segment tail = segments.peekLast();
+        if (tail == null || tail.remaining() < size) {
+            if (tail != null) {
+                tail.seal();
+            }
+            tail = Segment.create(directory.resolve("spans-" + nextSequence + ".seg"), nextSequence, segmentSize);
+            nextSequence++;
+            segments.addLast(tail);
+        }
+        Entry entry = new Entry(tail, tail.append(batch));
+        while ((long) segments.size() * segmentSize > maxBytes) {
+            Segment oldest = segments.removeFirst();
+            evictedBatches += oldest.batches;
+            evictedBytes += oldest.backlog();
+            delete(oldest, oldest.path);
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the oldest batch not replayed yet, or null. Corrupted records are skipped along with the rest of their
+     * segment.
+     */
+    synchronized Batch peek() {
+        while (!segments.isEmpty()) {
+            Segment head = segments.peekFirst();
+            Batch batch = head.read();
+            if (batch != null) {
+                return batch;
+            }
+            if (head == segments.peekLast()) {
+                return null;
+            }
+            // compaction of the segments replayed
+            segments.removeFirst();
+            delete(head, head.path);
+        }
+        return null;
+    }
+
+    synchronized void commit(Batch batch) {
+        // the segment may have been evicted during the export
+        if (segments.contains(batch.segment()) && batch.segment().readPosition == batch.position()) {
+            batch.segment().commit(batch.position(), batch.next());
+        }
+    }
+
+    /**
+     * Discards a batch not replayed yet, which is then skipped by {@link #peek()}. Returns false if the batch was
+     * evicted, replayed or discarded already.
+     */
+    synchronized boolean discard(Entry entry) {
+        // the segment may have been evicted, or the batch replayed, in the meantime
+        if (segments.contains(entry.segment()) && entry.position() >= entry.segment().readPosition) {
+            return entry.segment().discard(entry.position());
+        }
+        return false;
+    }
+
+    synchronized boolean isEmpty() {
+        for (Segment segment : segments) {
+            if (segment.batches > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    synchronized long batches() {
+        long batches = 0;
+        for (Segment segment : segments) {
+            batches += segment.batches;
+        }
+        return batches;
+    }
+
+    synchronized long backlogBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.backlog();
+        }
+        return bytes;
+    }
+
+    synchronized long evictedBatches() {
+        return evictedBatches;
+    }
+
+    synchronized long evictedBytes() {
+        return evictedBytes;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        for (Segment segment : segments) {
+            segment.seal();
+            segment.close();
+        }
+        segments.clear();
+    }
+
+    private static long sequence(Path file) {
+        Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    private static void delete(Segment segment, Path file) {
+        if (segment != null) {
+            segment.close();
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.warn("Failed to delete span spill segment {}. This exception is ignored.", file, e);
+        }
+    }
+
+    static final class Segment {
+
+        private final Path path;
+        private final long sequence;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+        private int readPosition;
+        // not replayed yet
+        private int batches;
+
+        private Segment(Path path, long sequence, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.sequence = sequence;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path path, long sequence, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            Segment segment = new Segment(path, sequence, channel,
+                    channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            segment.buffer.putInt(0, MAGIC);
+            segment.writePosition = HEADER_SIZE;
+            segment.readPosition = HEADER_SIZE;
+            segment.writeHeader();
+            return segment;
+        }
+
+        /**
+         * Returns null if the file is not a segment.
+         */
+        static Segment open(Path path, long sequence) {
+            try {
+                FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                long size = channel.size();
+                if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                    channel.close();
+                    return null;
+                }
+                Segment segment = new Segment(path, sequence, channel,
+                        channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+                int writePosition = segment.buffer.getInt(4);
+                int readPosition = segment.buffer.getInt(8);
+                if (segment.buffer.getInt(0) != MAGIC || readPosition < HEADER_SIZE || readPosition > writePosition
+                        || writePosition > size) {
+                    segment.close();
+                    return null;
+                }
+                segment.writePosition = writePosition;
+                segment.readPosition = readPosition;
+                segment.batches = segment.count();
+                return segment;
+            } catch (IOException e) {
+                LOG.warn("Failed to open span spill segment {}. This exception is ignored.", path, e);
+                return null;
+            }
+        }
+
+        int remaining() {
+            return buffer.capacity() - writePosition;
+        }
+
+        long backlog() {
+            return writePosition - readPosition;
+        }
+
+        boolean isReplayed() {
+            return batches == 0;
+        }
+
+        int append(byte[] batch) {
+            int position = writePosition;
+            CRC32 crc = new CRC32();
+            crc.update(batch);
+            buffer.putInt(position, batch.length);
+            buffer.putInt(position + 4, (int) crc.getValue());
+            buffer.put(position + RECORD_HEADER_SIZE, batch);
+            writePosition += RECORD_HEADER_SIZE + batch.length;
+            batches++;
+            writeHeader();
+            return position;
+        }
+
+        Batch read() {
+            if (batches == 0) {
+                return null;
+            }
+            int length = length(readPosition);
+            while (length >= 0 && (buffer.getInt(readPosition) & DISCARDED) != 0) {
+                readPosition += RECORD_HEADER_SIZE + length;
+                writeHeader();
+                length = length(readPosition);
+            }
+            if (length < 0) {
+                return corrupted();
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(readPosition + RECORD_HEADER_SIZE, bytes);
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            if ((int) crc.getValue() != buffer.getInt(readPosition + 4)) {
+                return corrupted();
+            }
+            return new Batch(this, readPosition, readPosition + RECORD_HEADER_SIZE + length, bytes);
+        }
+
+        private Batch corrupted() {
+            LOG.warn("Skipping {} corrupted span batches of {}", batches, path);
+            readPosition = writePosition;
+            batches = 0;
+            writeHeader();
+            return null;
+        }
+
+        void commit(int position, int next) {
+            // a batch discarded during its replay is not counted anymore
+            if ((buffer.getInt(position) & DISCARDED) == 0) {
+                batches = Math.max(0, batches - 1);
+            }
+            readPosition = next;
+            writeHeader();
+        }
+
+        boolean discard(int position) {
+            int value = buffer.getInt(position);
+            if ((value & DISCARDED) != 0) {
+                return false;
+            }
+            buffer.putInt(position, value | DISCARDED);
+            batches = Math.max(0, batches - 1);
+            return true;
+        }
+
+        void seal() {
+            buffer.force();
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOG.debug("Failed to close span spill segment {}. This exception is ignored.", path, e);
+            }
+        }
+
+        private void writeHeader() {
+            buffer.putInt(4, writePosition);
+            buffer.putInt(8, readPosition);
+        }
+
+        /**
+         * Returns the length of the batch of the record at a position, discarded or not, or -1 if there is no valid
+         * record there.
+         */
+        private int length(int position) {
+            if (position + RECORD_HEADER_SIZE > writePosition) {
+                return -1;
+            }
+            int length = buffer.getInt(position) & ~DISCARDED;
+            return position + RECORD_HEADER_SIZE + length <= writePosition ? length : -1;
+        }
+
+        private int count() {
+            int count = 0;
+            int position = readPosition;
+            int length;
+            while ((length = length(position)) >= 0) {
+                if ((buffer.getInt(position) & DISCARDED) == 0) {
+                    count++;
+                }
+                position += RECORD_HEADER_SIZE + length;
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.export;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free ring buffer with many producers and a single consumer.
+ * <p/>
+ * Each slot has a sequence number telling whether it is free for the producer of a given index, or holds the element
+ * of a given index for the consumer. Producers claim an index with a CAS on the producer index only, and never wait
+ * for each other: an offer fails right away when the buffer is full.
+ */
+final class MpscRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong producerIndex = new AtomicLong();
+    // only written by the consumer thread
+    private volatile long consumerIndex;
+
+    MpscRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns the index of the element, or -1 when the buffer is full.
+     */
+    long offer(E element) {
+        long index;
+        while (true) {
+            index = producerIndex.get();
+            long diff = sequences.get((int) index & mask) - index;
+            if (diff == 0) {
+                if (producerIndex.compareAndSet(index, index + 1)) {
+                    break;
+                }
+            } else if (diff < 0) {
+                // the consumer did not free the slot of the previous round yet
+                return -1;
+            }
+            // else another producer claimed this index, retry with the next one
+        }
+        int slot = (int) index & mask;
+        elements.lazySet(slot, element);
+        // publishes the element to the consumer
+        sequences.lazySet(slot, index + 1);
+        return index;
+    }
+
+    /**
+     * Hands at most {@code limit} elements over to the consumer, in order, and returns their number. Must only be
+     * called from the consumer thread.
+     */
+    int drain(Consumer<E> consumer, int limit) {
+        long index = consumerIndex;
+        int count = 0;
+        while (count < limit) {
+            int slot = (int) index & mask;
+            if (sequences.get(slot) != index + 1) {
+                // empty, or the producer of this index did not publish its element yet
+                break;
+            }
+            E element = elements.get(slot);
+            elements.lazySet(slot, null);
+            // frees the slot for the producer of the next round
+            sequences.lazySet(slot, index + mask + 1);
+            index++;
+            count++;
+            consumer.accept(element);
+        }
+        consumerIndex = index;
+        return count;
+    }
+
+    int size() {
+        return (int) Math.max(0, producerIndex.get() - consumerIndex);
+    }
+
+    /**
+     * The index the next producer gets, the elements offered so far have a lower index.
+     */
+    long producerIndex() {
+        return producerIndex.get();
+    }
+
+    /**
+     * The index of the next element handed over to the consumer.
+     */
+    long consumerIndex() {
+        return consumerIndex;
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.export;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Replacement of the {@code BatchSpanProcessor} without lock on the path of the threads ending the spans.
+ * <p/>
+ * The ended spans are turned into their {@link SpanData} on the thread ending them, and handed over to a single export
+ * thread through a lock-free {@link MpscRingBuffer}. A span is dropped, and counted as such, when the buffer is full.
+ * The export thread exports the spans by batches of {@code maxExportBatchSize}, or whatever is waiting once
+ * {@code scheduleDelay} elapsed, and waits for spans according to the {@link WaitStrategy}.
+ */
+public final class RingBufferSpanProcessor implements SpanProcessor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RingBufferSpanProcessor.class);
+
+    private final SpanExporter exporter;
+    private final MpscRingBuffer<SpanData> buffer;
+    private final int maxExportBatchSize;
+    private final long scheduleDelayNanos;
+    private final long exporterTimeoutNanos;
+    private final WaitStrategy waitStrategy;
+    private final Thread worker;
+
+    private final LongAdder droppedSpans = new LongAdder();
+    private final LongAdder exportedSpans = new LongAdder();
+    private final LongAdder failedSpans = new LongAdder();
+    private final AtomicBoolean metricsRegistered = new AtomicBoolean();
+
+    private final AtomicReference<CompletableResultCode> flushRequest = new AtomicReference<>();
+    private final AtomicBoolean shutdownRequested = new AtomicBoolean();
+    private final CompletableResultCode shutdownResult = new CompletableResultCode();
+
+    private RingBufferSpanProcessor(Builder builder) {
+        this.exporter = builder.exporter;
+        this.buffer = new MpscRingBuffer<>(builder.capacity);
+        this.maxExportBatchSize = Math.min(builder.maxExportBatchSize, buffer.capacity());
+        this.scheduleDelayNanos = builder.scheduleDelayNanos;
+        this.exporterTimeoutNanos = builder.exporterTimeoutNanos;
+        this.waitStrategy = builder.waitStrategy;
+        this.worker = new Thread(this::run, "camel-otel-span-export");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public static Builder builder(SpanExporter exporter) {
+        return new Builder(exporter);
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return false;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        if (!span.getSpanContext().isSampled() || shutdownRequested.get()) {
+            return;
+        }
+        long index = buffer.offer(span.toSpanData());
+        if (index < 0) {
+            droppedSpans.increment();
+        } else if ((index + 1) % maxExportBatchSize == 0) {
+            // a full batch is waiting
+            LockSupport.unpark(worker);
+        }
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        if (shutdownRequested.get()) {
+            // the spans left are exported on shutdown, and the export thread may have stopped already
+            return CompletableResultCode.ofSuccess();
+        }
+        CompletableResultCode result = new CompletableResultCode();
+        CompletableResultCode pending = flushRequest.compareAndExchange(null, result);
+        if (pending != null) {
+            return pending;
+        }
+        LockSupport.unpark(worker);
+        if (shutdownRequested.get() && flushRequest.compareAndSet(result, null)) {
+            // shut down meanwhile, the export thread may have stopped without seeing the request
+            result.succeed();
+        }
+        return result;
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        if (shutdownRequested.compareAndSet(false, true)) {
+            LockSupport.unpark(worker);
+        }
+        return shutdownResult;
+    }
+
+    public long getDroppedSpans() {
+        return droppedSpans.sum();
+    }
+
+    public long getExportedSpans() {
+        return exportedSpans.sum();
+    }
+
+    public long getFailedSpans() {
+        return failedSpans.sum();
+    }
+
+    public int getQueueSize() {
+        return buffer.size();
+    }
+
+    private void run() {
+        List<SpanData> batch = new ArrayList<>(maxExportBatchSize);
+        long nextExport = System.nanoTime() + scheduleDelayNanos;
+        int idle = 0;
+        while (!shutdownRequested.get()) {
+            int drained = buffer.drain(batch::add, maxExportBatchSize - batch.size());
+            CompletableResultCode flush = flushRequest.getAndSet(null);
+            if (flush != null) {
+                batch = exportAll(batch, buffer.producerIndex());
+                flush.succeed();
+                nextExport = System.nanoTime() + scheduleDelayNanos;
+                continue;
+            }
+            long now = System.nanoTime();
+            if (batch.size() >= maxExportBatchSize || (!batch.isEmpty() && now - nextExport >= 0)) {
+                batch = export(batch);
+                nextExport = now + scheduleDelayNanos;
+                idle = 0;
+            } else if (drained == 0) {
+                waitStrategy.idle(idle++, batch.isEmpty() ? scheduleDelayNanos : nextExport - now);
+            } else {
+                idle = 0;
+            }
+        }
+        exportAll(batch, buffer.producerIndex());
+        CompletableResultCode flush = flushRequest.getAndSet(null);
+        if (flush != null) {
+            flush.succeed();
+        }
+        exporter.shutdown().whenComplete(shutdownResult::succeed);
+    }
+
+    /**
+     * Exports the spans offered before {@code endIndex}, the producer index at the time of the flush, so that the flush
+     * completes even though the producers keep adding spans.
+     */
+    private List<SpanData> exportAll(List<SpanData> batch, long endIndex) {
+        while (true) {
+            if (batch.size() >= maxExportBatchSize) {
+                batch = export(batch);
+            }
+            long left = endIndex - buffer.consumerIndex();
+            if (left <= 0) {
+                return batch.isEmpty() ? batch : export(batch);
+            }
+            if (buffer.drain(batch::add, (int) Math.min(maxExportBatchSize - batch.size(), left)) == 0) {
+                // a producer claimed an index but did not publish its span yet
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Exports the batch, waiting for the exporter, and returns the list to fill for the next one.
+     */
+    private List<SpanData> export(List<SpanData> batch) {
+        registerMetrics();
+        try {
+            CompletableResultCode result = exporter.export(Collections.unmodifiableList(batch));
+            result.join(exporterTimeoutNanos, TimeUnit.NANOSECONDS);
+            if (result.isSuccess()) {
+                exportedSpans.add(batch.size());
+            } else {
+                failedSpans.add(batch.size());
+            }
+        } catch (RuntimeException e) {
+            failedSpans.add(batch.size());
+            LOG.warn("Failed to export {} spans. This exception is ignored.", batch.size(), e);
+        }
+        // the exporter may still hold the list if it timed out
+        return new ArrayList<>(maxExportBatchSize);
+    }
+
+    // on the first export, once the global OpenTelemetry instance is set up
+    private void registerMetrics() {
+        if (!metricsRegistered.compareAndSet(false, true)) {
+            return;
+        }
+        Meter meter = GlobalOpenTelemetry.getMeter("camel-cxf");
+        meter.counterBuilder("camel.otel.span.processor.dropped")
+                .setDescription("Spans dropped because the ring buffer of the span processor was full")
+                .buildWithCallback(m -> m.record(droppedSpans.sum()));
+        meter.counterBuilder("camel.otel.span.processor.exported")
+                .setDescription("Spans exported by the span processor")
+                .buildWithCallback(m -> m.record(exportedSpans.sum()));
+        meter.counterBuilder("camel.otel.span.processor.failed")
+                .setDescription("Spans the exporter failed to export")
+                .buildWithCallback(m -> m.record(failedSpans.sum()));
+        meter.upDownCounterBuilder("camel.otel.span.processor.queue.size")
+                .setDescription("Spans waiting in the ring buffer of the span processor")
+                .buildWithCallback(m -> m.record(buffer.size()));
+    }
+
+    public static final class Builder {
+
+        private final SpanExporter exporter;
+        private int capacity = 2048;
+        private int maxExportBatchSize = 512;
+        private long scheduleDelayNanos = TimeUnit.SECONDS.toNanos(5);
+        private long exporterTimeoutNanos = TimeUnit.SECONDS.toNanos(30);
+        private WaitStrategy waitStrategy = WaitStrategy.PARKING;
+
+        private Builder(SpanExporter exporter) {
+            this.exporter = exporter;
+        }
+
+        /**
+         * Number of spans waiting for the export thread beyond which spans are dropped, rounded up to a power of two.
+         * The default value is 2048.
+         */
+        public Builder setCapacity(int capacity) {
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * Maximum number of spans exported at once. The default value is 512.
+         */
+        public Builder setMaxExportBatchSize(int maxExportBatchSize) {
+            this.maxExportBatchSize = maxExportBatchSize;
+            return this;
+        }
+
+        /**
+         * Maximum time a span waits for a batch to fill up before being exported. The default value is 5 seconds.
+         */
+        public Builder setScheduleDelay(long delay, TimeUnit unit) {
+            this.scheduleDelayNanos = unit.toNanos(delay);
+            return this;
+        }
+
+        /**
+         * Maximum time the export thread waits for the exporter. The default value is 30 seconds.
+         */
+        public Builder setExporterTimeout(long timeout, TimeUnit unit) {
+            this.exporterTimeoutNanos = unit.toNanos(timeout);
+            return this;
+        }
+
+        public Builder setWaitStrategy(WaitStrategy waitStrategy) {
+            this.waitStrategy = waitStrategy;
+            return this;
+        }
+
+        public RingBufferSpanProcessor build() {
+            if (capacity <= 0 || maxExportBatchSize <= 0) {
+                throw new IllegalArgumentException("capacity and maxExportBatchSize must be positive");
+            }
+            return new RingBufferSpanProcessor(this);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.export;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import io.opentelemetry.sdk.autoconfigure.spi.AutoConfigurationCustomizer;
+import io.opentelemetry.sdk.autoconfigure.spi.AutoConfigurationCustomizerProvider;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Replaces the {@link BatchSpanProcessor} of the autoconfigured SDK by a {@link RingBufferSpanProcessor} when
+ * {@value #PROCESSOR_PROPERTY} is {@code ring-buffer}. With the OpenTelemetry agent, this jar has to be added as an
+ * extension with {@code -Dotel.javaagent.extensions}.
+ * <p/>
+ * The ring buffer processor takes the {@code otel.bsp.*} settings of the batch processor, along with
+ * {@value #CAPACITY_PROPERTY} (defaulting to {@code otel.bsp.max.queue.size}) and {@value #WAIT_STRATEGY_PROPERTY}.
+ */
+public class RingBufferSpanProcessorCustomizer implements AutoConfigurationCustomizerProvider {
+
+    public static final String PROCESSOR_PROPERTY = "otel.camel.span.processor";
+    public static final String CAPACITY_PROPERTY = "otel.camel.span.processor.capacity";
+    public static final String WAIT_STRATEGY_PROPERTY = "otel.camel.span.processor.wait.strategy";
+
+    private static final Logger LOG = LoggerFactory.getLogger(RingBufferSpanProcessorCustomizer.class);
+
+    // the logging exporter gets its own simple span processor, the others share the batch span processor
+    private static final String LOGGING_EXPORTER = "io.opentelemetry.exporter.logging.LoggingSpanExporter";
+
+    // after the other customizers, to hand their exporters over to the ring buffer processor
+    @Override
+    public int order() {
+        return 1;
+    }
+
+    @Override
+    public void customize(AutoConfigurationCustomizer customizer) {
+        List<DetachableSpanExporter> exporters = new CopyOnWriteArrayList<>();
+        customizer.addSpanExporterCustomizer((exporter, config) -> {
+            if (isEnabled(config) && !LOGGING_EXPORTER.equals(exporter.getClass().getName())) {
+                DetachableSpanExporter detachable = new DetachableSpanExporter(exporter);
+                exporters.add(detachable);
+                return detachable;
+            }
+            return exporter;
+        });
+        customizer.addSpanProcessorCustomizer((processor, config) -> {
+            if (!isEnabled(config) || !(processor instanceof BatchSpanProcessor) || exporters.isEmpty()) {
+                return processor;
+            }
+            List<SpanExporter> delegates = new ArrayList<>();
+            for (DetachableSpanExporter exporter : exporters) {
+                exporter.detach();
+                delegates.add(exporter.delegate);
+            }
+            SpanProcessor ringBuffer = create(SpanExporter.composite(delegates), config);
+            // stops its worker thread, the exporters now belong to the ring buffer processor
+            processor.shutdown();
+            return ringBuffer;
+        });
+    }
+
+    private static boolean isEnabled(ConfigProperties config) {
+        return "ring-buffer".equals(config.getString(PROCESSOR_PROPERTY));
+    }
+
+    private static SpanProcessor create(SpanExporter exporter, ConfigProperties config) {
+        return RingBufferSpanProcessor.builder(exporter)
+                .setCapacity(config.getInt(CAPACITY_PROPERTY, config.getInt("otel.bsp.max.queue.size", 2048)))
+                .setMaxExportBatchSize(config.getInt("otel.bsp.max.export.batch.size", 512))
+                .setScheduleDelay(config.getDuration("otel.bsp.schedule.delay", Duration.ofSeconds(5)).toNanos(),
+                        TimeUnit.NANOSECONDS)
+                .setExporterTimeout(config.getDuration("otel.bsp.export.timeout", Duration.ofSeconds(30)).toNanos(),
+                        TimeUnit.NANOSECONDS)
+                .setWaitStrategy(waitStrategy(config.getString(WAIT_STRATEGY_PROPERTY)))
+                .build();
+    }
+
+    // an unknown strategy must not prevent the SDK from starting
+    static WaitStrategy waitStrategy(String name) {
+        if (name == null || name.isBlank()) {
+            return WaitStrategy.PARKING;
+        }
+        WaitStrategy waitStrategy = WaitStrategy.parse(name);
+        if (waitStrategy == null) {
+            LOG.warn("Unknown {} {}, using {}", WAIT_STRATEGY_PROPERTY, name, WaitStrategy.PARKING);
+            return WaitStrategy.PARKING;
+        }
+        return waitStrategy;
+    }
+
+    /**
+     * Exporter handed to the {@link BatchSpanProcessor}, which does not shut its exporter down once it is replaced.
+     */
+    private static final class DetachableSpanExporter implements SpanExporter {
+
+        private final SpanExporter delegate;
+        private volatile boolean detached;
+
+        DetachableSpanExporter(SpanExporter delegate) {
+            this.delegate = delegate;
+        }
+
+        void detach() {
+            detached = true;
+        }
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            return delegate.export(spans);
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return delegate.flush();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return detached ? CompletableResultCode.ofSuccess() : delegate.shutdown();
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+}
@@ -0,0 +1,335 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.export;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.AttributeType;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.TraceStateBuilder;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfoBuilder;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.StatusData;
+
+/**
+ * Binary encoding of a batch of {@link SpanData}, read back as {@link SpilledSpanData}.
+ * <p/>
+ * The resources and instrumentation scopes are written once per batch. Exception events are read back as plain
+ * events, their attributes are kept.
+ */
+final class SpanDataCodec {
+
+    private static final int VERSION = 1;
+
+    private SpanDataCodec() {
+    }
+
+    static byte[] encode(Collection<SpanData> spans) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 * spans.size());
+        DataOutputStream out = new DataOutputStream(bytes);
+        List<Resource> resources = new ArrayList<>();
+        List<InstrumentationScopeInfo> scopes = new ArrayList<>();
+        out.writeByte(VERSION);
+        out.writeInt(spans.size());
+        for (SpanData span : spans) {
+            writeResource(out, resources, span.getResource());
+            writeScope(out, scopes, span.getInstrumentationScopeInfo());
+            writeSpanContext(out, span.getSpanContext());
+            writeSpanContext(out, span.getParentSpanContext());
+            writeString(out, span.getName());
+            out.writeByte(span.getKind().ordinal());
+            out.writeLong(span.getStartEpochNanos());
+            out.writeLong(span.getEndEpochNanos());
+            out.writeByte(span.getStatus().getStatusCode().ordinal());
+            writeString(out, span.getStatus().getDescription());
+            writeAttributes(out, span.getAttributes());
+            out.writeInt(span.getTotalAttributeCount());
+            out.writeInt(span.getEvents().size());
+            for (EventData event : span.getEvents()) {
+                writeString(out, event.getName());
+                out.writeLong(event.getEpochNanos());
+                writeAttributes(out, event.getAttributes());
+                out.writeInt(event.getTotalAttributeCount());
+            }
+            out.writeInt(span.getTotalRecordedEvents());
+            out.writeInt(span.getLinks().size());
+            for (LinkData link : span.getLinks()) {
+                writeSpanContext(out, link.getSpanContext());
+                writeAttributes(out, link.getAttributes());
+                out.writeInt(link.getTotalAttributeCount());
+            }
+            out.writeInt(span.getTotalRecordedLinks());
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    static List<SpanData> decode(byte[] batch) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(batch));
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported spilled span batch version " + version);
+        }
+        int count = in.readInt();
+        List<SpanData> spans = new ArrayList<>(count);
+        List<Resource> resources = new ArrayList<>();
+        List<InstrumentationScopeInfo> scopes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Resource resource = readResource(in, resources);
+            InstrumentationScopeInfo scope = readScope(in, scopes);
+            SpanContext spanContext = readSpanContext(in);
+            SpanContext parentSpanContext = readSpanContext(in);
+            String name = readString(in);
+            SpanKind kind = SpanKind.values()[in.readUnsignedByte()];
+            long start = in.readLong();
+            long end = in.readLong();
+            StatusCode statusCode = StatusCode.values()[in.readUnsignedByte()];
+            StatusData status = StatusData.create(statusCode, readString(in));
+            Attributes attributes = readAttributes(in);
+            int totalAttributeCount = in.readInt();
+            int eventCount = in.readInt();
+            List<EventData> events = new ArrayList<>(eventCount);
+            for (int e = 0; e < eventCount; e++) {
+                String eventName = readString(in);
+                long epochNanos = in.readLong();
+                events.add(EventData.create(epochNanos, eventName, readAttributes(in), in.readInt()));
+            }
+            int totalRecordedEvents = in.readInt();
+            int linkCount = in.readInt();
+            List<LinkData> links = new ArrayList<>(linkCount);
+            for (int l = 0; l < linkCount; l++) {
+                SpanContext linked = readSpanContext(in);
+                links.add(LinkData.create(linked, readAttributes(in), in.readInt()));
+            }
+            int totalRecordedLinks = in.readInt();
+            spans.add(new SpilledSpanData(resource, scope, spanContext, parentSpanContext, name, kind, start, end,
+                    status, attributes, totalAttributeCount, events, totalRecordedEvents, links, totalRecordedLinks));
+        }
+        return spans;
+    }
+
+    private static void writeResource(DataOutputStream out, List<Resource> written, Resource resource)
+            throws IOException {
+        int index = written.indexOf(resource);
+        out.writeInt(index);
+        if (index < 0) {
+            written.add(resource);
+            writeNullableString(out, resource.getSchemaUrl());
+            writeAttributes(out, resource.getAttributes());
+        }
+    }
+
+    private static Resource readResource(DataInputStream in, List<Resource> read) throws IOException {
+        int index = in.readInt();
+        if (index >= 0) {
+            return read.get(index);
+        }
+        String schemaUrl = readNullableString(in);
+        Resource resource = Resource.create(readAttributes(in), schemaUrl);
+        read.add(resource);
+        return resource;
+    }
+
+    private static void writeScope(DataOutputStream out, List<InstrumentationScopeInfo> written,
+            InstrumentationScopeInfo scope) throws IOException {
+        int index = written.indexOf(scope);
+        out.writeInt(index);
+        if (index < 0) {
+            written.add(scope);
+            writeString(out, scope.getName());
+            writeNullableString(out, scope.getVersion());
+            writeNullableString(out, scope.getSchemaUrl());
+            writeAttributes(out, scope.getAttributes());
+        }
+    }
+
+    private static InstrumentationScopeInfo readScope(DataInputStream in, List<InstrumentationScopeInfo> read)
+            throws IOException {
+        int index = in.readInt();
+        if (index >= 0) {
+            return read.get(index);
+        }
+        String name = readString(in);
+        String version = readNullableString(in);
+        String schemaUrl = readNullableString(in);
+        Attributes attributes = readAttributes(in);
+        InstrumentationScopeInfoBuilder builder = InstrumentationScopeInfo.builder(name).setAttributes(attributes);
+        if (version != null) {
+            builder.setVersion(version);
+        }
+        if (schemaUrl != null) {
+            builder.setSchemaUrl(schemaUrl);
+        }
+        InstrumentationScopeInfo scope = builder.build();
+        read.add(scope);
+        return scope;
+    }
+
+    private static void writeSpanContext(DataOutputStream out, SpanContext spanContext) throws IOException {
+        writeString(out, spanContext.getTraceId());
+        writeString(out, spanContext.getSpanId());
+        out.writeByte(spanContext.getTraceFlags().asByte());
+        out.writeBoolean(spanContext.isRemote());
+        out.writeInt(spanContext.getTraceState().size());
+        for (Map.Entry<String, String> entry : spanContext.getTraceState().asMap().entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+    }
+
+    private static SpanContext readSpanContext(DataInputStream in) throws IOException {
+        String traceId = readString(in);
+        String spanId = readString(in);
+        TraceFlags flags = TraceFlags.fromByte(in.readByte());
+        boolean remote = in.readBoolean();
+        int entries = in.readInt();
+        TraceStateBuilder traceState = TraceState.builder();
+        for (int i = 0; i < entries; i++) {
+            traceState.put(readString(in), readString(in));
+        }
+        return remote
+                ? SpanContext.createFromRemoteParent(traceId, spanId, flags, traceState.build())
+                : SpanContext.create(traceId, spanId, flags, traceState.build());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeAttributes(DataOutputStream out, Attributes attributes) throws IOException {
+        out.writeInt(attributes.size());
+        for (Map.Entry<AttributeKey<?>, Object> entry : attributes.asMap().entrySet()) {
+            AttributeKey<?> key = entry.getKey();
+            writeString(out, key.getKey());
+            out.writeByte(key.getType().ordinal());
+            switch (key.getType()) {
+                case STRING -> writeString(out, (String) entry.getValue());
+                case BOOLEAN -> out.writeBoolean((Boolean) entry.getValue());
+                case LONG -> out.writeLong((Long) entry.getValue());
+                case DOUBLE -> out.writeDouble((Double) entry.getValue());
+                default -> {
+                    List<Object> values = (List<Object>) entry.getValue();
+                    out.writeInt(values.size());
+                    for (Object value : values) {
+                        switch (key.getType()) {
+                            case STRING_ARRAY -> writeString(out, (String) value);
+                            case BOOLEAN_ARRAY -> out.writeBoolean((Boolean) value);
+                            case LONG_ARRAY -> out.writeLong((Long) value);
+                            default -> out.writeDouble((Double) value);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static Attributes readAttributes(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        if (size == 0) {
+            return Attributes.empty();
+        }
+        AttributesBuilder builder = Attributes.builder();
+        for (int i = 0; i < size; i++) {
+            String key = readString(in);
+            AttributeType type = AttributeType.values()[in.readUnsignedByte()];
+            switch (type) {
+                case STRING -> builder.put(AttributeKey.stringKey(key), readString(in));
+                case BOOLEAN -> builder.put(AttributeKey.booleanKey(key), in.readBoolean());
+                case LONG -> builder.put(AttributeKey.longKey(key), in.readLong());
+                case DOUBLE -> builder.put(AttributeKey.doubleKey(key), in.readDouble());
+                default -> readArray(in, builder, type, key);
+            }
+        }
+        return builder.build();
+    }
+
+    private static void readArray(DataInputStream in, AttributesBuilder builder, AttributeType type, String key)
+            throws IOException {
+        int length = in.readInt();
+        switch (type) {
+            case STRING_ARRAY -> {
+                List<String> values = new ArrayList<>(length);
+                for (int i = 0; i < length; i++) {
+                    values.add(readString(in));
+                }
+                builder.put(AttributeKey.stringArrayKey(key), values);
+            }
+            case BOOLEAN_ARRAY -> {
+                List<Boolean> values = new ArrayList<>(length);
+                for (int i = 0; i < length; i++) {
+                    values.add(in.readBoolean());
+                }
+                builder.put(AttributeKey.booleanArrayKey(key), values);
+            }
+            case LONG_ARRAY -> {
+                List<Long> values = new ArrayList<>(length);
+                for (int i = 0; i < length; i++) {
+                    values.add(in.readLong());
+                }
+                builder.put(AttributeKey.longArrayKey(key), values);
+            }
+            default -> {
+                List<Double> values = new ArrayList<>(length);
+                for (int i = 0; i < length; i++) {
+                    values.add(in.readDouble());
+                }
+                builder.put(AttributeKey.doubleArrayKey(key), values);
+            }
+        }
+    }
+
+    // unlike writeUTF, not limited to 64KB
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeString(out, value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? readString(in) : null;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.export;
+
+import java.util.List;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.StatusData;
+
+/**
+ * Span read back from a spill segment.
+ */
+final class SpilledSpanData implements SpanData {
+
+    private final Resource resource;
+    private final InstrumentationScopeInfo scope;
+    private final SpanContext spanContext;
+    private final SpanContext parentSpanContext;
+    private final String name;
+    private final SpanKind kind;
+    private final long startEpochNanos;
+    private final long endEpochNanos;
+    private final StatusData status;
+    private final Attributes attributes;
+    private final int totalAttributeCount;
+    private final List<EventData> events;
+    private final int totalRecordedEvents;
+    private final List<LinkData> links;
+    private final int totalRecordedLinks;
+
+    SpilledSpanData(Resource resource, InstrumentationScopeInfo scope, SpanContext spanContext,
+            SpanContext parentSpanContext, String name, SpanKind kind, long startEpochNanos, long endEpochNanos,
+            StatusData status, Attributes attributes, int totalAttributeCount, List<EventData> events,
+            int totalRecordedEvents, List<LinkData> links, int totalRecordedLinks) {
+        this.resource = resource;
+        this.scope = scope;
+        this.spanContext = spanContext;
+        this.parentSpanContext = parentSpanContext;
+        this.name = name;
+        this.kind = kind;
+        this.startEpochNanos = startEpochNanos;
+        this.endEpochNanos = endEpochNanos;
+        this.status = status;
+        this.attributes = attributes;
+        this.totalAttributeCount = totalAttributeCount;
+        this.events = List.copyOf(events);
+        this.totalRecordedEvents = totalRecordedEvents;
+        this.links = List.copyOf(links);
+        this.totalRecordedLinks = totalRecordedLinks;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public SpanKind getKind() {
+        return kind;
+    }
+
+    @Override
+    public SpanContext getSpanContext() {
+        return spanContext;
+    }
+
+    @Override
+    public SpanContext getParentSpanContext() {
+        return parentSpanContext;
+    }
+
+    @Override
+    public StatusData getStatus() {
+        return status;
+    }
+
+    @Override
+    public long getStartEpochNanos() {
+        return startEpochNanos;
+    }
+
+    @Override
+    public Attributes getAttributes() {
+        return attributes;
+    }
+
+    @Override
+    public List<EventData> getEvents() {
+        return events;
+    }
+
+    @Override
+    public List<LinkData> getLinks() {
+        return links;
+    }
+
+    @Override
+    public long getEndEpochNanos() {
+        return endEpochNanos;
+    }
+
+    @Override
+    public boolean hasEnded() {
+        return true;
+    }
+
+    @Override
+    public int getTotalRecordedEvents() {
+        return totalRecordedEvents;
+    }
+
+    @Override
+    public int getTotalRecordedLinks() {
+        return totalRecordedLinks;
+    }
+
+    @Override
+    public int getTotalAttributeCount() {
+        return totalAttributeCount;
+    }
+
+    @Override
+    @Deprecated
+    public io.opentelemetry.sdk.common.InstrumentationLibraryInfo getInstrumentationLibraryInfo() {
+        return io.opentelemetry.sdk.common.InstrumentationLibraryInfo.create(scope.getName(), scope.getVersion(),
+                scope.getSchemaUrl());
+    }
+
+    @Override
+    public InstrumentationScopeInfo getInstrumentationScopeInfo() {
+        return scope;
+    }
+
+    @Override
+    public Resource getResource() {
+        return resource;
+    }
+}
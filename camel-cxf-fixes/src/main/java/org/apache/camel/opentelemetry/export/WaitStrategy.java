@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.export;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How the export thread waits for spans when the ring buffer is empty. Producers never wait, whatever the strategy.
+ */
+public enum WaitStrategy {
+
+    /**
+     * Spins on the buffer, lowest latency at the cost of a busy core.
+     */
+    BUSY_SPIN {
+        @Override
+        void idle(int attempt, long maxNanos) {
+            Thread.onSpinWait();
+        }
+    },
+
+    /**
+     * Spins a little, then yields the core to other threads.
+     */
+    YIELDING {
+        @Override
+        void idle(int attempt, long maxNanos) {
+            if (attempt < SPINS) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    },
+
+    /**
+     * Spins a little, then parks for a doubling time up to one millisecond. Producers wake the export thread up once
+     * a full batch is waiting.
+     */
+    PARKING {
+        @Override
+        void idle(int attempt, long maxNanos) {
+            if (attempt < SPINS) {
+                Thread.onSpinWait();
+            } else {
+                long backoff = TimeUnit.MICROSECONDS.toNanos(1) << Math.min(attempt - SPINS, 10);
+                LockSupport.parkNanos(Math.min(backoff, maxNanos));
+            }
+        }
+    };
+
+    private static final int SPINS = 100;
+
+    /**
+     * Parses the strategy name, in any case, with dashes or underscores.
+     *
+     * @return the strategy, or null if the name is unknown
+     */
+    static WaitStrategy parse(String name) {
+        if (name == null) {
+            return null;
+        }
+        String normalized = name.trim().replace('-', '_').toUpperCase(Locale.ROOT);
+        for (WaitStrategy strategy : values()) {
+            if (strategy.name().equals(normalized)) {
+                return strategy;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Waits once, {@code attempt} being the number of times in a row the buffer was found empty, for at most
+     * {@code maxNanos}.
+     */
+    abstract void idle(int attempt, long maxNanos);
+}
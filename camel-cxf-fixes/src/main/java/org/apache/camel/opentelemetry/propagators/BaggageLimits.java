@@ -0,0 +1,259 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.propagators;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.opentelemetry.api.baggage.Baggage;
+import io.opentelemetry.api.baggage.BaggageBuilder;
+import org.apache.camel.CamelContext;
+import org.apache.camel.support.EndpointHelper;
+
+/**
+ * Limits applied to the {@link Baggage} right before it is injected into an outbound message. The baggage held by the
+ * exchange is left untouched, only the propagated copy is reduced.
+ * <p/>
+ * A limit of zero or less means unlimited. Entries are checked in baggage order; an entry whose key is too long, or
+ * which does not fit in the entry count or header size budget, is always dropped. An entry whose value is too long is
+ * dropped or truncated depending on the {@link Policy}.
+ * <p/>
+ * Key and value lengths are counted in characters, and values are only truncated on code point boundaries. The header
+ * size is counted in bytes as written by the W3C baggage propagator: UTF-8 bytes, percent-encoded outside of the
+ * baggage octets, with the encoded entry metadata and the separators.
+ */
+public class BaggageLimits {
+
+    public enum Policy {
+        DROP,
+        TRUNCATE
+    }
+
+    private int maxEntries;
+    private int maxKeyLength;
+    private int maxValueLength;
+    private int maxHeaderBytes;
+    private Policy policy = Policy.DROP;
+    private final Map<String, Set<String>> allowedKeys = new LinkedHashMap<>();
+
+    private final AtomicLong droppedEntries = new AtomicLong();
+    private final AtomicLong truncatedEntries = new AtomicLong();
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public int getMaxKeyLength() {
+        return maxKeyLength;
+    }
+
+    public void setMaxKeyLength(int maxKeyLength) {
+        this.maxKeyLength = maxKeyLength;
+    }
+
+    public int getMaxValueLength() {
+        return maxValueLength;
+    }
+
+    public void setMaxValueLength(int maxValueLength) {
+        this.maxValueLength = maxValueLength;
+    }
+
+    public int getMaxHeaderBytes() {
+        return maxHeaderBytes;
+    }
+
+    public void setMaxHeaderBytes(int maxHeaderBytes) {
+        this.maxHeaderBytes = maxHeaderBytes;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    public void setPolicy(Policy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Restricts the baggage keys forwarded to the endpoints matching a pattern. The syntax is
+     * {@code pattern=key1,key2;pattern2=key3}, where patterns are matched as in
+     * {@link EndpointHelper#matchEndpoint(CamelContext, String, String)}. Endpoints not matching any pattern receive
+     * every key.
+     */
+    public void setAllowedKeys(String allowedKeys) {
+        this.allowedKeys.clear();
+        if (allowedKeys == null || allowedKeys.isBlank()) {
+            return;
+        }
+        for (String rule : allowedKeys.split(";")) {
+            int idx = rule.indexOf('=');
+            if (idx <= 0) {
+                throw new IllegalArgumentException("Invalid baggage allowed keys rule: " + rule);
+            }
+            Set<String> keys = new HashSet<>();
+            for (String key : rule.substring(idx + 1).split(",")) {
+                if (!key.isBlank()) {
+                    keys.add(key.trim());
+                }
+            }
+            this.allowedKeys.put(rule.substring(0, idx).trim(), Collections.unmodifiableSet(keys));
+        }
+    }
+
+    public String getAllowedKeys() {
+        StringBuilder sb = new StringBuilder();
+        allowedKeys.forEach((pattern, keys) -> {
+            if (sb.length() > 0) {
+                sb.append(';');
+            }
+            sb.append(pattern).append('=').append(String.join(",", keys));
+        });
+        return sb.toString();
+    }
+
+    public long getDroppedEntries() {
+        return droppedEntries.get();
+    }
+
+    public long getTruncatedEntries() {
+        return truncatedEntries.get();
+    }
+
+    public boolean isEnabled() {
+        return maxEntries > 0 || maxKeyLength > 0 || maxValueLength > 0 || maxHeaderBytes > 0
+                || !allowedKeys.isEmpty();
+    }
+
+    /**
+     * Returns the baggage to propagate to the given endpoint, which is the given instance when nothing had to be
+     * removed or truncated.
+     */
+    public Baggage apply(Baggage baggage, CamelContext camelContext, String endpointUri) {
+        if (baggage.isEmpty() || !isEnabled()) {
+            return baggage;
+        }
+        Set<String> allowed = findAllowedKeys(camelContext, endpointUri);
+        BaggageBuilder builder = Baggage.builder();
+        int[] entries = { 0 };
+        int[] bytes = { 0 };
+        boolean[] modified = { false };
+        baggage.forEach((key, entry) -> {
+            String value = entry.getValue();
+            if (allowed != null && !allowed.contains(key)
+                    || maxKeyLength > 0 && key.length() > maxKeyLength
+                    || maxEntries > 0 && entries[0] >= maxEntries) {
+                drop();
+                modified[0] = true;
+                return;
+            }
+            if (maxValueLength > 0 && value.length() > maxValueLength) {
+                modified[0] = true;
+                if (policy == Policy.DROP) {
+                    drop();
+                    return;
+                }
+                value = truncate(value, maxValueLength);
+                truncatedEntries.incrementAndGet();
+            }
+            int size = encodedSize(key, value, entry.getMetadata().getValue());
+            if (entries[0] > 0) {
+                // the list separator
+                size++;
+            }
+            if (maxHeaderBytes > 0 && bytes[0] + size > maxHeaderBytes) {
+                drop();
+                modified[0] = true;
+                return;
+            }
+            entries[0]++;
+            bytes[0] += size;
+            builder.put(key, value, entry.getMetadata());
+        });
+        return modified[0] ? builder.build() : baggage;
+    }
+
+    /**
+     * The first characters of the value, without splitting a surrogate pair.
+     */
+    static String truncate(String value, int maxLength) {
+        int end = maxLength;
+        if (Character.isHighSurrogate(value.charAt(end - 1)) && Character.isLowSurrogate(value.charAt(end))) {
+            end--;
+        }
+        return value.substring(0, end);
+    }
+
+    /**
+     * Size in bytes of {@code key=value;metadata} in the baggage header.
+     */
+    static int encodedSize(String key, String value, String metadata) {
+        int size = encodedSize(key) + 1 + encodedSize(value);
+        if (metadata != null && !metadata.isEmpty()) {
+            // the propagator percent-encodes the metadata like the value
+            size += 1 + encodedSize(metadata);
+        }
+        return size;
+    }
+
+    private static int encodedSize(String s) {
+        int size = 0;
+        for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+            size += isBaggageOctet(b) ? 1 : 3;
+        }
+        return size;
+    }
+
+    // the octets the W3C baggage propagator writes as is, it percent-encodes more than the baggage-octet of the
+    // specification, the '=' and '/' included
+    private static boolean isBaggageOctet(byte b) {
+        return b >= 'a' && b <= 'z' || b >= 'A' && b <= 'Z' || b >= '0' && b <= '9'
+                || b > 0 && "!$&'()*-.:@_~".indexOf(b) >= 0;
+    }
+
+    private void drop() {
+        droppedEntries.incrementAndGet();
+    }
+
+    private Set<String> findAllowedKeys(CamelContext camelContext, String endpointUri) {
+        if (allowedKeys.isEmpty() || endpointUri == null) {
+            return null;
+        }
+        for (Map.Entry<String, Set<String>> rule : allowedKeys.entrySet()) {
+            if (EndpointHelper.matchEndpoint(camelContext, endpointUri, rule.getKey())) {
+                return rule.getValue();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "BaggageLimits[maxEntries=" + maxEntries + ", maxKeyLength=" + maxKeyLength + ", maxValueLength="
+               + maxValueLength + ", maxHeaderBytes=" + maxHeaderBytes + ", policy=" + policy + ", allowedKeys="
+               + getAllowedKeys() + "]";
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.propagators;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.camel.tracing.ExtractAdapter;
+import org.apache.camel.tracing.InjectAdapter;
+import org.apache.camel.tracing.SpanDecorator;
+import org.apache.camel.tracing.decorators.AbstractMessagingSpanDecorator;
+
+/**
+ * Dash encoded (JMS style) header names of the propagation fields, computed once per tracer.
+ * <p/>
+ * The messaging adapters of camel-tracing encode every injected key and copy and decode every message header on
+ * extraction. As the propagators only ever read and write a fixed set of fields, the adapters created here look the
+ * encoded names up instead, and only read the headers of those fields.
+ */
+public class EncodedHeaderKeys {
+
+    // as encoded by the CamelMessagingHeadersInjectAdapter, which keeps its constant package-private
+    static final String JMS_DASH = "_$dash$_";
+
+    private final Map<String, String> encodedKeys = new HashMap<>();
+    private final Map<Class<?>, Boolean> supportedDecorators = new ConcurrentHashMap<>();
+
+    public EncodedHeaderKeys(Collection<String> fields) {
+        for (String field : fields) {
+            encodedKeys.put(field, encode(field));
+        }
+    }
+
+    public Set<String> getFields() {
+        return encodedKeys.keySet();
+    }
+
+    public String getEncodedKey(String key) {
+        String encoded = encodedKeys.get(key);
+        return encoded != null ? encoded : encode(key);
+    }
+
+    /**
+     * Whether the decorator uses the default messaging adapters, which the adapters of this class can replace.
+     */
+    public boolean supports(SpanDecorator sd) {
+        return supportedDecorators.computeIfAbsent(sd.getClass(), EncodedHeaderKeys::usesMessagingAdapters);
+    }
+
+    public ExtractAdapter extractAdapter(Map<String, Object> headers) {
+        return new EncodedExtractAdapter(headers);
+    }
+
+    public InjectAdapter injectAdapter(Map<String, Object> headers) {
+        return (key, value) -> headers.put(getEncodedKey(key), value);
+    }
+
+    static String encode(String key) {
+        return key.replace("-", JMS_DASH);
+    }
+
+    private static boolean usesMessagingAdapters(Class<?> decoratorClass) {
+        try {
+            return decoratorClass.getMethod("getExtractAdapter", Map.class, boolean.class).getDeclaringClass()
+                    == AbstractMessagingSpanDecorator.class
+                    && decoratorClass.getMethod("getInjectAdapter", Map.class, boolean.class).getDeclaringClass()
+                    == AbstractMessagingSpanDecorator.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private final class EncodedExtractAdapter implements ExtractAdapter {
+
+        private final Map<String, Object> headers;
+
+        private EncodedExtractAdapter(Map<String, Object> headers) {
+            this.headers = headers;
+        }
+
+        @Override
+        public Iterator<Map.Entry<String, Object>> iterator() {
+            List<Map.Entry<String, Object>> entries = new ArrayList<>(encodedKeys.size());
+            for (String key : encodedKeys.keySet()) {
+                Object value = get(key);
+                if (value != null) {
+                    entries.add(new AbstractMap.SimpleImmutableEntry<>(key, value));
+                }
+            }
+            return entries.iterator();
+        }
+
+        @Override
+        public Object get(String key) {
+            Object value = headers.get(getEncodedKey(key));
+            if (value instanceof byte[] bytes) {
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+            return value instanceof String ? value : null;
+        }
+
+        @Override
+        public Set<String> keys() {
+            Set<String> keys = new LinkedHashSet<>();
+            for (Map.Entry<String, String> entry : encodedKeys.entrySet()) {
+                if (headers.containsKey(entry.getValue())) {
+                    keys.add(entry.getKey());
+                }
+            }
+            return keys;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.propagators;
+
+import java.util.Base64;
+import java.util.Set;
+
+import io.opentelemetry.api.baggage.Baggage;
+import io.opentelemetry.api.baggage.propagation.W3CBaggagePropagator;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanId;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceId;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Context;
+import org.apache.camel.Endpoint;
+import org.apache.camel.Exchange;
+import org.apache.camel.support.EndpointHelper;
+import org.apache.camel.tracing.ExtractAdapter;
+import org.apache.camel.tracing.InjectAdapter;
+import org.apache.camel.util.StringHelper;
+
+/**
+ * Propagates the OpenTelemetry {@link Context} between Camel routes without going through the W3C text format.
+ * <ul>
+ * <li>In-JVM endpoints ({@code direct}, {@code seda}, ...) get the live {@link Context} stored as an exchange
+ * property, for the duration of the hop.</li>
+ * <li>Endpoints matching the binary patterns get the span context as a compact 25 bytes value (trace id, span id,
+ * trace flags), written as a 34 characters base64url header so that it goes through any transport accepting string
+ * headers, JMS properties included. Baggage, if any, is still sent with the W3C baggage format.</li>
+ * </ul>
+ * Any other endpoint is considered an edge and uses the configured text propagators.
+ */
+public class InternalContextPropagator {
+
+    public static final String CONTEXT_PROPERTY = "CamelOpenTelemetryContext";
+    // not prefixed with Camel, which the header filter strategies of the transports do not forward
+    public static final String BINARY_HEADER = "otelBinaryContext";
+
+    private static final Set<String> IN_JVM_SCHEMES = Set.of("direct", "seda", "vm", "disruptor", "disruptor-vm");
+    private static final int TRACE_ID_BYTES = 16;
+    private static final int SPAN_ID_BYTES = 8;
+    private static final int BINARY_LENGTH = TRACE_ID_BYTES + SPAN_ID_BYTES + 1;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private boolean inJvm;
+    private String binaryPatterns;
+    private String[] binaryPatternList = new String[0];
+
+    public boolean isInJvm() {
+        return inJvm;
+    }
+
+    /**
+     * Whether to hand over the live {@link Context} to in-JVM endpoints instead of text headers.
+     */
+    public void setInJvm(boolean inJvm) {
+        this.inJvm = inJvm;
+    }
+
+    public String getBinaryPatterns() {
+        return binaryPatterns;
+    }
+
+    /**
+     * Endpoint pattern(s), separated by comma, of Camel to Camel transports using the binary header.
+     */
+    public void setBinaryPatterns(String binaryPatterns) {
+        this.binaryPatterns = binaryPatterns;
+        if (binaryPatterns == null || binaryPatterns.isBlank()) {
+            this.binaryPatternList = new String[0];
+        } else {
+            String[] list = binaryPatterns.split(",");
+            for (int i = 0; i < list.length; i++) {
+                list[i] = list[i].trim();
+            }
+            this.binaryPatternList = list;
+        }
+    }
+
+    /**
+     * Hands over the live context if the endpoint is an in-JVM one.
+     *
+     * @return true if the context was propagated
+     */
+    public boolean injectInJvm(Context context, Exchange exchange, Endpoint endpoint) {
+        if (inJvm && isInJvmEndpoint(endpoint)) {
+            exchange.setProperty(CONTEXT_PROPERTY, context);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the context handed over by {@link #injectInJvm}, once the hop is done, so that it is not copied into the
+     * exchanges created later from this one (Splitter, seda, ...).
+     */
+    public void clearInJvm(Exchange exchange) {
+        if (inJvm) {
+            exchange.removeProperty(CONTEXT_PROPERTY);
+        }
+    }
+
+    /**
+     * Propagates the context with the binary header if the endpoint matches the binary patterns.
+     *
+     * @return true if the context was propagated, false if the text propagators must be used
+     */
+    public boolean injectBinary(Context context, Exchange exchange, Endpoint endpoint, InjectAdapter adapter) {
+        if (!isBinaryEndpoint(exchange, endpoint)) {
+            return false;
+        }
+        SpanContext spanContext = Span.fromContext(context).getSpanContext();
+        if (!spanContext.isValid()) {
+            return false;
+        }
+        adapter.put(BINARY_HEADER, ENCODER.encodeToString(encode(spanContext)));
+        if (!Baggage.fromContext(context).isEmpty()) {
+            W3CBaggagePropagator.getInstance().inject(context, adapter, new OpenTelemetrySetter());
+        }
+        return true;
+    }
+
+    /**
+     * Removes the context handed over by {@link #injectInJvm}, if any, which is only used for the route receiving the
+     * exchange.
+     *
+     * @return the handed over context, or null
+     */
+    public Context takeInJvm(Exchange exchange) {
+        if (!inJvm) {
+            return null;
+        }
+        Context context = exchange.getProperty(CONTEXT_PROPERTY, Context.class);
+        if (context != null) {
+            exchange.removeProperty(CONTEXT_PROPERTY);
+        }
+        return context;
+    }
+
+    /**
+     * Extracts a context propagated by {@link #injectBinary}.
+     *
+     * @return the extracted context, or null if the message does not carry a binary context
+     */
+    public Context extractBinary(ExtractAdapter adapter) {
+        if (binaryPatternList.length == 0) {
+            return null;
+        }
+        byte[] bytes = decodeHeader(adapter.get(BINARY_HEADER));
+        if (bytes == null) {
+            return null;
+        }
+        Context context = Context.root().with(Span.wrap(decode(bytes)));
+        return W3CBaggagePropagator.getInstance().extract(context, adapter, new OpenTelemetryGetter(adapter));
+    }
+
+    private static byte[] decodeHeader(Object header) {
+        if (header instanceof String value) {
+            try {
+                byte[] bytes = DECODER.decode(value);
+                return bytes.length == BINARY_LENGTH ? bytes : null;
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    static byte[] encode(SpanContext spanContext) {
+        byte[] bytes = new byte[BINARY_LENGTH];
+        System.arraycopy(spanContext.getTraceIdBytes(), 0, bytes, 0, TRACE_ID_BYTES);
+        System.arraycopy(spanContext.getSpanIdBytes(), 0, bytes, TRACE_ID_BYTES, SPAN_ID_BYTES);
+        bytes[BINARY_LENGTH - 1] = spanContext.getTraceFlags().asByte();
+        return bytes;
+    }
+
+    static SpanContext decode(byte[] bytes) {
+        byte[] traceId = new byte[TRACE_ID_BYTES];
+        byte[] spanId = new byte[SPAN_ID_BYTES];
+        System.arraycopy(bytes, 0, traceId, 0, TRACE_ID_BYTES);
+        System.arraycopy(bytes, TRACE_ID_BYTES, spanId, 0, SPAN_ID_BYTES);
+        return SpanContext.createFromRemoteParent(
+                TraceId.fromBytes(traceId),
+                SpanId.fromBytes(spanId),
+                TraceFlags.fromByte(bytes[BINARY_LENGTH - 1]),
+                TraceState.getDefault());
+    }
+
+    private static boolean isInJvmEndpoint(Endpoint endpoint) {
+        String scheme = StringHelper.before(endpoint.getEndpointUri(), ":");
+        return scheme != null && IN_JVM_SCHEMES.contains(scheme);
+    }
+
+    private boolean isBinaryEndpoint(Exchange exchange, Endpoint endpoint) {
+        for (String pattern : binaryPatternList) {
+            if (EndpointHelper.matchEndpoint(exchange.getContext(), endpoint.getEndpointUri(), pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -20,6 +20,7 @@ import io.opentelemetry.api.trace.Tracer;
 import io.opentelemetry.context.propagation.ContextPropagators;
 import org.apache.camel.CamelContext;
 import org.apache.camel.opentelemetry.OpenTelemetryTracer;
+import org.apache.camel.opentelemetry.propagators.BaggageLimits;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -56,8 +57,59 @@ public class OpenTelemetryAutoConfiguration {
         if (config.getEncoding() != null) {
             ottracer.setEncoding(config.getEncoding());
         }
+        if (config.getInJvmPropagation() != null) {
+            ottracer.setInJvmPropagation(config.getInJvmPropagation());
+        }
+        if (config.getBinaryPropagationPatterns() != null) {
+            ottracer.setBinaryPropagationPatterns(config.getBinaryPropagationPatterns());
+        }
+        if (config.getSuppressDuplicateClientSpans() != null) {
+            ottracer.setSuppressDuplicateClientSpans(config.getSuppressDuplicateClientSpans());
+        }
+        if (config.getMaxFanOutSpans() != null) {
+            ottracer.setMaxFanOutSpans(config.getMaxFanOutSpans());
+        }
+        if (config.getFanOutSampleInterval() != null) {
+            ottracer.setFanOutSampleInterval(config.getFanOutSampleInterval());
+        }
+        if (config.getFanOutMaxLinks() != null) {
+            ottracer.setFanOutMaxLinks(config.getFanOutMaxLinks());
+        }
+        if (config.getDeadlineHeader() != null) {
+            ottracer.setDeadlineHeader(config.getDeadlineHeader());
+        }
+        if (config.getSpanMetrics() != null) {
+            ottracer.setSpanMetrics(config.getSpanMetrics());
+        }
+        if (config.getSpanMetricsMaxCardinality() != null) {
+            ottracer.setSpanMetricsMaxCardinality(config.getSpanMetricsMaxCardinality());
+        }
+        ottracer.setBaggageLimits(baggageLimits(config));
         ottracer.init(camelContext);
 
         return ottracer;
     }
+
+    private static BaggageLimits baggageLimits(OpenTelemetryConfigurationProperties config) {
+        BaggageLimits limits = new BaggageLimits();
+        if (config.getBaggageMaxEntries() != null) {
+            limits.setMaxEntries(config.getBaggageMaxEntries());
+        }
+        if (config.getBaggageMaxKeyLength() != null) {
+            limits.setMaxKeyLength(config.getBaggageMaxKeyLength());
+        }
+        if (config.getBaggageMaxValueLength() != null) {
+            limits.setMaxValueLength(config.getBaggageMaxValueLength());
+        }
+        if (config.getBaggageMaxHeaderBytes() != null) {
+            limits.setMaxHeaderBytes(config.getBaggageMaxHeaderBytes());
+        }
+        if (config.getBaggageLimitPolicy() != null) {
+            limits.setPolicy(BaggageLimits.Policy.valueOf(config.getBaggageLimitPolicy().toUpperCase()));
+        }
+        if (config.getBaggageAllowedKeys() != null) {
+            limits.setAllowedKeys(config.getBaggageAllowedKeys());
+        }
+        return limits;
+    }
 }
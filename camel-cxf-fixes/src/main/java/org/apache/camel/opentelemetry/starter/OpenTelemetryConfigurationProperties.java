@@ -35,6 +35,74 @@ public class OpenTelemetryConfigurationProperties {
      * messaging
      */
     private Boolean encoding;
+    /**
+     * Maximum number of baggage entries propagated to outbound endpoints, unlimited when not set.
+     */
+    private Integer baggageMaxEntries;
+    /**
+     * Maximum length of a propagated baggage key, longer keys are dropped.
+     */
+    private Integer baggageMaxKeyLength;
+    /**
+     * Maximum length of a propagated baggage value, see baggage-limit-policy.
+     */
+    private Integer baggageMaxValueLength;
+    /**
+     * Maximum size in bytes of the propagated baggage header.
+     */
+    private Integer baggageMaxHeaderBytes;
+    /**
+     * What to do with a baggage value exceeding baggage-max-value-length: DROP or TRUNCATE.
+     */
+    private String baggageLimitPolicy;
+    /**
+     * Baggage keys forwarded per endpoint, in the form pattern=key1,key2;pattern2=key3. Endpoints
+     * not matching any pattern receive all keys.
+     */
+    private String baggageAllowedKeys;
+    /**
+     * Hand over the OpenTelemetry context to in-JVM endpoints (direct, seda, ...) through an exchange
+     * property instead of W3C text headers
+     */
+    private Boolean inJvmPropagation;
+    /**
+     * Endpoint pattern(s), separated by comma, of Camel to Camel transports propagating the span context
+     * with a compact binary header instead of the W3C text format
+     */
+    private String binaryPropagationPatterns;
+    /**
+     * Merge the CXF client span created by CamelOpenTelemetryClientFeature into the Camel client span of
+     * the same cxf or cxfrs call
+     */
+    private Boolean suppressDuplicateClientSpans;
+    /**
+     * Number of Splitter or Multicast children traced in full, beyond that the children are sampled and the
+     * children past this number are summarised in a fan-out-summary span. 0 traces all the children.
+     */
+    private Integer maxFanOutSpans;
+    /**
+     * One child out of this number is traced past the max fan-out spans.
+     */
+    private Integer fanOutSampleInterval;
+    /**
+     * Maximum number of links from a fan-out-summary span to the sampled children, 128 by default.
+     */
+    private Integer fanOutMaxLinks;
+    /**
+     * Name of the inbound header holding the time the caller is willing to wait, in milliseconds or as an
+     * ISO-8601 duration, carried downstream as a deadline in the baggage.
+     */
+    private String deadlineHeader;
+    /**
+     * Whether the number, errors and duration of the exchanges received by the routes and sent to
+     * endpoints are recorded as metrics, for the spans which are not sampled as well.
+     */
+    private Boolean spanMetrics;
+    /**
+     * Maximum number of distinct route id, component and span kind combinations recorded by the span
+     * metrics, the route id of the next ones is replaced by _other_.
+     */
+    private Integer spanMetricsMaxCardinality;
 
     public boolean isEnabled() {
         return enabled;
@@ -59,4 +127,124 @@ public class OpenTelemetryConfigurationProperties {
     public void setEncoding(Boolean encoding) {
         this.encoding = encoding;
     }
+
+    public Integer getBaggageMaxEntries() {
+        return baggageMaxEntries;
+    }
+
+    public void setBaggageMaxEntries(Integer baggageMaxEntries) {
+        this.baggageMaxEntries = baggageMaxEntries;
+    }
+
+    public Integer getBaggageMaxKeyLength() {
+        return baggageMaxKeyLength;
+    }
+
+    public void setBaggageMaxKeyLength(Integer baggageMaxKeyLength) {
+        this.baggageMaxKeyLength = baggageMaxKeyLength;
+    }
+
+    public Integer getBaggageMaxValueLength() {
+        return baggageMaxValueLength;
+    }
+
+    public void setBaggageMaxValueLength(Integer baggageMaxValueLength) {
+        this.baggageMaxValueLength = baggageMaxValueLength;
+    }
+
+    public Integer getBaggageMaxHeaderBytes() {
+        return baggageMaxHeaderBytes;
+    }
+
+    public void setBaggageMaxHeaderBytes(Integer baggageMaxHeaderBytes) {
+        this.baggageMaxHeaderBytes = baggageMaxHeaderBytes;
+    }
+
+    public String getBaggageLimitPolicy() {
+        return baggageLimitPolicy;
+    }
+
+    public void setBaggageLimitPolicy(String baggageLimitPolicy) {
+        this.baggageLimitPolicy = baggageLimitPolicy;
+    }
+
+    public String getBaggageAllowedKeys() {
+        return baggageAllowedKeys;
+    }
+
+    public void setBaggageAllowedKeys(String baggageAllowedKeys) {
+        this.baggageAllowedKeys = baggageAllowedKeys;
+    }
+
+    public Boolean getInJvmPropagation() {
+        return inJvmPropagation;
+    }
+
+    public void setInJvmPropagation(Boolean inJvmPropagation) {
+        this.inJvmPropagation = inJvmPropagation;
+    }
+
+    public String getBinaryPropagationPatterns() {
+        return binaryPropagationPatterns;
+    }
+
+    public void setBinaryPropagationPatterns(String binaryPropagationPatterns) {
+        this.binaryPropagationPatterns = binaryPropagationPatterns;
+    }
+
+    public Boolean getSuppressDuplicateClientSpans() {
+        return suppressDuplicateClientSpans;
+    }
+
+    public void setSuppressDuplicateClientSpans(Boolean suppressDuplicateClientSpans) {
+        this.suppressDuplicateClientSpans = suppressDuplicateClientSpans;
+    }
+
+    public Integer getMaxFanOutSpans() {
+        return maxFanOutSpans;
+    }
+
+    public void setMaxFanOutSpans(Integer maxFanOutSpans) {
+        this.maxFanOutSpans = maxFanOutSpans;
+    }
+
+    public Integer getFanOutMaxLinks() {
+        return fanOutMaxLinks;
+    }
+
+    public void setFanOutMaxLinks(Integer fanOutMaxLinks) {
+        this.fanOutMaxLinks = fanOutMaxLinks;
+    }
+
+    public Integer getFanOutSampleInterval() {
+        return fanOutSampleInterval;
+    }
+
+    public void setFanOutSampleInterval(Integer fanOutSampleInterval) {
+        this.fanOutSampleInterval = fanOutSampleInterval;
+    }
+
+    public String getDeadlineHeader() {
+        return deadlineHeader;
+    }
+
+    public void setDeadlineHeader(String deadlineHeader) {
+        this.deadlineHeader = deadlineHeader;
+    }
+
+    public Boolean getSpanMetrics() {
+        return spanMetrics;
+    }
+
+    public void setSpanMetrics(Boolean spanMetrics) {
+        this.spanMetrics = spanMetrics;
+    }
+
+    public Integer getSpanMetricsMaxCardinality() {
+        return spanMetricsMaxCardinality;
+    }
+
+    public void setSpanMetricsMaxCardinality(Integer spanMetricsMaxCardinality) {
+        this.spanMetricsMaxCardinality = spanMetricsMaxCardinality;
+    }
 }
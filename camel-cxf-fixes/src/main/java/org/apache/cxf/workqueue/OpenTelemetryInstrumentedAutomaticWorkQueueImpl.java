@@ -1,9 +1,18 @@
 package org.apache.cxf.workqueue;
 
 import io.opentelemetry.context.Context;
+import org.apache.camel.opentelemetry.OpenTelemetryAgent;
+import org.apache.camel.opentelemetry.RequestDeadline;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class OpenTelemetryInstrumentedAutomaticWorkQueueImpl extends AutomaticWorkQueueImpl {
 
+    private OverloadPolicy overloadPolicy = OverloadPolicy.REJECT;
+    private long overloadWaitMillis = 1000L;
+
     public OpenTelemetryInstrumentedAutomaticWorkQueueImpl() {
         this(DEFAULT_MAX_QUEUE_SIZE);
     }
@@ -46,13 +55,103 @@ public class OpenTelemetryInstrumentedAutomaticWorkQueueImpl extends AutomaticWo
         super(mqs, initialThreads, highWaterMark, lowWaterMark, dequeueTimeout, name);
     }
 
+    public OverloadPolicy getOverloadPolicy() {
+        return overloadPolicy;
+    }
+
+    public void setOverloadPolicy(OverloadPolicy overloadPolicy) {
+        this.overloadPolicy = overloadPolicy;
+    }
+
+    public long getOverloadWaitMillis() {
+        return overloadWaitMillis;
+    }
+
+    public void setOverloadWaitMillis(long overloadWaitMillis) {
+        this.overloadWaitMillis = overloadWaitMillis;
+    }
+
     @Override
     public void execute(Runnable command) {
-        super.execute(Context.current().wrap(command));
+        rejectExpired();
+        Runnable task = wrap(command);
+        if (overloadPolicy == OverloadPolicy.BOUNDED_WAIT) {
+            executeOrWait(task, overloadWaitMillis);
+            return;
+        }
+        try {
+            super.execute(task);
+        } catch (RejectedExecutionException e) {
+            WorkQueueRejections.record(getName(), overloadPolicy);
+            if (overloadPolicy == OverloadPolicy.CALLER_RUNS && !isShutdown()) {
+                task.run();
+                return;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Waits at most {@code timeout} for room in the queue, whatever the overload policy, as the callers of this method
+     * chose to wait.
+     */
+    @Override
+    public void execute(Runnable work, long timeout) {
+        rejectExpired();
+        executeOrWait(wrap(work), timeout);
+    }
+
+    // the timed offer of AutomaticWorkQueueImpl.execute(Runnable, long), which would go through execute(Runnable)
+    private void executeOrWait(Runnable task, long timeout) {
+        try {
+            super.execute(task);
+        } catch (RejectedExecutionException e) {
+            if (!offer(task, timeout)) {
+                WorkQueueRejections.record(getName(), OverloadPolicy.BOUNDED_WAIT);
+                throw e;
+            }
+        }
+    }
+
+    private boolean offer(Runnable task, long timeout) {
+        if (isShutdown()) {
+            return false;
+        }
+        ThreadPoolExecutor executor = getExecutor();
+        try {
+            if (!executor.getQueue().offer(task, timeout, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        // the task went to the queue behind the back of the executor, which may have no thread left to run it
+        if (executor.getPoolSize() == 0) {
+            executor.prestartCoreThread();
+        }
+        return true;
     }
 
     @Override
     public synchronized void schedule(Runnable work, long delay) {
-        super.schedule(Context.current().wrap(work), delay);
+        rejectExpired();
+        super.schedule(wrap(work), delay);
+    }
+
+    // the caller of the request already gave up, don't hold a thread for it
+    private void rejectExpired() {
+        if (RequestDeadline.isExpired(Context.current())) {
+            WorkQueueRejections.record(getName(), "deadline");
+            throw new RejectedExecutionException("Request deadline exceeded, not queueing work in " + getName());
+        }
+    }
+
+    private static Runnable wrap(Runnable command) {
+        if (OpenTelemetryAgent.isContextPropagationDelegated()) {
+            // the agent already propagates the context to the underlying executor
+            return command;
+        }
+        return Context.current().wrap(command);
     }
 }
@@ -13,6 +13,7 @@ import org.apache.cxf.management.InstrumentationManager;
 
 import javax.management.JMException;
 import java.util.Collection;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
@@ -23,6 +24,17 @@ public class OpenTelemetryWorkQueueManagerImpl implements WorkQueueManager {
 
     public static final String DEFAULT_QUEUE_NAME = "default";
     public static final String DEFAULT_WORKQUEUE_BEAN_NAME = "cxf.default.workqueue";
+    // bus or system property, true to dispatch the default queue by the priority in the baggage
+    public static final String PRIORITY_QUEUEING_PROPERTY = "camel.opentelemetry.workqueue.priority";
+    // bus or system properties, the number of priority levels and the baggage priorities honored, see
+    // PriorityAutomaticWorkQueueImpl
+    public static final String PRIORITY_LEVELS_PROPERTY = "camel.opentelemetry.workqueue.priority-levels";
+    public static final String ALLOWED_PRIORITIES_PROPERTY = "camel.opentelemetry.workqueue.allowed-priorities";
+    // bus or system properties, the OverloadPolicy of the default queue and its bounded wait in millis
+    public static final String OVERLOAD_POLICY_PROPERTY = "camel.opentelemetry.workqueue.overload-policy";
+    public static final String OVERLOAD_WAIT_PROPERTY = "camel.opentelemetry.workqueue.overload-wait";
+    // the bounded wait of the queues
+    static final long DEFAULT_OVERLOAD_WAIT_MILLIS = 1000L;
 
     private static final Logger LOG =
             LogUtils.getL7dLogger(WorkQueueManagerImpl.class);
@@ -179,11 +191,85 @@ public class OpenTelemetryWorkQueueManagerImpl implements WorkQueueManager {
 
     // TODO: https://github.com/apache/cxf/pull/2063
     private AutomaticWorkQueue createAutomaticWorkQueue() {
-        AutomaticWorkQueue q = new OpenTelemetryInstrumentedAutomaticWorkQueueImpl(DEFAULT_QUEUE_NAME);
+        OverloadPolicy overloadPolicy = overloadPolicy(property(OVERLOAD_POLICY_PROPERTY));
+        long waitMillis = overloadWaitMillis(property(OVERLOAD_WAIT_PROPERTY));
+        AutomaticWorkQueue q;
+        if (Boolean.parseBoolean(property(PRIORITY_QUEUEING_PROPERTY))) {
+            PriorityAutomaticWorkQueueImpl priorityQueue = new PriorityAutomaticWorkQueueImpl(DEFAULT_QUEUE_NAME);
+            priorityQueue.setOverloadPolicy(overloadPolicy);
+            priorityQueue.setOverloadWaitMillis(waitMillis);
+            priorityQueue.setLevels(priorityLevels(property(PRIORITY_LEVELS_PROPERTY)));
+            String allowedPriorities = property(ALLOWED_PRIORITIES_PROPERTY);
+            if (allowedPriorities != null) {
+                priorityQueue.setAllowedPriorities(allowedPriorities);
+            }
+            q = priorityQueue;
+        } else {
+            OpenTelemetryInstrumentedAutomaticWorkQueueImpl instrumentedQueue =
+                    new OpenTelemetryInstrumentedAutomaticWorkQueueImpl(DEFAULT_QUEUE_NAME);
+            instrumentedQueue.setOverloadPolicy(overloadPolicy);
+            instrumentedQueue.setOverloadWaitMillis(waitMillis);
+            q = instrumentedQueue;
+        }
         addNamedWorkQueue(DEFAULT_QUEUE_NAME, q);
         return q;
     }
 
+    // an unknown policy must not prevent the bus from starting
+    static OverloadPolicy overloadPolicy(String policy) {
+        if (policy == null || policy.isBlank()) {
+            return OverloadPolicy.REJECT;
+        }
+        String name = policy.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+        for (OverloadPolicy overloadPolicy : OverloadPolicy.values()) {
+            if (overloadPolicy.name().equals(name)) {
+                return overloadPolicy;
+            }
+        }
+        LOG.warning("Unknown " + OVERLOAD_POLICY_PROPERTY + " " + policy + ", using " + OverloadPolicy.REJECT);
+        return OverloadPolicy.REJECT;
+    }
+
+    // nor a malformed wait
+    static long overloadWaitMillis(String wait) {
+        if (wait == null || wait.isBlank()) {
+            return DEFAULT_OVERLOAD_WAIT_MILLIS;
+        }
+        try {
+            long millis = Long.parseLong(wait.trim());
+            if (millis >= 0) {
+                return millis;
+            }
+        } catch (NumberFormatException e) {
+            // warned below
+        }
+        LOG.warning("Invalid " + OVERLOAD_WAIT_PROPERTY + " " + wait + ", using " + DEFAULT_OVERLOAD_WAIT_MILLIS);
+        return DEFAULT_OVERLOAD_WAIT_MILLIS;
+    }
+
+    // nor a malformed number of priority levels
+    static int priorityLevels(String levels) {
+        if (levels == null || levels.isBlank()) {
+            return PriorityAutomaticWorkQueueImpl.DEFAULT_LEVELS;
+        }
+        try {
+            int count = Integer.parseInt(levels.trim());
+            if (count >= 1) {
+                return count;
+            }
+        } catch (NumberFormatException e) {
+            // warned below
+        }
+        LOG.warning("Invalid " + PRIORITY_LEVELS_PROPERTY + " " + levels + ", using "
+                    + PriorityAutomaticWorkQueueImpl.DEFAULT_LEVELS);
+        return PriorityAutomaticWorkQueueImpl.DEFAULT_LEVELS;
+    }
+
+    private String property(String name) {
+        Object value = bus != null ? bus.getProperty(name) : null;
+        return value != null ? value.toString() : System.getProperty(name);
+    }
+
     class WQLifecycleListener implements BusLifeCycleListener {
 
         @Override
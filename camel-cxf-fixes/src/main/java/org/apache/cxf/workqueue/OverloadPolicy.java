@@ -0,0 +1,22 @@
+package org.apache.cxf.workqueue;
+
+/**
+ * What a work queue does with a task once it is full.
+ */
+public enum OverloadPolicy {
+
+    /**
+     * Rejects the task right away with a {@link java.util.concurrent.RejectedExecutionException}.
+     */
+    REJECT,
+
+    /**
+     * Runs the task on the submitting thread.
+     */
+    CALLER_RUNS,
+
+    /**
+     * Waits for room in the queue up to the overload wait time, then rejects the task.
+     */
+    BOUNDED_WAIT
+}
@@ -0,0 +1,293 @@
+package org.apache.cxf.workqueue;
+
+import io.opentelemetry.api.baggage.Baggage;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import org.apache.camel.opentelemetry.OpenTelemetryAgent;
+import org.apache.camel.opentelemetry.RequestDeadline;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Work queue dispatching the tasks by the priority found in the {@value #PRIORITY_KEY} baggage entry of the context
+ * they are submitted from, instead of FIFO, so that interactive requests overtake batch requests under load.
+ * <p/>
+ * The priority is a level, 0 being the highest, or one of {@code interactive} (0), {@code normal} (1, the default) and
+ * {@code batch} (2). A task waits at most {@code agingMillis} per level it is behind before it is dispatched ahead of
+ * new higher priority tasks, so that lower priorities are not starved.
+ * <p/>
+ * The baggage entry is set by the callers, so only the values of the allowed priorities are honored, {@code normal}
+ * is used for any other value, and the levels are clamped to the configured number of levels.
+ */
+public class PriorityAutomaticWorkQueueImpl implements AutomaticWorkQueue {
+
+    public static final String PRIORITY_KEY = "camel.priority";
+    public static final int INTERACTIVE = 0;
+    public static final int NORMAL = 1;
+    public static final int BATCH = 2;
+    public static final long DEFAULT_AGING_MILLIS = 200L;
+    public static final int DEFAULT_LEVELS = 3;
+    public static final String DEFAULT_ALLOWED_PRIORITIES = "interactive,normal,batch";
+
+    // keeps the dispatch times comparable through their difference
+    private static final long MAX_AGING_DELAY_NANOS = Long.MAX_VALUE / 4;
+
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService scheduler;
+    private final Semaphore queueSlots;
+    private final long agingNanos;
+    private final AtomicLong sequence = new AtomicLong();
+    private OverloadPolicy overloadPolicy = OverloadPolicy.REJECT;
+    private long overloadWaitMillis = 1000L;
+    private volatile int levels = DEFAULT_LEVELS;
+    private volatile Set<String> allowedPriorities = parseAllowedPriorities(DEFAULT_ALLOWED_PRIORITIES);
+
+    public PriorityAutomaticWorkQueueImpl(String name) {
+        this(name, AutomaticWorkQueueImpl.DEFAULT_MAX_QUEUE_SIZE, 25, DEFAULT_AGING_MILLIS);
+    }
+
+    public PriorityAutomaticWorkQueueImpl(String name, int maxQueueSize, int threads, long agingMillis) {
+        this.name = name;
+        this.queueSlots = new Semaphore(maxQueueSize);
+        this.agingNanos = TimeUnit.MILLISECONDS.toNanos(agingMillis);
+        // the queue is unbounded for the executor, which therefore never goes past its core threads
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<>(), threadFactory(name));
+        this.executor.allowCoreThreadTimeOut(true);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory(name + "-scheduler"));
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public OverloadPolicy getOverloadPolicy() {
+        return overloadPolicy;
+    }
+
+    public void setOverloadPolicy(OverloadPolicy overloadPolicy) {
+        this.overloadPolicy = overloadPolicy;
+    }
+
+    public long getOverloadWaitMillis() {
+        return overloadWaitMillis;
+    }
+
+    public void setOverloadWaitMillis(long overloadWaitMillis) {
+        this.overloadWaitMillis = overloadWaitMillis;
+    }
+
+    public int getLevels() {
+        return levels;
+    }
+
+    /**
+     * The number of priority levels, the priorities past the last level are dispatched with the last level.
+     */
+    public void setLevels(int levels) {
+        if (levels < 1) {
+            throw new IllegalArgumentException("The number of priority levels must be positive: " + levels);
+        }
+        this.levels = levels;
+    }
+
+    public String getAllowedPriorities() {
+        return String.join(",", allowedPriorities);
+    }
+
+    /**
+     * The {@value #PRIORITY_KEY} values honored, separated by comma, names or levels, for instance
+     * {@code interactive,normal,batch,3}.
+     */
+    public void setAllowedPriorities(String allowedPriorities) {
+        this.allowedPriorities = parseAllowedPriorities(allowedPriorities);
+    }
+
+    public boolean isFull() {
+        return queueSlots.availablePermits() == 0;
+    }
+
+    @Override
+    public void execute(Runnable work) {
+        rejectExpired();
+        boolean acquired = overloadPolicy == OverloadPolicy.BOUNDED_WAIT
+                ? acquire(overloadWaitMillis)
+                : queueSlots.tryAcquire();
+        if (!acquired) {
+            WorkQueueRejections.record(name, overloadPolicy);
+            if (overloadPolicy == OverloadPolicy.CALLER_RUNS && !isShutdown()) {
+                work.run();
+                return;
+            }
+            throw new RejectedExecutionException("Work queue " + name + " is full");
+        }
+        dispatch(work);
+    }
+
+    @Override
+    public void execute(Runnable work, long timeout) {
+        rejectExpired();
+        if (!acquire(timeout)) {
+            WorkQueueRejections.record(name, OverloadPolicy.BOUNDED_WAIT);
+            throw new RejectedExecutionException("Work queue " + name + " is still full after " + timeout + " ms");
+        }
+        dispatch(work);
+    }
+
+    private boolean acquire(long timeout) {
+        try {
+            return queueSlots.tryAcquire(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void schedule(Runnable work, long delay) {
+        Context context = Context.current();
+        scheduler.schedule(() -> {
+            try (Scope ignored = context.makeCurrent()) {
+                execute(work);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void shutdown(boolean processRemainingWorkItems) {
+        scheduler.shutdownNow();
+        if (processRemainingWorkItems) {
+            executor.shutdown();
+        } else {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+    private void dispatch(Runnable work) {
+        Context context = Context.current();
+        // the agent already propagates the context to the underlying executor
+        Runnable task = OpenTelemetryAgent.isContextPropagationDelegated() ? work : context.wrap(work);
+        try {
+            executor.execute(new PrioritizedTask(task, priority(context), System.nanoTime(),
+                    sequence.incrementAndGet()));
+        } catch (RejectedExecutionException e) {
+            queueSlots.release();
+            throw e;
+        }
+    }
+
+    // the caller of the request already gave up, don't hold a thread for it
+    private void rejectExpired() {
+        if (RequestDeadline.isExpired(Context.current())) {
+            WorkQueueRejections.record(name, "deadline");
+            throw new RejectedExecutionException("Request deadline exceeded, not queueing work in " + name);
+        }
+    }
+
+    int priority(Context context) {
+        String value = Baggage.fromContext(context).getEntryValue(PRIORITY_KEY);
+        if (value == null) {
+            return clamp(NORMAL);
+        }
+        String priority = value.trim().toLowerCase(Locale.ROOT);
+        if (!allowedPriorities.contains(priority)) {
+            return clamp(NORMAL);
+        }
+        switch (priority) {
+            case "interactive":
+                return clamp(INTERACTIVE);
+            case "normal":
+                return clamp(NORMAL);
+            case "batch":
+                return clamp(BATCH);
+            default:
+                try {
+                    return clamp(Integer.parseInt(priority));
+                } catch (NumberFormatException e) {
+                    return clamp(NORMAL);
+                }
+        }
+    }
+
+    private int clamp(int priority) {
+        return Math.max(0, Math.min(priority, levels - 1));
+    }
+
+    // saturates instead of overflowing with large aging delays
+    static long agingDelayNanos(int priority, long agingNanos) {
+        if (priority <= 0 || agingNanos <= 0) {
+            return 0;
+        }
+        return agingNanos > MAX_AGING_DELAY_NANOS / priority ? MAX_AGING_DELAY_NANOS : priority * agingNanos;
+    }
+
+    private static Set<String> parseAllowedPriorities(String allowedPriorities) {
+        Set<String> allowed = new HashSet<>();
+        if (allowedPriorities != null) {
+            for (String priority : allowedPriorities.split(",")) {
+                if (!priority.isBlank()) {
+                    allowed.add(priority.trim().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return Set.copyOf(allowed);
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, name + "-workqueue-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private final class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+
+        private final Runnable work;
+        // the enqueue time pushed back by the aging delay of each level, the earliest runs first
+        private final long dispatchAt;
+        private final long sequence;
+
+        PrioritizedTask(Runnable work, int priority, long enqueuedAt, long sequence) {
+            this.work = work;
+            this.dispatchAt = enqueuedAt + agingDelayNanos(priority, agingNanos);
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            queueSlots.release();
+            work.run();
+        }
+
+        @Override
+        public int compareTo(PrioritizedTask other) {
+            // nanoTime values are only comparable through their difference
+            long diff = dispatchAt - other.dispatchAt;
+            if (diff != 0) {
+                return diff < 0 ? -1 : 1;
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.apache.cxf.workqueue;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.trace.Span;
+
+import java.util.Locale;
+
+/**
+ * Records the tasks rejected by the work queues, and the requests shed because of them, as a span event on the
+ * current span and in the {@value #METRIC} counter.
+ */
+public final class WorkQueueRejections {
+
+    public static final String METRIC = "camel.cxf.workqueue.rejected";
+    public static final String EVENT = "workqueue.rejected";
+    public static final AttributeKey<String> QUEUE = AttributeKey.stringKey("workqueue.name");
+    public static final AttributeKey<String> REASON = AttributeKey.stringKey("workqueue.rejection.reason");
+
+    private WorkQueueRejections() {
+    }
+
+    public static void record(String queue, String reason) {
+        Attributes attributes = Attributes.of(QUEUE, queue, REASON, reason);
+        Span.current().addEvent(EVENT, attributes);
+        Counter.REJECTED.add(1, attributes);
+    }
+
+    static void record(String queue, OverloadPolicy policy) {
+        record(queue, policy.name().toLowerCase(Locale.ROOT));
+    }
+
+    // created on the first rejection, once the global OpenTelemetry instance is set up
+    private static final class Counter {
+        static final LongCounter REJECTED = GlobalOpenTelemetry.getMeter("camel-cxf")
+                .counterBuilder(METRIC)
+                .setDescription("Tasks rejected by the CXF work queues, and requests shed because of them")
+                .build();
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry;
+
+import java.util.concurrent.CompletableFuture;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ClientSpanSuppressionTest {
+
+    private static final String TRACE_ID = "0af7651916cd43dd8448eb211c80319c";
+
+    @Test
+    void spanIsClaimedByTheCallPropagatingIt() {
+        Span span = span("b7ad6b7169203331");
+        ClientSpanSuppression.register(span);
+
+        assertNull(ClientSpanSuppression.claim(span("00f067aa0ba902b7").getSpanContext()));
+        assertSame(span, ClientSpanSuppression.claim(span.getSpanContext()));
+        assertNull(ClientSpanSuppression.claim(span.getSpanContext()));
+    }
+
+    @Test
+    void spanIsClaimedOnAnotherThread() throws Exception {
+        Span span = span("b7ad6b7169203332");
+        ClientSpanSuppression.register(span);
+
+        assertSame(span, CompletableFuture.supplyAsync(() -> ClientSpanSuppression.claim(span.getSpanContext())).get());
+    }
+
+    @Test
+    void unclaimedSpanIsUnregisteredFromAnotherThread() throws Exception {
+        int pending = ClientSpanSuppression.pending();
+        Span span = span("b7ad6b7169203333");
+        ClientSpanSuppression.register(span);
+
+        CompletableFuture.runAsync(() -> ClientSpanSuppression.unregister(span)).get();
+
+        assertEquals(pending, ClientSpanSuppression.pending());
+        assertNull(ClientSpanSuppression.claim(span.getSpanContext()));
+    }
+
+    @Test
+    void invalidSpansAreNeitherRegisteredNorClaimed() {
+        int pending = ClientSpanSuppression.pending();
+        ClientSpanSuppression.register(Span.getInvalid());
+
+        assertEquals(pending, ClientSpanSuppression.pending());
+        assertNull(ClientSpanSuppression.claim(SpanContext.getInvalid()));
+        assertNull(ClientSpanSuppression.claim(null));
+    }
+
+    private static Span span(String spanId) {
+        return Span.wrap(SpanContext.create(TRACE_ID, spanId, TraceFlags.getDefault(), TraceState.getDefault()));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.opentelemetry.api.baggage.Baggage;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.apache.camel.CamelContext;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestDeadlineTracingTest {
+
+    private final AtomicReference<Context> processorContext = new AtomicReference<>();
+    private SdkTracerProvider tracerProvider;
+    private CamelContext camelContext;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tracerProvider = SdkTracerProvider.builder().build();
+        camelContext = new DefaultCamelContext();
+        OpenTelemetryTracer tracer = new OpenTelemetryTracer();
+        tracer.setTracer(tracerProvider.get("camel"));
+        tracer.setContextPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()));
+        // set before init, which registers the strategy before initTracer creates it from traceProcessors
+        tracer.setTracingStrategy(new OpenTelemetryTracingStrategy(tracer));
+        tracer.init(camelContext);
+        camelContext.addRoutes(new RouteBuilder() {
+            @Override
+            public void configure() {
+                from("direct:start").routeId("start").routeProperty(RequestDeadline.ROUTE_PROPERTY, "PT5S")
+                        .process(exchange -> processorContext.set(Context.current()));
+            }
+        });
+        camelContext.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        camelContext.stop();
+        tracerProvider.close();
+    }
+
+    @Test
+    void deadlineOfTheRouteIsCurrentInItsProcessors() {
+        long before = System.currentTimeMillis();
+        camelContext.createProducerTemplate().sendBody("direct:start", "order");
+
+        Context context = processorContext.get();
+        assertNotNull(context);
+        assertTrue(Span.fromContext(context).getSpanContext().isValid());
+        Long deadline = RequestDeadline.get(Baggage.fromContext(context));
+        assertNotNull(deadline);
+        assertTrue(deadline >= before + 5_000, "deadline " + deadline + " set before the route started");
+        assertFalse(RequestDeadline.isExpired(context));
+    }
+
+    @Test
+    void noDeadlineIsCurrentOutsideOfTheRoute() {
+        camelContext.createProducerTemplate().sendBody("direct:start", "order");
+
+        assertEquals(Context.root(), Context.current());
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.HistogramPointData;
+import io.opentelemetry.sdk.metrics.data.LongPointData;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.data.PointData;
+import io.opentelemetry.sdk.testing.exporter.InMemoryMetricReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpanMetricsTest {
+
+    private final InMemoryMetricReader reader = InMemoryMetricReader.create();
+    private final SdkMeterProvider meterProvider = SdkMeterProvider.builder().registerMetricReader(reader).build();
+
+    @AfterEach
+    void tearDown() {
+        meterProvider.close();
+    }
+
+    @Test
+    void requestsErrorsAndDurationAreRecordedByRouteComponentAndKind() {
+        SpanMetrics metrics = new SpanMetrics(meterProvider.get("camel"), 10);
+
+        metrics.record("otel-main-route", "cxf", SpanKind.SERVER, System.nanoTime(), false, Context.root());
+        metrics.record("otel-main-route", "cxf", SpanKind.SERVER, System.nanoTime(), true, Context.root());
+        metrics.record("pizza-route", "cxfrs", SpanKind.CLIENT, System.nanoTime(), false, Context.root());
+
+        Collection<MetricData> data = reader.collectAllMetrics();
+        Attributes server = attributes("otel-main-route", "cxf", "server");
+        Attributes client = attributes("pizza-route", "cxfrs", "client");
+        assertEquals(2L, longPoint(data, SpanMetrics.REQUESTS, server).getValue());
+        assertEquals(1L, longPoint(data, SpanMetrics.REQUESTS, client).getValue());
+        assertEquals(1L, longPoint(data, SpanMetrics.ERRORS, server).getValue());
+        assertEquals(List.of(), points(data, SpanMetrics.ERRORS, client));
+        HistogramPointData duration = (HistogramPointData) points(data, SpanMetrics.DURATION, server).get(0);
+        assertEquals(2L, duration.getCount());
+        assertEquals("s", metric(data, SpanMetrics.DURATION).getUnit());
+    }
+
+    @Test
+    void routeIdsPastTheMaxCardinalityAreRecordedAsOther() {
+        SpanMetrics metrics = new SpanMetrics(meterProvider.get("camel"), 2);
+
+        for (String routeId : List.of("a", "b", "c", "d", "a")) {
+            metrics.record(routeId, "direct", SpanKind.INTERNAL, System.nanoTime(), false, Context.root());
+        }
+
+        Collection<MetricData> data = reader.collectAllMetrics();
+        assertEquals(Set.of("a", "b", SpanMetrics.OVERFLOW), routeIds(data));
+        assertEquals(2L, longPoint(data, SpanMetrics.REQUESTS, attributes("a", "direct", "internal")).getValue());
+        Attributes overflow = attributes(SpanMetrics.OVERFLOW, "direct", "internal");
+        assertEquals(2L, longPoint(data, SpanMetrics.REQUESTS, overflow).getValue());
+    }
+
+    @Test
+    void maxCardinalityHoldsForConcurrentNewRouteIds() throws Exception {
+        SpanMetrics metrics = new SpanMetrics(meterProvider.get("camel"), 5);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < 200; i++) {
+                String routeId = "route-" + i;
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    metrics.record(routeId, "direct", SpanKind.INTERNAL, System.nanoTime(), false, Context.root());
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+
+        Set<String> routeIds = routeIds(reader.collectAllMetrics());
+        assertEquals(6, routeIds.size(), routeIds.toString());
+        assertTrue(routeIds.contains(SpanMetrics.OVERFLOW));
+    }
+
+    @Test
+    void unsampledSpansAreCounted() {
+        SpanMetrics metrics = new SpanMetrics(meterProvider.get("camel"), 10);
+        SpanContext unsampled = SpanContext.create("0af7651916cd43dd8448eb211c80319c", "b7ad6b7169203331",
+                TraceFlags.getDefault(), TraceState.getDefault());
+
+        metrics.record("otel-main-route", "cxf", SpanKind.SERVER, System.nanoTime(), false,
+                Context.root().with(Span.wrap(unsampled)));
+
+        assertEquals(1L, longPoint(reader.collectAllMetrics(), SpanMetrics.REQUESTS,
+                attributes("otel-main-route", "cxf", "server")).getValue());
+    }
+
+    private static Attributes attributes(String routeId, String component, String kind) {
+        return Attributes.of(SpanMetrics.ROUTE_ID, routeId, SpanMetrics.COMPONENT, component, SpanMetrics.KIND, kind);
+    }
+
+    private static MetricData metric(Collection<MetricData> data, String name) {
+        return data.stream().filter(metric -> metric.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    private static List<PointData> points(Collection<MetricData> data, String name, Attributes attributes) {
+        return data.stream()
+                .filter(metric -> metric.getName().equals(name))
+                .flatMap(metric -> metric.getData().getPoints().stream())
+                .filter(point -> point.getAttributes().equals(attributes))
+                .map(PointData.class::cast)
+                .toList();
+    }
+
+    private static LongPointData longPoint(Collection<MetricData> data, String name, Attributes attributes) {
+        List<PointData> points = points(data, name, attributes);
+        assertEquals(1, points.size(), name + " " + attributes);
+        return (LongPointData) points.get(0);
+    }
+
+    private static Set<String> routeIds(Collection<MetricData> data) {
+        return metric(data, SpanMetrics.REQUESTS).getLongSumData().getPoints().stream()
+                .map(point -> point.getAttributes().get(SpanMetrics.ROUTE_ID))
+                .collect(Collectors.toSet());
+    }
+}
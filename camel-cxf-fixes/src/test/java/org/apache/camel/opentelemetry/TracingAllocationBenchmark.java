@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import org.apache.camel.CamelContext;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sends an exchange through two direct routes with and without the {@link OpenTelemetryTracer}, so that each exchange
+ * goes through the {@code TracingRoutePolicy}, the {@code TracingEventNotifier} and the
+ * {@code PropagateContextAndCreateSpan} processor wrapper. The spans are recorded but not exported.
+ * <p/>
+ * Run with the GC profiler by {@link TracingAllocationGateTest}, or without it with
+ * {@code mvn -Pjmh verify -Djmh.includes=TracingAllocationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TracingAllocationBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean tracing;
+
+    private SdkTracerProvider tracerProvider;
+    private CamelContext camelContext;
+    private ProducerTemplate template;
+    private final LongAdder endedSpans = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        tracerProvider = SdkTracerProvider.builder().addSpanProcessor(new CountingSpanProcessor(endedSpans)).build();
+        camelContext = new DefaultCamelContext();
+        if (tracing) {
+            OpenTelemetryTracer tracer = new OpenTelemetryTracer();
+            tracer.setTracer(tracerProvider.get("camel"));
+            tracer.setContextPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()));
+            tracer.setTraceProcessors(true);
+            tracer.init(camelContext);
+        }
+        camelContext.addRoutes(new RouteBuilder() {
+            @Override
+            public void configure() {
+                from("direct:start").routeId("start")
+                        .setHeader("pizza", constant("margherita"))
+                        .to("direct:next");
+                from("direct:next").routeId("next")
+                        .setBody(simple("${header.pizza}"));
+            }
+        });
+        camelContext.start();
+        template = camelContext.createProducerTemplate();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        camelContext.stop();
+        tracerProvider.close();
+    }
+
+    @Benchmark
+    public Object hop() {
+        return template.requestBody("direct:start", "order");
+    }
+
+    /**
+     * The spans ended so far, to relate the allocations of an exchange to its traced hops.
+     */
+    long getEndedSpans() {
+        return endedSpans.sum();
+    }
+
+    // ends the spans without exporting them, so that the export is not measured
+    private static final class CountingSpanProcessor implements SpanProcessor {
+
+        private final LongAdder endedSpans;
+
+        CountingSpanProcessor(LongAdder endedSpans) {
+            this.endedSpans = endedSpans;
+        }
+
+        @Override
+        public void onStart(Context parentContext, ReadWriteSpan span) {
+        }
+
+        @Override
+        public boolean isStartRequired() {
+            return false;
+        }
+
+        @Override
+        public void onEnd(ReadableSpan span) {
+            endedSpans.increment();
+        }
+
+        @Override
+        public boolean isEndRequired() {
+            return true;
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
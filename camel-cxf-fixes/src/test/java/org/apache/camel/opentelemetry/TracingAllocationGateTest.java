@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fails when the bytes allocated by the tracing for each traced hop exceed the budget of
+ * {@code tracing-allocation-budget.properties}. The allocations of an exchange through the
+ * {@link TracingAllocationBenchmark} routes, measured by the JMH GC profiler, are compared with and without the tracer,
+ * and the difference is divided by the number of spans of the exchange.
+ */
+class TracingAllocationGateTest {
+
+    private static final String BUDGET = "/tracing-allocation-budget.properties";
+    private static final String ALLOCATION_RESULT = "gc.alloc.rate.norm";
+
+    @Test
+    void tracedHopsStayWithinTheAllocationBudget() throws Exception {
+        long budget = Long.parseLong(budget().getProperty("bytes-per-hop"));
+        int spans = spansPerExchange();
+        Options options = new OptionsBuilder()
+                .include(TracingAllocationBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(3)
+                .measurementTime(TimeValue.seconds(1))
+                .forks(1)
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        double untraced = bytesPerExchange(results, "false");
+        double traced = bytesPerExchange(results, "true");
+        double bytesPerHop = (traced - untraced) / spans;
+
+        assertTrue(bytesPerHop <= budget, String.format(
+                "%.0f bytes allocated per traced hop, over the budget of %d bytes of %s (%.0f bytes per exchange"
+                        + " traced, %.0f untraced, %d spans per exchange)",
+                bytesPerHop, budget, BUDGET, traced, untraced, spans));
+    }
+
+    // the traced hops of one exchange
+    private static int spansPerExchange() throws Exception {
+        TracingAllocationBenchmark benchmark = new TracingAllocationBenchmark();
+        benchmark.tracing = true;
+        benchmark.setUp();
+        try {
+            benchmark.hop();
+            long spans = benchmark.getEndedSpans();
+            benchmark.hop();
+            assertEquals(spans, benchmark.getEndedSpans() - spans, "Spans per exchange");
+            assertTrue(spans > 0, "No span ended");
+            return (int) spans;
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+
+    private static double bytesPerExchange(Collection<RunResult> results, String tracing) {
+        for (RunResult result : results) {
+            if (tracing.equals(result.getParams().getParam("tracing"))) {
+                for (Map.Entry<String, Result> secondary : result.getSecondaryResults().entrySet()) {
+                    // prefixed with a middle dot by the JMH versions before 1.36
+                    if (secondary.getKey().endsWith(ALLOCATION_RESULT)) {
+                        return secondary.getValue().getScore();
+                    }
+                }
+            }
+        }
+        throw new AssertionError("No " + ALLOCATION_RESULT + " result with tracing=" + tracing);
+    }
+
+    private static Properties budget() throws IOException {
+        Properties budget = new Properties();
+        try (InputStream in = TracingAllocationGateTest.class.getResourceAsStream(BUDGET)) {
+            assertNotNull(in, BUDGET);
+            budget.load(in);
+        }
+        return budget;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.cxf;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.spi.Synchronization;
+import org.apache.camel.support.DefaultExchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.apache.camel.opentelemetry.cxf.ClientSpanStartInterceptor.CLIENT_CALL;
+import static org.apache.camel.opentelemetry.cxf.ClientSpanStartInterceptor.RESPONSE_BODY_SIZE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClientSpanStopInterceptorTest {
+
+    private static final byte[] BODY = "<pizza>margherita</pizza>".getBytes(StandardCharsets.UTF_8);
+
+    private final SdkTracerProvider tracerProvider = SdkTracerProvider.builder().build();
+    private final ClientSpanStopInterceptor interceptor = new ClientSpanStopInterceptor();
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.close();
+    }
+
+    @Test
+    void ownedSpanEndsOnceTheResponseIsRead() throws Exception {
+        Span span = span();
+        Message message = response(span, true);
+        message.setContent(InputStream.class, new ByteArrayInputStream(BODY));
+
+        interceptor.handleMessage(message);
+
+        assertFalse(ended(span));
+        message.getContent(InputStream.class).readAllBytes();
+        assertTrue(ended(span));
+        assertEquals(BODY.length, ((ReadableSpan) span).getAttribute(RESPONSE_BODY_SIZE));
+    }
+
+    @Test
+    void ownedSpanEndsOnceTheResponseIsClosed() throws Exception {
+        Span span = span();
+        Message message = response(span, true);
+        message.setContent(InputStream.class, new ByteArrayInputStream(BODY));
+        message.put(Message.PROTOCOL_HEADERS, headers("Content-Length", Integer.toString(BODY.length)));
+
+        interceptor.handleMessage(message);
+
+        assertEquals(BODY.length, ((ReadableSpan) span).getAttribute(RESPONSE_BODY_SIZE));
+        assertFalse(ended(span));
+        message.getContent(InputStream.class).close();
+        assertTrue(ended(span));
+    }
+
+    @Test
+    void ownedSpanEndsWithTheCamelExchangeIfTheResponseIsLeftUnread() {
+        Span span = span();
+        Message message = response(span, true);
+        message.setContent(InputStream.class, new ByteArrayInputStream(BODY));
+        DefaultExchange exchange = new DefaultExchange(new DefaultCamelContext());
+        message.getExchange().put(DeadlineInterceptor.CAMEL_EXCHANGE, exchange);
+
+        interceptor.handleMessage(message);
+
+        assertFalse(ended(span));
+        for (Synchronization synchronization : exchange.getExchangeExtension().handoverCompletions()) {
+            synchronization.onComplete(exchange);
+        }
+        assertTrue(ended(span));
+    }
+
+    @Test
+    void ownedSpanEndsAtOnceWithoutResponseBody() {
+        Span span = span();
+
+        interceptor.handleMessage(response(span, true));
+
+        assertTrue(ended(span));
+    }
+
+    @Test
+    void spanCreatedByCamelIsLeftOpen() throws Exception {
+        Span span = span();
+        Message message = response(span, false);
+        message.setContent(InputStream.class, new ByteArrayInputStream(BODY));
+
+        interceptor.handleMessage(message);
+        message.getContent(InputStream.class).readAllBytes();
+
+        assertFalse(ended(span));
+        assertEquals(BODY.length, ((ReadableSpan) span).getAttribute(RESPONSE_BODY_SIZE));
+    }
+
+    private Span span() {
+        return tracerProvider.get("test").spanBuilder("POST http://localhost/pizza").startSpan();
+    }
+
+    private static Message response(Span span, boolean owned) {
+        Message message = new MessageImpl();
+        message.setExchange(new ExchangeImpl());
+        message.getExchange().put(CLIENT_CALL, new ClientSpanStartInterceptor.ClientCall(span, owned));
+        message.put(Message.RESPONSE_CODE, 200);
+        return message;
+    }
+
+    private static Map<String, List<String>> headers(String name, String value) {
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.put(name, List.of(value));
+        return headers;
+    }
+
+    private static boolean ended(Span span) {
+        return ((ReadableSpan) span).hasEnded();
+    }
+}
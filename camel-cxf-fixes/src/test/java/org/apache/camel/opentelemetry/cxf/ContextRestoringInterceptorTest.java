@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.cxf;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import org.apache.cxf.endpoint.ConduitSelector;
+import org.apache.cxf.endpoint.PreexistingConduitSelector;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.transport.AbstractConduit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class ContextRestoringInterceptorTest {
+
+    private static final SpanContext CALLER = SpanContext.create("0af7651916cd43dd8448eb211c80319c",
+            "b7ad6b7169203331", TraceFlags.getSampled(), TraceState.getDefault());
+
+    private final ContextRestoringInterceptor interceptor = new ContextRestoringInterceptor();
+    private final StubConduit conduit = new StubConduit();
+
+    @Test
+    void callerContextIsCurrentInTheResponseCallback() throws InterruptedException {
+        AtomicReference<SpanContext> inCallback = new AtomicReference<>();
+        conduit.setMessageObserver(response -> inCallback.set(Span.current().getSpanContext()));
+        Message request = message();
+
+        try (Scope ignored = Context.root().with(Span.wrap(CALLER)).makeCurrent()) {
+            interceptor.handleMessage(request);
+        }
+        // like the thread of the conduit dispatching the response, which has no OTEL context
+        onResponseThread(request);
+
+        assertEquals(CALLER, inCallback.get());
+    }
+
+    @Test
+    void callbackRunsInItsOwnContextWithoutCallContext() throws InterruptedException {
+        AtomicReference<SpanContext> inCallback = new AtomicReference<>();
+        conduit.setMessageObserver(response -> inCallback.set(Span.current().getSpanContext()));
+        Message request = message();
+
+        interceptor.handleMessage(request);
+        request.getExchange().remove(Context.class);
+        onResponseThread(request);
+
+        assertFalse(inCallback.get().isValid());
+    }
+
+    private void onResponseThread(Message request) throws InterruptedException {
+        Message response = new MessageImpl();
+        response.setExchange(request.getExchange());
+        Thread thread = new Thread(() -> conduit.getMessageObserver().onMessage(response));
+        thread.start();
+        thread.join();
+    }
+
+    private Message message() {
+        Message message = new MessageImpl();
+        message.setExchange(new ExchangeImpl());
+        message.getExchange().put(ConduitSelector.class, new PreexistingConduitSelector(conduit));
+        return message;
+    }
+
+    private static class StubConduit extends AbstractConduit {
+
+        StubConduit() {
+            super(null);
+        }
+
+        @Override
+        public void prepare(Message message) {
+        }
+
+        @Override
+        protected Logger getLogger() {
+            return Logger.getLogger(StubConduit.class.getName());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.cxf;
+
+import io.opentelemetry.api.baggage.Baggage;
+import io.opentelemetry.context.Scope;
+import org.apache.camel.opentelemetry.RequestDeadline;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadlineInterceptorTest {
+
+    private final DeadlineInterceptor interceptor = new DeadlineInterceptor(30_000L);
+
+    @Test
+    void withoutDeadlineTheReceiveTimeoutIsLeftAlone() {
+        Message message = message();
+
+        interceptor.handleMessage(message);
+
+        assertNull(message.get(Message.RECEIVE_TIMEOUT));
+    }
+
+    @Test
+    void deadlineShortensTheConfiguredReceiveTimeout() {
+        Message message = message();
+        message.put(Message.RECEIVE_TIMEOUT, 60_000L);
+
+        withDeadlineIn(5_000L, () -> interceptor.handleMessage(message));
+
+        long timeout = (Long) message.get(Message.RECEIVE_TIMEOUT);
+        assertTrue(timeout > 0 && timeout <= 5_000L, "receive timeout " + timeout);
+    }
+
+    @Test
+    void deadlineNeverExtendsTheConfiguredReceiveTimeout() {
+        Message message = message();
+        message.put(Message.RECEIVE_TIMEOUT, 2_000L);
+
+        withDeadlineIn(60_000L, () -> interceptor.handleMessage(message));
+
+        assertEquals(2_000L, message.get(Message.RECEIVE_TIMEOUT));
+    }
+
+    @Test
+    void maxReceiveTimeoutIsUsedWithoutHttpConduit() {
+        Message message = message();
+
+        withDeadlineIn(120_000L, () -> interceptor.handleMessage(message));
+
+        assertEquals(30_000L, message.get(Message.RECEIVE_TIMEOUT));
+    }
+
+    @Test
+    void expiredDeadlineFailsTheCall() {
+        Message message = message();
+
+        assertThrows(Fault.class, () -> withDeadlineIn(-1L, () -> interceptor.handleMessage(message)));
+    }
+
+    private static Message message() {
+        Message message = new MessageImpl();
+        message.setExchange(new ExchangeImpl());
+        return message;
+    }
+
+    private static void withDeadlineIn(long millis, Runnable call) {
+        Baggage baggage = Baggage.builder()
+                .put(RequestDeadline.BAGGAGE_KEY, Long.toString(System.currentTimeMillis() + millis))
+                .build();
+        try (Scope ignored = baggage.makeCurrent()) {
+            call.run();
+        }
+    }
+}
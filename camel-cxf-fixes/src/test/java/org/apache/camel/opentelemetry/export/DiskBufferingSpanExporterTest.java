@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.export;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiskBufferingSpanExporterTest {
+
+    private final StubSpanExporter delegate = new StubSpanExporter();
+
+    @TempDir
+    Path directory;
+
+    private DiskBufferingSpanExporter exporter;
+
+    @AfterEach
+    void tearDown() {
+        if (exporter != null) {
+            exporter.shutdown();
+        }
+    }
+
+    @Test
+    void exportedBatchesAreNotSpilled() throws Exception {
+        exporter = exporter(1, TimeUnit.HOURS);
+
+        assertTrue(export(StubSpanExporter.spans("a", "b")).isSuccess());
+        assertEquals(2, delegate.getExported().size());
+        assertEquals(0, exporter.getBacklogBatches());
+    }
+
+    @Test
+    void failedBatchesAreSpilledAndReplayedInOrder() throws Exception {
+        exporter = exporter(20, TimeUnit.MILLISECONDS);
+        delegate.setFailing(true);
+
+        assertTrue(export(StubSpanExporter.spans("a", "b")).isSuccess());
+        assertTrue(export(StubSpanExporter.spans("c")).isSuccess());
+        assertEquals(2, exporter.getBacklogBatches());
+
+        delegate.setFailing(false);
+
+        await(() -> exporter.getBacklogBatches() == 0);
+        assertEquals(List.of("a", "b", "c"), names(delegate.getExported()));
+    }
+
+    @Test
+    void newBatchesAreSpilledWhileOthersWaitOnDisk() throws Exception {
+        exporter = exporter(1, TimeUnit.HOURS);
+        delegate.setFailing(true);
+        export(StubSpanExporter.spans("a"));
+        delegate.setFailing(false);
+        int exports = delegate.getExports();
+
+        assertTrue(export(StubSpanExporter.spans("b")).isSuccess());
+        assertEquals(exports, delegate.getExports());
+        assertEquals(2, exporter.getBacklogBatches());
+    }
+
+    @Test
+    void hangingExportIsSpilledAfterTheTimeout() throws Exception {
+        exporter = exporter(1, TimeUnit.HOURS);
+        delegate.setHanging(true);
+
+        assertTrue(export(StubSpanExporter.spans("a")).isSuccess());
+        assertEquals(1, exporter.getBacklogBatches());
+        assertTrue(delegate.getExported().isEmpty());
+    }
+
+    @Test
+    void batchExportedAfterTheTimeoutIsNotReplayed() throws Exception {
+        exporter = exporter(1, TimeUnit.HOURS);
+        delegate.setHanging(true);
+        export(StubSpanExporter.spans("a"));
+
+        delegate.release();
+
+        assertEquals(0, exporter.getBacklogBatches());
+        assertEquals(List.of("a"), names(delegate.getExported()));
+    }
+
+    @Test
+    void batchFailingAfterTheTimeoutIsReplayed() throws Exception {
+        exporter = exporter(20, TimeUnit.MILLISECONDS);
+        delegate.setHanging(true);
+        export(StubSpanExporter.spans("a"));
+        delegate.setFailing(true);
+
+        delegate.release();
+
+        assertEquals(1, exporter.getBacklogBatches());
+        delegate.setHanging(false);
+        delegate.setFailing(false);
+        await(() -> exporter.getBacklogBatches() == 0);
+        assertEquals(List.of("a"), names(delegate.getExported()));
+    }
+
+    @Test
+    void replayedBatchExportedAfterTheTimeoutIsNotReplayedAgain() throws Exception {
+        exporter = exporter(500, TimeUnit.MILLISECONDS);
+        delegate.setFailing(true);
+        export(StubSpanExporter.spans("a"));
+        int exports = delegate.getExports();
+        delegate.setFailing(false);
+        delegate.setHanging(true);
+
+        await(() -> delegate.getExports() > exports);
+        // past the export timeout, before the next replay run
+        Thread.sleep(150);
+        delegate.release();
+
+        assertEquals(0, exporter.getBacklogBatches());
+        assertEquals(List.of("a"), names(delegate.getExported()));
+    }
+
+    @Test
+    void batchFailingAfterTheShutdownIsDropped() throws Exception {
+        exporter = exporter(1, TimeUnit.HOURS);
+        exporter.shutdown();
+        delegate.setFailing(true);
+
+        assertFalse(export(StubSpanExporter.spans("a")).isSuccess());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void spilledBatchesAreReplayedAfterARestart() throws Exception {
+        exporter = exporter(1, TimeUnit.HOURS);
+        delegate.setFailing(true);
+        export(StubSpanExporter.spans("a", "b"));
+        exporter.shutdown();
+
+        delegate.setFailing(false);
+        exporter = exporter(20, TimeUnit.MILLISECONDS);
+
+        await(() -> exporter.getBacklogBatches() == 0);
+        assertEquals(List.of("a", "b"), names(delegate.getExported()));
+    }
+
+    private DiskBufferingSpanExporter exporter(long retryInterval, TimeUnit unit) throws IOException {
+        return DiskBufferingSpanExporter.builder(delegate, directory)
+                .setSegmentSize(64 * 1024)
+                .setMaxBytes(1024 * 1024)
+                .setExportTimeout(50, TimeUnit.MILLISECONDS)
+                .setRetryInterval(retryInterval, unit)
+                .build();
+    }
+
+    private CompletableResultCode export(List<SpanData> spans) {
+        return exporter.export(spans).join(10, TimeUnit.SECONDS);
+    }
+
+    private static List<String> names(List<SpanData> spans) {
+        return spans.stream().map(SpanData::getName).toList();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.export;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedSpillStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private MappedSpillStore store;
+
+    @AfterEach
+    void tearDown() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    @Test
+    void batchesAreReplayedOldestFirst() throws IOException {
+        store = new MappedSpillStore(directory, 1024, 1024 * 1024);
+        store.append(bytes("a"));
+        store.append(bytes("b"));
+
+        assertEquals(2, store.batches());
+        assertEquals("a", replay());
+        assertEquals("b", replay());
+        assertNull(store.peek());
+        assertTrue(store.isEmpty());
+    }
+
+    @Test
+    void uncommittedBatchIsPeekedAgain() throws IOException {
+        store = new MappedSpillStore(directory, 1024, 1024 * 1024);
+        store.append(bytes("a"));
+
+        assertEquals("a", string(store.peek().bytes()));
+        assertEquals("a", string(store.peek().bytes()));
+        assertEquals(1, store.batches());
+    }
+
+    @Test
+    void batchesNotReplayedAreFoundAgainAfterARestart() throws IOException {
+        store = new MappedSpillStore(directory, 1024, 1024 * 1024);
+        store.append(bytes("a"));
+        store.append(bytes("b"));
+        replay();
+        store.close();
+
+        store = new MappedSpillStore(directory, 1024, 1024 * 1024);
+
+        assertEquals(1, store.batches());
+        assertEquals("b", replay());
+        assertTrue(store.isEmpty());
+    }
+
+    @Test
+    void batchesGoToNewSegmentsOnceOneIsFull() throws IOException {
+        // records of 9 bytes after the 12 bytes segment header, so two records per segment
+        store = new MappedSpillStore(directory, 32, 1024);
+        for (String batch : new String[] { "1", "2", "3", "4", "5" }) {
+            store.append(bytes(batch));
+        }
+
+        assertEquals(5, store.batches());
+        for (String batch : new String[] { "1", "2", "3", "4", "5" }) {
+            assertEquals(batch, replay());
+        }
+        assertTrue(store.isEmpty());
+    }
+
+    @Test
+    void oldestSegmentsAreEvictedPastTheSizeCap() throws IOException {
+        store = new MappedSpillStore(directory, 32, 64);
+        for (String batch : new String[] { "1", "2", "3", "4", "5" }) {
+            store.append(bytes(batch));
+        }
+
+        assertEquals(2, store.evictedBatches());
+        assertEquals(3, store.batches());
+        assertEquals("3", replay());
+    }
+
+    @Test
+    void batchLargerThanASegmentIsRejected() throws IOException {
+        store = new MappedSpillStore(directory, 32, 1024);
+
+        assertNull(store.append(new byte[13]));
+        assertNotNull(store.append(new byte[12]));
+    }
+
+    @Test
+    void batchAppendedAfterCloseIsDropped() throws IOException {
+        store = new MappedSpillStore(directory, 1024, 1024 * 1024);
+        store.close();
+
+        assertNull(store.append(bytes("a")));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void discardedBatchesAreSkipped() throws IOException {
+        store = new MappedSpillStore(directory, 1024, 1024 * 1024);
+        MappedSpillStore.Entry a = store.append(bytes("a"));
+        store.append(bytes("b"));
+        MappedSpillStore.Entry c = store.append(bytes("c"));
+        store.append(bytes("d"));
+
+        store.discard(a);
+        store.discard(c);
+
+        assertEquals(2, store.batches());
+        assertEquals("b", replay());
+        assertEquals("d", replay());
+        assertTrue(store.isEmpty());
+    }
+
+    @Test
+    void discardedBatchesStayDiscardedAfterARestart() throws IOException {
+        store = new MappedSpillStore(directory, 1024, 1024 * 1024);
+        store.append(bytes("a"));
+        store.discard(store.append(bytes("b")));
+        store.append(bytes("c"));
+        store.close();
+
+        store = new MappedSpillStore(directory, 1024, 1024 * 1024);
+
+        assertEquals(2, store.batches());
+        assertEquals("a", replay());
+        assertEquals("c", replay());
+    }
+
+    @Test
+    void batchDiscardedDuringItsReplayIsCountedOnce() throws IOException {
+        store = new MappedSpillStore(directory, 1024, 1024 * 1024);
+        MappedSpillStore.Entry a = store.append(bytes("a"));
+        store.append(bytes("b"));
+        MappedSpillStore.Batch batch = store.peek();
+
+        store.discard(a);
+        store.commit(batch);
+
+        assertEquals(1, store.batches());
+        assertEquals("b", replay());
+    }
+
+    @Test
+    void corruptedBatchesAreSkipped() throws IOException {
+        store = new MappedSpillStore(directory, 1024, 1024 * 1024);
+        store.append(bytes("a"));
+        store.close();
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("spans-0.seg").toFile(), "rw")) {
+            // the batch of the first record, after the segment and record headers
+            file.seek(20);
+            file.write('z');
+        }
+
+        store = new MappedSpillStore(directory, 1024, 1024 * 1024);
+
+        assertNull(store.peek());
+        assertTrue(store.isEmpty());
+        assertNotNull(store.append(bytes("b")));
+        assertEquals("b", replay());
+    }
+
+    private String replay() {
+        MappedSpillStore.Batch batch = store.peek();
+        assertNotNull(batch);
+        store.commit(batch);
+        return string(batch.bytes());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.export;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MpscRingBufferTest {
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertEquals(2, new MpscRingBuffer<>(1).capacity());
+        assertEquals(8, new MpscRingBuffer<>(5).capacity());
+        assertEquals(8, new MpscRingBuffer<>(8).capacity());
+    }
+
+    @Test
+    void offerFailsOnceFullAndSucceedsAgainOnceDrained() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, buffer.offer(i));
+        }
+
+        assertEquals(-1, buffer.offer(4));
+        assertEquals(4, buffer.size());
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(2, buffer.drain(drained::add, 2));
+        assertEquals(List.of(0, 1), drained);
+        assertEquals(4, buffer.offer(4));
+        assertEquals(5, buffer.offer(5));
+        assertEquals(-1, buffer.offer(6));
+    }
+
+    @Test
+    void elementsAreDrainedInOrderAcrossRounds() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            buffer.offer(i);
+            if (i % 3 == 2) {
+                buffer.drain(drained::add, Integer.MAX_VALUE);
+            }
+        }
+        buffer.drain(drained::add, Integer.MAX_VALUE);
+
+        assertEquals(100, drained.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, drained.get(i));
+        }
+        assertEquals(0, buffer.size());
+        assertEquals(buffer.producerIndex(), buffer.consumerIndex());
+    }
+
+    @Test
+    void everyElementOfConcurrentProducersIsDrainedOnce() throws Exception {
+        int producers = 8;
+        int perProducer = 20_000;
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(64);
+        Set<Integer> drained = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+        try {
+            for (int p = 0; p < producers; p++) {
+                int first = p * perProducer;
+                executor.execute(() -> {
+                    for (int i = first; i < first + perProducer; i++) {
+                        while (buffer.offer(i) < 0) {
+                            // gives the consumer a chance to run when there are fewer cores than threads
+                            Thread.yield();
+                        }
+                    }
+                    done.countDown();
+                });
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while ((done.getCount() > 0 || buffer.size() > 0) && System.nanoTime() < deadline) {
+                if (buffer.drain(e -> assertTrue(drained.add(e), "drained twice: " + e), 16) == 0) {
+                    Thread.yield();
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(producers * perProducer, drained.size());
+    }
+}
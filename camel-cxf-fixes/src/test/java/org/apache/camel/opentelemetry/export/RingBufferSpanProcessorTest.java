@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.export;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.autoconfigure.spi.AutoConfigurationCustomizer;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RingBufferSpanProcessorTest {
+
+    private final StubSpanExporter exporter = new StubSpanExporter();
+
+    @Test
+    void endedSpansAreExportedOnFlush() {
+        RingBufferSpanProcessor processor = processor(exporter, 1024, 8);
+        try (SdkTracerProvider tracerProvider = tracerProvider(processor, Sampler.alwaysOn())) {
+            endSpans(tracerProvider.get("test"), 20);
+
+            assertTrue(processor.forceFlush().join(10, TimeUnit.SECONDS).isSuccess());
+            assertEquals(20, exporter.getExported().size());
+            assertEquals(20, processor.getExportedSpans());
+        }
+    }
+
+    @Test
+    void unsampledSpansAreNotExported() {
+        RingBufferSpanProcessor processor = processor(exporter, 1024, 8);
+        try (SdkTracerProvider tracerProvider = tracerProvider(processor, Sampler.alwaysOff())) {
+            endSpans(tracerProvider.get("test"), 5);
+
+            assertTrue(processor.forceFlush().join(10, TimeUnit.SECONDS).isSuccess());
+            assertTrue(exporter.getExported().isEmpty());
+        }
+    }
+
+    @Test
+    void flushCompletesWhileSpansKeepComingIn() throws Exception {
+        RingBufferSpanProcessor processor = processor(exporter, 1 << 16, 64);
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService producers = Executors.newFixedThreadPool(4);
+        try (SdkTracerProvider tracerProvider = tracerProvider(processor, Sampler.alwaysOn())) {
+            Tracer tracer = tracerProvider.get("test");
+            for (int i = 0; i < 4; i++) {
+                producers.execute(() -> {
+                    while (running.get()) {
+                        endSpans(tracer, 1);
+                    }
+                });
+            }
+            Thread.sleep(100);
+
+            assertTrue(processor.forceFlush().join(10, TimeUnit.SECONDS).isSuccess());
+        } finally {
+            running.set(false);
+            producers.shutdownNow();
+        }
+    }
+
+    @Test
+    void spansAreDroppedWhileTheBufferIsFull() throws Exception {
+        CountDownLatch exporting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        StubSpanExporter blocking = new StubSpanExporter() {
+            @Override
+            public CompletableResultCode export(Collection<SpanData> spans) {
+                exporting.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.export(spans);
+            }
+        };
+        RingBufferSpanProcessor processor = processor(blocking, 4, 4);
+        try (SdkTracerProvider tracerProvider = tracerProvider(processor, Sampler.alwaysOn())) {
+            Tracer tracer = tracerProvider.get("test");
+            // a full batch, taken by the export thread which then blocks in the exporter
+            endSpans(tracer, 4);
+            assertTrue(exporting.await(10, TimeUnit.SECONDS));
+            endSpans(tracer, 7);
+
+            assertEquals(3, processor.getDroppedSpans());
+            release.countDown();
+            assertTrue(processor.forceFlush().join(10, TimeUnit.SECONDS).isSuccess());
+            assertEquals(8, blocking.getExported().size());
+        }
+    }
+
+    @Test
+    void failedExportsAreCounted() {
+        exporter.setFailing(true);
+        RingBufferSpanProcessor processor = processor(exporter, 1024, 8);
+        try (SdkTracerProvider tracerProvider = tracerProvider(processor, Sampler.alwaysOn())) {
+            endSpans(tracerProvider.get("test"), 3);
+
+            assertTrue(processor.forceFlush().join(10, TimeUnit.SECONDS).isSuccess());
+            assertEquals(3, processor.getFailedSpans());
+        }
+    }
+
+    @Test
+    void shutdownShutsTheExporterDown() {
+        RingBufferSpanProcessor processor = processor(exporter, 1024, 8);
+
+        assertTrue(processor.shutdown().join(10, TimeUnit.SECONDS).isSuccess());
+        assertTrue(exporter.isShutdown());
+    }
+
+    @Test
+    void forceFlushAfterShutdownSucceeds() {
+        RingBufferSpanProcessor processor = processor(exporter, 1024, 8);
+        assertTrue(processor.shutdown().join(10, TimeUnit.SECONDS).isSuccess());
+
+        CompletableResultCode flush = processor.forceFlush();
+
+        assertTrue(flush.isDone());
+        assertTrue(flush.isSuccess());
+    }
+
+    @Test
+    void replacedBatchSpanProcessorDoesNotShutTheExportersDown() {
+        Map<String, String> properties = Map.of(RingBufferSpanProcessorCustomizer.PROCESSOR_PROPERTY, "ring-buffer",
+                RingBufferSpanProcessorCustomizer.WAIT_STRATEGY_PROPERTY, "busy-spin");
+        ConfigProperties config = config(properties);
+        Object[] customizers = new Object[2];
+        new RingBufferSpanProcessorCustomizer().customize(customizer(customizers));
+        @SuppressWarnings("unchecked")
+        BiFunction<SpanExporter, ConfigProperties, SpanExporter> exporterCustomizer =
+                (BiFunction<SpanExporter, ConfigProperties, SpanExporter>) customizers[0];
+        @SuppressWarnings("unchecked")
+        BiFunction<SpanProcessor, ConfigProperties, SpanProcessor> processorCustomizer =
+                (BiFunction<SpanProcessor, ConfigProperties, SpanProcessor>) customizers[1];
+
+        SpanExporter customized = exporterCustomizer.apply(exporter, config);
+        SpanProcessor processor = processorCustomizer.apply(BatchSpanProcessor.builder(customized).build(), config);
+
+        assertInstanceOf(RingBufferSpanProcessor.class, processor);
+        assertFalse(exporter.isShutdown());
+        assertTrue(processor.shutdown().join(10, TimeUnit.SECONDS).isSuccess());
+        assertTrue(exporter.isShutdown());
+    }
+
+    @Test
+    void unknownWaitStrategyFallsBackToParking() {
+        assertEquals(WaitStrategy.BUSY_SPIN, RingBufferSpanProcessorCustomizer.waitStrategy("Busy-Spin"));
+        assertEquals(WaitStrategy.PARKING, RingBufferSpanProcessorCustomizer.waitStrategy("sleeping"));
+        assertEquals(WaitStrategy.PARKING, RingBufferSpanProcessorCustomizer.waitStrategy(null));
+    }
+
+    private static RingBufferSpanProcessor processor(SpanExporter exporter, int capacity, int maxExportBatchSize) {
+        return RingBufferSpanProcessor.builder(exporter)
+                .setCapacity(capacity)
+                .setMaxExportBatchSize(maxExportBatchSize)
+                .setScheduleDelay(10, TimeUnit.SECONDS)
+                .build();
+    }
+
+    private static SdkTracerProvider tracerProvider(SpanProcessor processor, Sampler sampler) {
+        return SdkTracerProvider.builder().addSpanProcessor(processor).setSampler(sampler).build();
+    }
+
+    private static void endSpans(Tracer tracer, int count) {
+        for (int i = 0; i < count; i++) {
+            tracer.spanBuilder("hop").startSpan().end();
+        }
+    }
+
+    // captures the exporter and processor customizers
+    private static AutoConfigurationCustomizer customizer(Object[] customizers) {
+        return (AutoConfigurationCustomizer) Proxy.newProxyInstance(AutoConfigurationCustomizer.class.getClassLoader(),
+                new Class<?>[] { AutoConfigurationCustomizer.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("addSpanExporterCustomizer")) {
+                        customizers[0] = args[0];
+                    } else if (method.getName().equals("addSpanProcessorCustomizer")) {
+                        customizers[1] = args[0];
+                    }
+                    return method.getReturnType().isInstance(proxy) ? proxy : null;
+                });
+    }
+
+    // the given properties, and the default value of the other ones
+    private static ConfigProperties config(Map<String, String> properties) {
+        return (ConfigProperties) Proxy.newProxyInstance(ConfigProperties.class.getClassLoader(),
+                new Class<?>[] { ConfigProperties.class }, (proxy, method, args) -> {
+                    String value = properties.get((String) args[0]);
+                    if (method.getName().equals("getString")) {
+                        return value != null || args.length == 1 ? value : args[1];
+                    }
+                    return args.length > 1 ? args[1] : null;
+                });
+    }
+}
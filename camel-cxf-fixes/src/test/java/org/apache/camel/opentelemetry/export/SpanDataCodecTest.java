@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.export;
+
+import java.io.IOException;
+import java.util.List;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SpanDataCodecTest {
+
+    private static final SpanContext PARENT = SpanContext.createFromRemoteParent("0af7651916cd43dd8448eb211c80319c",
+            "b7ad6b7169203331", TraceFlags.getSampled(), TraceState.builder().put("vendor", "v1").build());
+    private static final SpanContext LINKED = SpanContext.create("4bf92f3577b34da6a3ce929d0e0e4736",
+            "00f067aa0ba902b7", TraceFlags.getDefault(), TraceState.getDefault());
+
+    @Test
+    void spansAreReadBackAsWritten() throws IOException {
+        SpanData span = span();
+
+        List<SpanData> decoded = SpanDataCodec.decode(SpanDataCodec.encode(List.of(span)));
+
+        assertEquals(1, decoded.size());
+        SpanData read = decoded.get(0);
+        assertEquals(span.getName(), read.getName());
+        assertEquals(span.getKind(), read.getKind());
+        assertEquals(span.getSpanContext(), read.getSpanContext());
+        assertEquals(span.getParentSpanContext(), read.getParentSpanContext());
+        assertEquals(span.getStartEpochNanos(), read.getStartEpochNanos());
+        assertEquals(span.getEndEpochNanos(), read.getEndEpochNanos());
+        assertEquals(span.getStatus(), read.getStatus());
+        // the attributes of the SDK span are a mutable map, not equal to the immutable attributes read back
+        assertEquals(span.getAttributes().asMap(), read.getAttributes().asMap());
+        assertEquals(span.getTotalAttributeCount(), read.getTotalAttributeCount());
+        assertEquals(span.getResource(), read.getResource());
+        assertEquals(span.getInstrumentationScopeInfo(), read.getInstrumentationScopeInfo());
+        assertEquals(span.getTotalRecordedEvents(), read.getTotalRecordedEvents());
+        assertEquals(span.getTotalRecordedLinks(), read.getTotalRecordedLinks());
+        assertEquals(span.getEvents().size(), read.getEvents().size());
+        for (int i = 0; i < span.getEvents().size(); i++) {
+            EventData event = span.getEvents().get(i);
+            assertEquals(event.getName(), read.getEvents().get(i).getName());
+            assertEquals(event.getEpochNanos(), read.getEvents().get(i).getEpochNanos());
+            // exception events are read back as plain events, with the exception attributes
+            assertEquals(event.getAttributes().asMap(), read.getEvents().get(i).getAttributes().asMap());
+        }
+        LinkData link = read.getLinks().get(0);
+        assertEquals(LINKED, link.getSpanContext());
+        assertEquals(Attributes.of(AttributeKey.stringKey("link"), "l1"), link.getAttributes());
+    }
+
+    @Test
+    void spansOfABatchShareTheirResource() throws IOException {
+        List<SpanData> decoded = SpanDataCodec.decode(SpanDataCodec.encode(StubSpanExporter.spans("a", "b")));
+
+        assertEquals(List.of("a", "b"), decoded.stream().map(SpanData::getName).toList());
+        assertSame(decoded.get(0).getResource(), decoded.get(1).getResource());
+        assertSame(decoded.get(0).getInstrumentationScopeInfo(), decoded.get(1).getInstrumentationScopeInfo());
+    }
+
+    @Test
+    void unknownVersionIsRejected() {
+        assertThrows(IOException.class, () -> SpanDataCodec.decode(new byte[] { 2, 0, 0, 0, 0 }));
+    }
+
+    private static SpanData span() {
+        StubSpanExporter exporter = new StubSpanExporter();
+        try (SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                .setResource(Resource.create(Attributes.of(AttributeKey.stringKey("service.name"), "pizza")))
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build()) {
+            Span span = tracerProvider.tracerBuilder("camel").setInstrumentationVersion("4.4").build()
+                    .spanBuilder("orderPizza")
+                    .setParent(Context.root().with(Span.wrap(PARENT)))
+                    .setSpanKind(SpanKind.CLIENT)
+                    .addLink(LINKED, Attributes.of(AttributeKey.stringKey("link"), "l1"))
+                    .setAttribute("string", "s")
+                    .setAttribute("long", 42L)
+                    .setAttribute("double", 0.5)
+                    .setAttribute("boolean", true)
+                    .setAttribute(AttributeKey.stringArrayKey("strings"), List.of("a", "é"))
+                    .setAttribute(AttributeKey.longArrayKey("longs"), List.of(1L, 2L))
+                    .setAttribute(AttributeKey.doubleArrayKey("doubles"), List.of(1.5))
+                    .setAttribute(AttributeKey.booleanArrayKey("booleans"), List.of(true, false))
+                    .startSpan();
+            span.addEvent("received", Attributes.of(AttributeKey.longKey("size"), 3L));
+            span.recordException(new IllegalStateException("no more pizza"));
+            span.setStatus(StatusCode.ERROR, "failed");
+            span.end();
+        }
+        return exporter.getExported().get(0);
+    }
+}
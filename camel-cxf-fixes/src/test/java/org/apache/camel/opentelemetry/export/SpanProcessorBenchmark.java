@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.export;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Ends spans from 16, 32 and 64 threads through the {@link BatchSpanProcessor} of the SDK and through the
+ * {@link RingBufferSpanProcessor}, parking or yielding, with the same capacity, batch size and an exporter doing
+ * nothing, so that only the hand over of the spans to the export thread is measured.
+ * <p/>
+ * Spans are dropped once the processor is full, with both processors, the dropped spans are part of the throughput.
+ * Run with {@code mvn -Pjmh verify -Djmh.includes=SpanProcessorBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpanProcessorBenchmark {
+
+    // the ring buffer processor with each wait strategy, so that the batch processor is only measured once
+    @Param({ "batch", "ring-buffer-parking", "ring-buffer-yielding" })
+    public String processor;
+
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpanExporter exporter = new NoopSpanExporter();
+        SpanProcessor spanProcessor = "batch".equals(processor)
+                ? BatchSpanProcessor.builder(exporter)
+                        .setMaxQueueSize(2048)
+                        .setMaxExportBatchSize(512)
+                        .build()
+                : RingBufferSpanProcessor.builder(exporter)
+                        .setCapacity(2048)
+                        .setMaxExportBatchSize(512)
+                        .setWaitStrategy(WaitStrategy.parse(processor.substring("ring-buffer-".length())))
+                        .build();
+        tracerProvider = SdkTracerProvider.builder().addSpanProcessor(spanProcessor).build();
+        tracer = tracerProvider.get("benchmark");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        tracerProvider.close();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void endSpan16Threads() {
+        tracer.spanBuilder("hop").startSpan().end();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public void endSpan32Threads() {
+        tracer.spanBuilder("hop").startSpan().end();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void endSpan64Threads() {
+        tracer.spanBuilder("hop").startSpan().end();
+    }
+
+    private static final class NoopSpanExporter implements SpanExporter {
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.export;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * Exporter keeping the exported spans, which fails or hangs on demand.
+ */
+class StubSpanExporter implements SpanExporter {
+
+    private final List<SpanData> exported = new CopyOnWriteArrayList<>();
+    private final AtomicInteger exports = new AtomicInteger();
+    private final AtomicBoolean failing = new AtomicBoolean();
+    private final AtomicBoolean hanging = new AtomicBoolean();
+    private final List<Runnable> hung = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean shutdown = new AtomicBoolean();
+
+    /**
+     * Whether the next exports fail, without keeping their spans.
+     */
+    void setFailing(boolean failing) {
+        this.failing.set(failing);
+    }
+
+    /**
+     * Whether the next exports do not complete until {@link #release()}.
+     */
+    void setHanging(boolean hanging) {
+        this.hanging.set(hanging);
+    }
+
+    /**
+     * Completes the hanging exports, successfully unless failing.
+     */
+    void release() {
+        for (Runnable export : hung) {
+            hung.remove(export);
+            export.run();
+        }
+    }
+
+    List<SpanData> getExported() {
+        return exported;
+    }
+
+    int getExports() {
+        return exports.get();
+    }
+
+    boolean isShutdown() {
+        return shutdown.get();
+    }
+
+    /**
+     * Returns ended spans of the given names.
+     */
+    static List<SpanData> spans(String... names) {
+        StubSpanExporter exporter = new StubSpanExporter();
+        try (SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build()) {
+            for (String name : names) {
+                tracerProvider.get("test").spanBuilder(name).startSpan().end();
+            }
+        }
+        return List.copyOf(exporter.getExported());
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        exports.incrementAndGet();
+        if (hanging.get()) {
+            CompletableResultCode result = new CompletableResultCode();
+            hung.add(() -> complete(spans, result));
+            return result;
+        }
+        return complete(spans, new CompletableResultCode());
+    }
+
+    private CompletableResultCode complete(Collection<SpanData> spans, CompletableResultCode result) {
+        if (failing.get()) {
+            return result.fail();
+        }
+        exported.addAll(spans);
+        return result.succeed();
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        shutdown.set(true);
+        return CompletableResultCode.ofSuccess();
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.propagators;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.opentelemetry.api.baggage.Baggage;
+import io.opentelemetry.api.baggage.BaggageEntryMetadata;
+import io.opentelemetry.api.baggage.propagation.W3CBaggagePropagator;
+import io.opentelemetry.context.Context;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BaggageLimitsTest {
+
+    @Test
+    void unlimitedBaggageIsReturnedAsIs() {
+        Baggage baggage = Baggage.builder().put("a", "1").build();
+
+        assertSame(baggage, new BaggageLimits().apply(baggage, null, "direct:a"));
+    }
+
+    @Test
+    void entriesPastTheMaxAreDropped() {
+        BaggageLimits limits = new BaggageLimits();
+        limits.setMaxEntries(2);
+
+        Baggage limited = limits.apply(Baggage.builder().put("a", "1").put("b", "2").put("c", "3").build(), null,
+                "direct:a");
+
+        assertEquals(2, limited.size());
+        assertEquals(1, limits.getDroppedEntries());
+    }
+
+    @Test
+    void longValuesAreDroppedOrTruncated() {
+        Baggage baggage = Baggage.builder().put("a", "0123456789").build();
+        BaggageLimits limits = new BaggageLimits();
+        limits.setMaxValueLength(4);
+
+        assertTrue(limits.apply(baggage, null, "direct:a").isEmpty());
+
+        limits.setPolicy(BaggageLimits.Policy.TRUNCATE);
+
+        assertEquals("0123", limits.apply(baggage, null, "direct:a").getEntryValue("a"));
+        assertEquals(1, limits.getDroppedEntries());
+        assertEquals(1, limits.getTruncatedEntries());
+    }
+
+    @Test
+    void truncationDoesNotSplitSurrogatePairs() {
+        BaggageLimits limits = new BaggageLimits();
+        limits.setMaxValueLength(2);
+        limits.setPolicy(BaggageLimits.Policy.TRUNCATE);
+
+        // "a" followed by U+1F355 (slice of pizza), encoded as a surrogate pair
+        Baggage limited = limits.apply(Baggage.builder().put("a", "a🍕b").build(), null, "direct:a");
+
+        assertEquals("a", limited.getEntryValue("a"));
+    }
+
+    @Test
+    void headerSizeIsCountedInEncodedBytes() {
+        // each é is 2 UTF-8 bytes, each percent-encoded, so k=éé is 14 bytes on the wire
+        Baggage baggage = Baggage.builder().put("k", "éé").build();
+        BaggageLimits limits = new BaggageLimits();
+        limits.setMaxHeaderBytes(13);
+
+        assertTrue(limits.apply(baggage, null, "direct:a").isEmpty());
+
+        limits.setMaxHeaderBytes(14);
+
+        assertSame(baggage, limits.apply(baggage, null, "direct:a"));
+        assertEquals(14, injectedHeader(baggage).length());
+    }
+
+    @Test
+    void headerSizeMatchesTheCharactersEncodedByThePropagator() {
+        // the propagator encodes some of the baggage-octets of the specification as well
+        Baggage baggage = Baggage.builder().put("k", "a=b/c d;e,f!$&'()*-.:@_~").build();
+        BaggageLimits limits = new BaggageLimits();
+        limits.setMaxHeaderBytes(injectedHeader(baggage).length());
+
+        assertSame(baggage, limits.apply(baggage, null, "direct:a"));
+
+        limits.setMaxHeaderBytes(injectedHeader(baggage).length() - 1);
+
+        assertTrue(limits.apply(baggage, null, "direct:a").isEmpty());
+    }
+
+    @Test
+    void headerSizeIncludesMetadataAndSeparators() {
+        Baggage baggage = Baggage.builder()
+                .put("a", "1", BaggageEntryMetadata.create("p=1"))
+                .put("b", "2")
+                .build();
+        BaggageLimits limits = new BaggageLimits();
+        limits.setMaxHeaderBytes(injectedHeader(baggage).length());
+
+        assertSame(baggage, limits.apply(baggage, null, "direct:a"));
+
+        limits.setMaxHeaderBytes(injectedHeader(baggage).length() - 1);
+
+        assertEquals(1, limits.apply(baggage, null, "direct:a").size());
+    }
+
+    @Test
+    void onlyAllowedKeysAreForwardedToMatchingEndpoints() {
+        Baggage baggage = Baggage.builder().put("tenant", "t1").put("user", "u1").build();
+        BaggageLimits limits = new BaggageLimits();
+        limits.setAllowedKeys("http*=tenant");
+
+        Baggage limited = limits.apply(baggage, null, "https://example.com/pizza");
+
+        assertEquals("t1", limited.getEntryValue("tenant"));
+        assertNull(limited.getEntryValue("user"));
+        assertSame(baggage, limits.apply(baggage, null, "direct:a"));
+    }
+
+    private static String injectedHeader(Baggage baggage) {
+        Map<String, String> headers = new HashMap<>();
+        W3CBaggagePropagator.getInstance().inject(Context.root().with(baggage), headers, Map::put);
+        return headers.get("baggage");
+    }
+}
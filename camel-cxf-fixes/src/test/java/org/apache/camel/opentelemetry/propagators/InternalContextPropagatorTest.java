@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.opentelemetry.propagators;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.opentelemetry.api.baggage.Baggage;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Context;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.apache.camel.tracing.propagation.CamelHeadersExtractAdapter;
+import org.apache.camel.tracing.propagation.CamelHeadersInjectAdapter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InternalContextPropagatorTest {
+
+    private static final SpanContext SPAN_CONTEXT = SpanContext.create("0af7651916cd43dd8448eb211c80319c",
+            "b7ad6b7169203331", TraceFlags.getSampled(), TraceState.getDefault());
+
+    private CamelContext camelContext;
+    private InternalContextPropagator propagator;
+
+    @BeforeEach
+    void setUp() {
+        camelContext = new DefaultCamelContext();
+        camelContext.start();
+        propagator = new InternalContextPropagator();
+    }
+
+    @AfterEach
+    void tearDown() {
+        camelContext.stop();
+    }
+
+    @Test
+    void binaryContextIsWrittenAsAStringHeader() {
+        propagator.setBinaryPatterns("vm:*, seda:*");
+        Exchange exchange = new DefaultExchange(camelContext);
+        Map<String, Object> headers = new HashMap<>();
+        Context context = Context.root().with(Span.wrap(SPAN_CONTEXT))
+                .with(Baggage.builder().put("tenant", "t1").build());
+
+        assertTrue(propagator.injectBinary(context, exchange, camelContext.getEndpoint("seda:orders"),
+                new CamelHeadersInjectAdapter(headers)));
+
+        Object header = headers.get(InternalContextPropagator.BINARY_HEADER);
+        assertInstanceOf(String.class, header);
+        assertEquals(34, ((String) header).length());
+        assertFalse(headers.containsKey("traceparent"));
+
+        Context extracted = propagator.extractBinary(new CamelHeadersExtractAdapter(headers));
+        SpanContext spanContext = Span.fromContext(extracted).getSpanContext();
+        assertEquals(SPAN_CONTEXT.getTraceId(), spanContext.getTraceId());
+        assertEquals(SPAN_CONTEXT.getSpanId(), spanContext.getSpanId());
+        assertTrue(spanContext.isSampled());
+        assertTrue(spanContext.isRemote());
+        assertEquals("t1", Baggage.fromContext(extracted).getEntryValue("tenant"));
+    }
+
+    @Test
+    void otherEndpointsUseTheTextPropagators() {
+        propagator.setBinaryPatterns("seda:*");
+        Map<String, Object> headers = new HashMap<>();
+
+        assertFalse(propagator.injectBinary(Context.root().with(Span.wrap(SPAN_CONTEXT)),
+                new DefaultExchange(camelContext), camelContext.getEndpoint("log:out"),
+                new CamelHeadersInjectAdapter(headers)));
+        assertTrue(headers.isEmpty());
+    }
+
+    @Test
+    void malformedBinaryHeaderIsIgnored() {
+        propagator.setBinaryPatterns("seda:*");
+        Map<String, Object> headers = new HashMap<>();
+        headers.put(InternalContextPropagator.BINARY_HEADER, "not base64!");
+
+        assertNull(propagator.extractBinary(new CamelHeadersExtractAdapter(headers)));
+    }
+
+    @Test
+    void inJvmContextIsOnlyTakenOnce() {
+        propagator.setInJvm(true);
+        Exchange exchange = new DefaultExchange(camelContext);
+        Context context = Context.root().with(Span.wrap(SPAN_CONTEXT));
+
+        assertTrue(propagator.injectInJvm(context, exchange, camelContext.getEndpoint("direct:next")));
+        assertSame(context, propagator.takeInJvm(exchange));
+        assertNull(propagator.takeInJvm(exchange));
+        assertNull(exchange.getProperty(InternalContextPropagator.CONTEXT_PROPERTY));
+    }
+
+    @Test
+    void inJvmContextIsClearedWhenTheHopIsDone() {
+        propagator.setInJvm(true);
+        Exchange exchange = new DefaultExchange(camelContext);
+
+        propagator.injectInJvm(Context.root().with(Span.wrap(SPAN_CONTEXT)), exchange,
+                camelContext.getEndpoint("seda:next"));
+        propagator.clearInJvm(exchange);
+
+        assertNull(exchange.getProperty(InternalContextPropagator.CONTEXT_PROPERTY));
+        assertFalse(propagator.injectInJvm(Context.root(), exchange, camelContext.getEndpoint("log:out")));
+    }
+}
@@ -0,0 +1,122 @@
+package org.apache.cxf.workqueue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OpenTelemetryInstrumentedAutomaticWorkQueueImplTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ScheduledExecutorService releaser = Executors.newSingleThreadScheduledExecutor();
+    private OpenTelemetryInstrumentedAutomaticWorkQueueImpl queue;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        // one thread and one queue slot, both taken by blocked tasks
+        queue = new OpenTelemetryInstrumentedAutomaticWorkQueueImpl(1, 1, 1, 1, 60_000L, "test");
+        CountDownLatch started = new CountDownLatch(1);
+        queue.execute(() -> {
+            started.countDown();
+            awaitRelease();
+        });
+        // the first task goes through the queue to the prestarted thread, the second one only fits once it is taken
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        queue.execute(this::awaitRelease);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        releaser.shutdownNow();
+        queue.shutdown(false);
+    }
+
+    @Test
+    void fullQueueRejectsRightAway() {
+        queue.setOverloadPolicy(OverloadPolicy.REJECT);
+
+        assertThrows(RejectedExecutionException.class, () -> queue.execute(() -> { }));
+    }
+
+    @Test
+    void fullQueueRunsTheTaskOnTheCallerThread() {
+        queue.setOverloadPolicy(OverloadPolicy.CALLER_RUNS);
+        Thread caller = Thread.currentThread();
+        Thread[] ranOn = new Thread[1];
+
+        queue.execute(() -> ranOn[0] = Thread.currentThread());
+
+        assertEquals(caller, ranOn[0]);
+    }
+
+    @Test
+    void boundedWaitQueuesTheTaskOnceThereIsRoom() throws Exception {
+        queue.setOverloadPolicy(OverloadPolicy.BOUNDED_WAIT);
+        queue.setOverloadWaitMillis(5_000L);
+        CountDownLatch ran = new CountDownLatch(1);
+        releaser.schedule(release::countDown, 100, TimeUnit.MILLISECONDS);
+
+        queue.execute(ran::countDown);
+
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void boundedWaitRejectsAfterTheWait() {
+        queue.setOverloadPolicy(OverloadPolicy.BOUNDED_WAIT);
+        queue.setOverloadWaitMillis(200L);
+        long start = System.nanoTime();
+
+        assertThrows(RejectedExecutionException.class, () -> queue.execute(() -> { }));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 150);
+    }
+
+    @Test
+    void timedExecuteWaitsOnlyForItsTimeout() {
+        queue.setOverloadPolicy(OverloadPolicy.BOUNDED_WAIT);
+        queue.setOverloadWaitMillis(2_000L);
+        long start = System.nanoTime();
+
+        assertThrows(RejectedExecutionException.class, () -> queue.execute(() -> { }, 200L));
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsed >= 150 && elapsed < 1_500, "waited " + elapsed + " ms");
+    }
+
+    @Test
+    void unknownOverloadPolicyFallsBackToReject() {
+        assertEquals(OverloadPolicy.BOUNDED_WAIT, OpenTelemetryWorkQueueManagerImpl.overloadPolicy(" bounded-wait "));
+        assertEquals(OverloadPolicy.REJECT, OpenTelemetryWorkQueueManagerImpl.overloadPolicy("block"));
+        assertEquals(OverloadPolicy.REJECT, OpenTelemetryWorkQueueManagerImpl.overloadPolicy(null));
+    }
+
+    @Test
+    void malformedOverloadWaitFallsBackToTheDefault() {
+        assertEquals(250L, OpenTelemetryWorkQueueManagerImpl.overloadWaitMillis(" 250 "));
+        assertEquals(OpenTelemetryWorkQueueManagerImpl.DEFAULT_OVERLOAD_WAIT_MILLIS,
+                OpenTelemetryWorkQueueManagerImpl.overloadWaitMillis("1s"));
+        assertEquals(OpenTelemetryWorkQueueManagerImpl.DEFAULT_OVERLOAD_WAIT_MILLIS,
+                OpenTelemetryWorkQueueManagerImpl.overloadWaitMillis("-1"));
+        assertEquals(OpenTelemetryWorkQueueManagerImpl.DEFAULT_OVERLOAD_WAIT_MILLIS,
+                OpenTelemetryWorkQueueManagerImpl.overloadWaitMillis(null));
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.apache.cxf.workqueue;
+
+import io.opentelemetry.api.baggage.Baggage;
+import io.opentelemetry.context.Context;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriorityAutomaticWorkQueueImplTest {
+
+    private final PriorityAutomaticWorkQueueImpl queue = new PriorityAutomaticWorkQueueImpl("test");
+
+    @AfterEach
+    void tearDown() {
+        queue.shutdown(false);
+    }
+
+    @Test
+    void namedPrioritiesAreHonoredByDefault() {
+        assertEquals(PriorityAutomaticWorkQueueImpl.INTERACTIVE, queue.priority(withPriority("Interactive")));
+        assertEquals(PriorityAutomaticWorkQueueImpl.BATCH, queue.priority(withPriority(" batch ")));
+        assertEquals(PriorityAutomaticWorkQueueImpl.NORMAL, queue.priority(Context.root()));
+    }
+
+    @Test
+    void valuesOutsideTheAllowlistAreNormal() {
+        assertEquals(PriorityAutomaticWorkQueueImpl.NORMAL, queue.priority(withPriority("0")));
+        assertEquals(PriorityAutomaticWorkQueueImpl.NORMAL, queue.priority(withPriority("2147483647")));
+        assertEquals(PriorityAutomaticWorkQueueImpl.NORMAL, queue.priority(withPriority("urgent")));
+    }
+
+    @Test
+    void allowedLevelsAreClampedToTheConfiguredLevels() {
+        queue.setAllowedPriorities("interactive, normal, batch, 0, 2147483647, -5");
+        queue.setLevels(2);
+
+        assertEquals(0, queue.priority(withPriority("0")));
+        assertEquals(1, queue.priority(withPriority("2147483647")));
+        assertEquals(1, queue.priority(withPriority("batch")));
+        assertEquals(0, queue.priority(withPriority("-5")));
+    }
+
+    @Test
+    void levelsMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> queue.setLevels(0));
+    }
+
+    @Test
+    void malformedLevelsPropertyFallsBackToTheDefault() {
+        assertEquals(5, OpenTelemetryWorkQueueManagerImpl.priorityLevels(" 5 "));
+        assertEquals(PriorityAutomaticWorkQueueImpl.DEFAULT_LEVELS,
+                OpenTelemetryWorkQueueManagerImpl.priorityLevels("three"));
+        assertEquals(PriorityAutomaticWorkQueueImpl.DEFAULT_LEVELS,
+                OpenTelemetryWorkQueueManagerImpl.priorityLevels("0"));
+        assertEquals(PriorityAutomaticWorkQueueImpl.DEFAULT_LEVELS,
+                OpenTelemetryWorkQueueManagerImpl.priorityLevels(null));
+    }
+
+    @Test
+    void agingDelaySaturatesInsteadOfOverflowing() {
+        long agingNanos = TimeUnit.MILLISECONDS.toNanos(200);
+
+        assertEquals(0, PriorityAutomaticWorkQueueImpl.agingDelayNanos(0, agingNanos));
+        assertEquals(2 * agingNanos, PriorityAutomaticWorkQueueImpl.agingDelayNanos(2, agingNanos));
+        long saturated = PriorityAutomaticWorkQueueImpl.agingDelayNanos(Integer.MAX_VALUE, Long.MAX_VALUE / 2);
+        assertTrue(saturated > 0);
+        assertEquals(Long.MAX_VALUE / 4, saturated);
+    }
+
+    private static Context withPriority(String priority) {
+        return Context.root()
+                .with(Baggage.builder().put(PriorityAutomaticWorkQueueImpl.PRIORITY_KEY, priority).build());
+    }
+}
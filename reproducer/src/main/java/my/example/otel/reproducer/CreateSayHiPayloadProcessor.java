@@ -2,25 +2,28 @@ package my.example.otel.reproducer;
 
 import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
-import org.apache.camel.converter.jaxp.XmlConverter;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+
 @Component
 class CreateSayHiPayloadProcessor implements Processor {
 
-    private static final XmlConverter CONVERTER = new XmlConverter();
-
     @Override
     public void process(Exchange exchange) throws Exception {
-        exchange.getMessage().setBody(CONVERTER.toDOMDocument(TEMPLATE, exchange));
+        exchange.getMessage().setBody(TEMPLATE.newDocument(PARAMETERS));
         exchange.getMessage().setHeader("operationName", "sayHi");
         exchange.getMessage().setHeader("operationNamespace", "http://camel.apache.org/cxf/wsrm");
     }
 
     //language=xml
-    private static final String TEMPLATE = """
+    static final String TEMPLATE_XML = """
             <sayHi:sayHi xmlns:sayHi="http://camel.apache.org/cxf/wsrm">
-                <arg0>Camel</arg0>
+                <arg0/>
             </sayHi:sayHi>
             """;
+
+    private static final XmlTemplate TEMPLATE = new XmlTemplate(TEMPLATE_XML);
+
+    static final Map<String, String> PARAMETERS = Map.of("arg0", "Camel");
 }
@@ -0,0 +1,76 @@
+package my.example.otel.reproducer;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import org.apache.camel.Exchange;
+import org.apache.camel.component.cxf.common.CxfPayload;
+import org.apache.camel.component.cxf.converter.CxfPayloadConverter;
+import org.w3c.dom.Document;
+
+import javax.xml.namespace.QName;
+import javax.xml.transform.Source;
+import javax.xml.transform.dom.DOMResult;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Thread-safe factory of {@link CxfPayload}s from JAXB objects, and of JAXB objects from payload sources.
+ * <p>
+ * The {@link JAXBContext} is created once, {@link Marshaller}s are pooled, and objects are marshalled straight into a
+ * DOM, without going through an intermediate string.
+ */
+class JaxbPayloadFactory<T> {
+
+    private static final int MAX_POOLED_MARSHALLERS = 32;
+
+    private final JAXBContext jaxbContext;
+    private final QName rootElement;
+    private final Class<T> type;
+    private final BlockingQueue<Marshaller> marshallers = new ArrayBlockingQueue<>(MAX_POOLED_MARSHALLERS);
+
+    JaxbPayloadFactory(Class<T> type, QName rootElement) {
+        this.type = type;
+        this.rootElement = rootElement;
+        try {
+            this.jaxbContext = JAXBContext.newInstance(type);
+        } catch (JAXBException e) {
+            throw new IllegalStateException("Cannot create JAXBContext for " + type.getName(), e);
+        }
+    }
+
+    CxfPayload<?> createPayload(T body, Exchange exchange) throws JAXBException {
+        return CxfPayloadConverter.documentToCxfPayload(createDocument(body), exchange);
+    }
+
+    Document createDocument(T body) throws JAXBException {
+        Marshaller marshaller = acquire();
+        try {
+            DOMResult result = new DOMResult();
+            marshaller.marshal(new JAXBElement<>(rootElement, type, body), result);
+            return (Document) result.getNode();
+        } finally {
+            release(marshaller);
+        }
+    }
+
+    T unmarshal(Source source) throws JAXBException {
+        // unmarshallers are cheap to create, unlike the context
+        return jaxbContext.createUnmarshaller().unmarshal(source, type).getValue();
+    }
+
+    T unmarshal(CxfPayload<?> payload) throws JAXBException {
+        return unmarshal(payload.getBodySources().get(0));
+    }
+
+    private Marshaller acquire() throws JAXBException {
+        Marshaller marshaller = marshallers.poll();
+        return marshaller != null ? marshaller : jaxbContext.createMarshaller();
+    }
+
+    private void release(Marshaller marshaller) {
+        // dropped when the pool is full
+        marshallers.offer(marshaller);
+    }
+}
@@ -1,29 +1,79 @@
 package my.example.otel.reproducer;
 
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Tracer;
 import jakarta.ws.rs.core.MediaType;
 import org.apache.camel.Exchange;
+import org.apache.camel.Expression;
+import org.apache.camel.Processor;
 import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.builder.ThreadPoolProfileBuilder;
 import org.apache.camel.component.cxf.common.message.CxfConstants;
+import org.apache.camel.model.ProcessorDefinition;
+import org.apache.camel.util.concurrent.ThreadPoolRejectedPolicy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
 @Component
 public class MainRoutes extends RouteBuilder {
 
     public static final String LOG_MESSAGE = "${routeId}: ${body}";
+    // logging the body of a streamed CXF payload would materialise it
+    public static final String STREAMING_LOG_MESSAGE = "${routeId}: ${bodyType}";
     private final CreateSayHiPayloadProcessor createSayHiPayloadProcessor;
     private final CreatePizzaPayloadProcessor createPizzaPayloadProcessor;
+    private final RestResponseCache restResponseCache;
+
+    private final Tracer tracer;
+
+    private final String logMessage;
+    private final int splitConcurrency;
+    private final int singleFlightMaxInFlight;
+    private final int pizzaBatchMaxSize;
+    private final long pizzaBatchMaxDelayMillis;
 
     public MainRoutes(
             CreateSayHiPayloadProcessor createSayHiPayloadProcessor,
-            CreatePizzaPayloadProcessor createPizzaPayloadProcessor
+            CreatePizzaPayloadProcessor createPizzaPayloadProcessor,
+            RestResponseCache restResponseCache,
+            ObjectProvider<OpenTelemetry> openTelemetry,
+            @Value("${reproducer.cxf-streaming:false}") boolean cxfStreaming,
+            @Value("${reproducer.split-concurrency:1}") int splitConcurrency,
+            @Value("${reproducer.single-flight.max-in-flight:0}") int singleFlightMaxInFlight,
+            @Value("${reproducer.pizza-batch.max-size:0}") int pizzaBatchMaxSize,
+            @Value("${reproducer.pizza-batch.max-delay:20ms}") Duration pizzaBatchMaxDelay
     ) {
         this.createSayHiPayloadProcessor = createSayHiPayloadProcessor;
         this.createPizzaPayloadProcessor = createPizzaPayloadProcessor;
+        this.restResponseCache = restResponseCache;
+        this.tracer = openTelemetry.getIfAvailable(OpenTelemetry::noop).getTracer("otel-reproducer");
+        this.logMessage = cxfStreaming ? STREAMING_LOG_MESSAGE : LOG_MESSAGE;
+        this.splitConcurrency = splitConcurrency;
+        this.singleFlightMaxInFlight = singleFlightMaxInFlight;
+        this.pizzaBatchMaxSize = pizzaBatchMaxSize;
+        this.pizzaBatchMaxDelayMillis = pizzaBatchMaxDelay.toMillis();
     }
 
     @Override
     public void configure() {
 
+        // the thread pools are created through the ThreadPoolFactory, which propagates the OTEL context
+        // the queue is as large as the pool and the caller runs the rejected items, bounding the items in flight
+        ExecutorService splitExecutor = splitConcurrency > 1
+                ? getContext().getExecutorServiceManager().newThreadPool(this, "say-hi-rest-split",
+                        new ThreadPoolProfileBuilder("say-hi-rest-split")
+                                .poolSize(splitConcurrency)
+                                .maxPoolSize(splitConcurrency)
+                                .maxQueueSize(splitConcurrency)
+                                .rejectedPolicy(ThreadPoolRejectedPolicy.CallerRuns)
+                                .build())
+                : null;
+
         from("cxf:bean:otelMainSoapService")
                 .routeId("otel-main-route")
                 .setProperty("originalBody", body())
@@ -34,8 +84,10 @@ public class MainRoutes extends RouteBuilder {
                 // to simulate a parallel splitter
                 .setBody(e -> FAKE_XML_BODY)
                 .setHeader(Exchange.HTTP_METHOD, () -> "GET")
-                .split(super.body().tokenizeXML("order", "orders"))//.streaming().parallelProcessing()
-                    .setBody(xpath("Parameter[@Name]", String.class))
+                .split(new OrderParametersExpression(), new SplitSummaryAggregationStrategy()).streaming()
+                    .parallelProcessing(splitExecutor != null).executorService(splitExecutor)
+                    .process(SplitSummaryAggregationStrategy::markStart)
+                    .setBody(e -> e.getMessage().getBody(Map.class).get("CustomerID"))
                     .log(LOG_MESSAGE)
                     .to("direct:say-hi-rest-invoker")
                 .end()
@@ -43,26 +95,57 @@ public class MainRoutes extends RouteBuilder {
                 .to("direct:pizza-soap-invoker")
         ;
 
-        from("direct:pizza-soap-invoker")
+        // identical calls made at the same time share one downstream call
+        Processor sayHiSoapSingleFlight = singleFlight("cxf:bean:sayHiSoap", bodyAs(String.class));
+        Processor sayHiRestSingleFlight = singleFlight("cxfrs:bean:sayHiRest",
+                simple("${header." + CxfConstants.OPERATION_NAME + "}:${body}"));
+
+        // the orders of concurrent exchanges are sent together in one OrderPizzaBatch call, of the mock pizza service
+        Processor pizzaOrderBatcher = pizzaBatchMaxSize > 1
+                ? new PizzaOrderBatcher(getContext().createProducerTemplate(), "cxf:bean:pizzaBatchSoap",
+                        pizzaBatchMaxSize, pizzaBatchMaxDelayMillis,
+                        getContext().getExecutorServiceManager()
+                                .newSingleThreadScheduledExecutor(this, "pizza-order-batch"),
+                        tracer)
+                : null;
+
+        call(from("direct:pizza-soap-invoker")
                 .routeId("pizza-soap-invoker-route")
                 .process(createPizzaPayloadProcessor)
-                .log(LOG_MESSAGE)
-                .to("cxf:bean:pizzaSoap");
+                .log(logMessage),
+                "cxf:bean:pizzaSoap", pizzaOrderBatcher);
 
-        from("direct:say-hi-soap-invoker")
+        call(from("direct:say-hi-soap-invoker")
                 .routeId("say-hi-soap-invoker-route")
-                .process(createSayHiPayloadProcessor)
-                .to("cxf:bean:sayHiSoap")
-                .log(LOG_MESSAGE);
+                .process(createSayHiPayloadProcessor),
+                "cxf:bean:sayHiSoap", sayHiSoapSingleFlight)
+                .log(logMessage);
 
-        from("direct:say-hi-rest-invoker")
+        call(from("direct:say-hi-rest-invoker")
                 .routeId("say-hi-rest-invoker-route")
-                .removeHeader(CxfConstants.CAMEL_CXF_MESSAGE)
+                // the protocol headers of the sayHi SOAP response, transfer-encoding among them, would be sent along
+                // with the GET, which the server rejects
+                .removeHeaders("*", restResponseCache.requestHeaders())
                 .setHeader(CxfConstants.OPERATION_NAME, () -> "sayHi")
                 .setHeader(CxfConstants.HTTP_METHOD, () -> "GET")
                 .setHeader(CxfConstants.CONTENT_TYPE, () -> MediaType.TEXT_PLAIN)
-                .to("cxfrs:bean:sayHiRest")
-                .log(LOG_MESSAGE);
+                .process(restResponseCache::lookup)
+                .filter(exchangeProperty(RestResponseCache.HIT).isNotEqualTo(true)),
+                "cxfrs:bean:sayHiRest", sayHiRestSingleFlight)
+                    .process(restResponseCache::store)
+                .end()
+                .log(logMessage);
+    }
+
+    private Processor singleFlight(String endpointUri, Expression key) {
+        return singleFlightMaxInFlight > 0
+                ? new SingleFlight(getContext().createProducerTemplate(), endpointUri, key, singleFlightMaxInFlight,
+                        tracer)
+                : null;
+    }
+
+    private static ProcessorDefinition<?> call(ProcessorDefinition<?> route, String endpointUri, Processor sender) {
+        return sender != null ? route.process(sender) : route.to(endpointUri);
     }
 
     //language=xml
@@ -0,0 +1,116 @@
+package my.example.otel.reproducer;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.RuntimeCamelException;
+import org.apache.camel.support.ExpressionAdapter;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Splits an {@code <orders>} document into one map of {@code Parameter} names to values per {@code <order>}.
+ * <p>
+ * The body is read with StAX while the splitter iterates, so only the current order is held in memory and no XPath is
+ * evaluated per order.
+ */
+class OrderParametersExpression extends ExpressionAdapter {
+
+    private static final String ORDER = "order";
+    private static final String PARAMETER = "Parameter";
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    @Override
+    public Object evaluate(Exchange exchange) {
+        try {
+            Reader body = exchange.getMessage().getMandatoryBody(Reader.class);
+            return new OrderIterator(XML_INPUT_FACTORY.createXMLStreamReader(body));
+        } catch (Exception e) {
+            throw RuntimeCamelException.wrapRuntimeCamelException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "orderParameters";
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    private static final class OrderIterator implements Iterator<Map<String, String>>, Closeable {
+
+        private final XMLStreamReader reader;
+        private Map<String, String> next;
+
+        private OrderIterator(XMLStreamReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = readOrder();
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map<String, String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map<String, String> order = next;
+            next = null;
+            return order;
+        }
+
+        private Map<String, String> readOrder() {
+            try {
+                Map<String, String> order = null;
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        String name = reader.getLocalName();
+                        if (ORDER.equals(name)) {
+                            order = new LinkedHashMap<>();
+                        } else if (order != null && PARAMETER.equals(name)) {
+                            String parameterName = reader.getAttributeValue(null, "Name");
+                            if (parameterName != null) {
+                                order.put(parameterName, reader.getAttributeValue(null, "Value"));
+                            }
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT && order != null
+                            && ORDER.equals(reader.getLocalName())) {
+                        return order;
+                    }
+                }
+                close();
+                return null;
+            } catch (XMLStreamException e) {
+                throw new RuntimeCamelException("Cannot read orders", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                // ignore
+            }
+        }
+    }
+}
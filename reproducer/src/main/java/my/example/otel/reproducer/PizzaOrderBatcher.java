@@ -0,0 +1,229 @@
+package my.example.otel.reproducer;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapSetter;
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.Exchange;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.component.cxf.common.CxfPayload;
+import org.apache.camel.pizza.batch.types.BatchOrderResponseType;
+import org.apache.camel.pizza.batch.types.BatchOrderType;
+import org.apache.camel.pizza.batch.types.BatchToppingsType;
+import org.apache.camel.pizza.batch.types.OrderPizzaBatchResponseType;
+import org.apache.camel.pizza.batch.types.OrderPizzaBatchType;
+import org.apache.camel.pizza.types.OrderPizzaResponseType;
+import org.apache.camel.pizza.types.OrderPizzaType;
+import org.apache.camel.support.AsyncProcessorSupport;
+
+import javax.xml.namespace.QName;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.camel.component.cxf.common.message.CxfConstants.OPERATION_NAME;
+import static org.apache.camel.component.cxf.common.message.CxfConstants.OPERATION_NAMESPACE;
+
+/**
+ * Sends the {@code OrderPizza} payloads of several exchanges in one {@code OrderPizzaBatch} call, once
+ * {@code maxSize} orders are waiting or the oldest one waited {@code maxDelayMillis}, and gives each exchange its own
+ * {@code OrderResponse} back.
+ * <p/>
+ * The batch call is made under a pizza-order-batch span linked to the spans of the waiting exchanges, and each of them
+ * records a pizza-order-batch-wait span linked to it.
+ * <p/>
+ * {@code OrderPizzaBatch} is a mock extension of the pizza service, see {@code pizza_batch_mock_extension.wsdl}. The
+ * scheduler only runs the flush timer, the batches are sent with {@link ProducerTemplate#asyncSend}.
+ */
+class PizzaOrderBatcher extends AsyncProcessorSupport {
+
+    private static final String TYPES_NAMESPACE = "http://camel.apache.org/pizza/types";
+    private static final String PIZZA_BATCH_NAMESPACE = "http://camel.apache.org/pizza/batch";
+    private static final String BATCH_TYPES_NAMESPACE = "http://camel.apache.org/pizza/batch/types";
+    private static final TextMapSetter<Map<String, Object>> HEADER_SETTER = Map::put;
+
+    private static final JaxbPayloadFactory<OrderPizzaType> ORDER_FACTORY =
+            new JaxbPayloadFactory<>(OrderPizzaType.class, new QName(TYPES_NAMESPACE, "OrderRequest"));
+    private static final JaxbPayloadFactory<OrderPizzaResponseType> RESPONSE_FACTORY =
+            new JaxbPayloadFactory<>(OrderPizzaResponseType.class, new QName(TYPES_NAMESPACE, "OrderResponse"));
+    private static final JaxbPayloadFactory<OrderPizzaBatchType> BATCH_FACTORY =
+            new JaxbPayloadFactory<>(OrderPizzaBatchType.class, new QName(BATCH_TYPES_NAMESPACE, "OrderBatchRequest"));
+    private static final JaxbPayloadFactory<OrderPizzaBatchResponseType> BATCH_RESPONSE_FACTORY =
+            new JaxbPayloadFactory<>(OrderPizzaBatchResponseType.class,
+                    new QName(BATCH_TYPES_NAMESPACE, "OrderBatchResponse"));
+
+    private final ProducerTemplate template;
+    private final String endpointUri;
+    private final int maxSize;
+    private final long maxDelayMillis;
+    private final ScheduledExecutorService scheduler;
+    private final Tracer tracer;
+
+    private List<Pending> pending = new ArrayList<>();
+    private ScheduledFuture<?> flushTimer;
+
+    PizzaOrderBatcher(ProducerTemplate template, String endpointUri, int maxSize, long maxDelayMillis,
+            ScheduledExecutorService scheduler, Tracer tracer) {
+        this.template = template;
+        this.endpointUri = endpointUri;
+        this.maxSize = maxSize;
+        this.maxDelayMillis = maxDelayMillis;
+        this.scheduler = scheduler;
+        this.tracer = tracer;
+    }
+
+    @Override
+    public boolean process(Exchange exchange, AsyncCallback callback) {
+        OrderPizzaType order;
+        try {
+            order = ORDER_FACTORY.unmarshal(exchange.getMessage().getBody(CxfPayload.class));
+        } catch (Exception e) {
+            exchange.setException(e);
+            callback.done(true);
+            return true;
+        }
+        Pending waiting = new Pending(exchange, callback, order,
+                SpanContexts.of(exchange), Instant.now());
+        List<Pending> batch = null;
+        synchronized (this) {
+            pending.add(waiting);
+            if (pending.size() >= maxSize) {
+                batch = take();
+            } else if (flushTimer == null) {
+                flushTimer = scheduler.schedule(this::flush, maxDelayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (batch != null) {
+            send(batch);
+        }
+        return false;
+    }
+
+    private void flush() {
+        List<Pending> batch;
+        synchronized (this) {
+            batch = take();
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    // guarded by this
+    private List<Pending> take() {
+        List<Pending> batch = pending;
+        pending = new ArrayList<>();
+        if (flushTimer != null) {
+            flushTimer.cancel(false);
+            flushTimer = null;
+        }
+        return batch;
+    }
+
+    /**
+     * Sends the batch without waiting for the response, which completes the waiting exchanges.
+     */
+    private void send(List<Pending> batch) {
+        SpanBuilder builder = tracer.spanBuilder("pizza-order-batch")
+                .setNoParent()
+                .setAttribute("pizza.batch.size", batch.size());
+        OrderPizzaBatchType request = new OrderPizzaBatchType();
+        for (Pending waiting : batch) {
+            if (waiting.span() != null) {
+                builder.addLink(waiting.span());
+            }
+            request.getOrder().add(toBatchOrder(waiting.order()));
+        }
+        Span batchSpan = builder.startSpan();
+        // the call runs on another thread: the CLIENT span is parented with the propagated batch span
+        Context batchContext = Context.root().with(batchSpan);
+        template.asyncSend(endpointUri, e -> {
+            e.getMessage().setBody(BATCH_FACTORY.createPayload(request, e));
+            e.getMessage().setHeader(OPERATION_NAME, "OrderPizzaBatch");
+            e.getMessage().setHeader(OPERATION_NAMESPACE, PIZZA_BATCH_NAMESPACE);
+            W3CTraceContextPropagator.getInstance().inject(batchContext, e.getMessage().getHeaders(), HEADER_SETTER);
+        }).whenComplete((result, t) -> complete(batch, batchSpan, result, t));
+    }
+
+    private void complete(List<Pending> batch, Span batchSpan, Exchange result, Throwable t) {
+        List<BatchOrderResponseType> responses = null;
+        Exception failure = t instanceof Exception e ? e : t != null ? new IllegalStateException(t) : null;
+        if (failure == null) {
+            failure = result.getException();
+        }
+        if (failure == null) {
+            try {
+                responses = BATCH_RESPONSE_FACTORY.unmarshal(result.getMessage().getBody(CxfPayload.class)).getOrder();
+                if (responses.size() != batch.size()) {
+                    failure = new IllegalStateException(
+                            "Expected " + batch.size() + " pizza order responses but got " + responses.size());
+                }
+            } catch (Exception e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            batchSpan.setStatus(StatusCode.ERROR);
+            batchSpan.recordException(failure);
+        }
+        batchSpan.end();
+
+        for (int i = 0; i < batch.size(); i++) {
+            Pending waiting = batch.get(i);
+            try {
+                if (failure != null) {
+                    waiting.exchange().setException(failure);
+                } else {
+                    waiting.exchange().getMessage().setBody(
+                            RESPONSE_FACTORY.createPayload(toResponse(responses.get(i)), waiting.exchange()));
+                }
+            } catch (Exception e) {
+                waiting.exchange().setException(e);
+            }
+            recordWait(waiting, batchSpan.getSpanContext());
+            waiting.callback().done(false);
+        }
+    }
+
+    private static BatchOrderType toBatchOrder(OrderPizzaType order) {
+        BatchToppingsType toppings = new BatchToppingsType();
+        if (order.getToppings() != null) {
+            toppings.getTopping().addAll(order.getToppings().getTopping());
+        }
+        BatchOrderType batchOrder = new BatchOrderType();
+        batchOrder.setToppings(toppings);
+        return batchOrder;
+    }
+
+    private static OrderPizzaResponseType toResponse(BatchOrderResponseType batchResponse) {
+        OrderPizzaResponseType response = new OrderPizzaResponseType();
+        response.setMinutesUntilReady(batchResponse.getMinutesUntilReady());
+        return response;
+    }
+
+    private void recordWait(Pending waiting, SpanContext batch) {
+        Context parent = waiting.span() != null ? Context.root().with(Span.wrap(waiting.span())) : Context.root();
+        Span span = tracer.spanBuilder("pizza-order-batch-wait")
+                .setParent(parent)
+                .setStartTimestamp(waiting.since())
+                .addLink(batch)
+                .startSpan();
+        if (waiting.exchange().getException() != null) {
+            span.setStatus(StatusCode.ERROR);
+        }
+        span.end();
+    }
+
+    private record Pending(Exchange exchange, AsyncCallback callback, OrderPizzaType order, SpanContext span,
+                           Instant since) {
+    }
+}
@@ -0,0 +1,219 @@
+package my.example.otel.reproducer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.Span;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import org.apache.camel.Exchange;
+import org.apache.camel.Message;
+import org.apache.camel.component.cxf.common.message.CxfConstants;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Size and TTL bounded cache of the responses of idempotent cxfrs calls, in front of the producer: {@link #lookup}
+ * sets the cached response and the {@link #HIT} property, {@link #store} caches the response of the call.
+ * <p/>
+ * The key is the operation name, the selected headers, the query map and the body, which holds the parameters of the
+ * proxy calls. Responses with {@code Cache-Control: no-store}, {@code no-cache} or {@code private} are not cached, a
+ * {@code max-age} shortens the TTL, and requests with {@code Cache-Control: no-cache} or {@code no-store} skip the
+ * cache.
+ */
+@Component
+class RestResponseCache {
+
+    static final String HIT = "RestResponseCacheHit";
+
+    private static final String KEY = "RestResponseCacheKey";
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final List<String> keyHeaders;
+    private final Map<String, Entry> entries;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bypasses;
+
+    RestResponseCache(
+            MeterRegistry meterRegistry,
+            @Value("${reproducer.rest-cache.enabled:false}") boolean enabled,
+            @Value("${reproducer.rest-cache.max-entries:1000}") int maxEntries,
+            @Value("${reproducer.rest-cache.ttl:30s}") Duration ttl,
+            @Value("${reproducer.rest-cache.key-headers:}") List<String> keyHeaders
+    ) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl.toMillis();
+        this.keyHeaders = keyHeaders;
+        // access order, the least recently used entry is evicted first
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > RestResponseCache.this.maxEntries;
+            }
+        };
+        this.hits = counter(meterRegistry, "hit");
+        this.misses = counter(meterRegistry, "miss");
+        this.bypasses = counter(meterRegistry, "bypass");
+        Gauge.builder("reproducer.rest.cache.size", this, RestResponseCache::size).register(meterRegistry);
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The request headers the cache reads: the key headers and {@code Cache-Control}.
+     */
+    String[] requestHeaders() {
+        List<String> headers = new ArrayList<>(keyHeaders);
+        headers.add(HttpHeaders.CACHE_CONTROL);
+        return headers.toArray(String[]::new);
+    }
+
+    void lookup(Exchange exchange) {
+        if (!enabled) {
+            return;
+        }
+        Message message = exchange.getMessage();
+        String requestCacheControl = message.getHeader(HttpHeaders.CACHE_CONTROL, String.class);
+        if (hasDirective(requestCacheControl, "no-cache") || hasDirective(requestCacheControl, "no-store")) {
+            record(exchange, "bypass", bypasses);
+            return;
+        }
+        String key = key(message);
+        Entry entry = get(key);
+        if (entry == null) {
+            exchange.setProperty(KEY, key);
+            record(exchange, "miss", misses);
+            return;
+        }
+        message.setBody(entry.body());
+        message.setHeader(Exchange.CONTENT_TYPE, entry.contentType());
+        message.setHeader(Exchange.HTTP_RESPONSE_CODE, 200);
+        exchange.setProperty(HIT, true);
+        record(exchange, "hit", hits);
+    }
+
+    void store(Exchange exchange) {
+        String key = exchange.removeProperty(KEY) instanceof String k ? k : null;
+        if (key == null) {
+            return;
+        }
+        Message message = exchange.getMessage();
+        long ttl = ttlMillis;
+        String cacheControl;
+        if (message.getBody() instanceof Response response) {
+            if (response.getStatus() != 200) {
+                return;
+            }
+            cacheControl = response.getHeaderString(HttpHeaders.CACHE_CONTROL);
+            ttl = ttl(cacheControl, ttl);
+            if (ttl <= 0) {
+                return;
+            }
+            // the entity can only be read once
+            message.setBody(response.readEntity(String.class));
+            if (response.getMediaType() != null) {
+                message.setHeader(Exchange.CONTENT_TYPE, response.getMediaType().toString());
+            }
+        } else {
+            if (message.getHeader(Exchange.HTTP_RESPONSE_CODE, 200, Integer.class) != 200) {
+                return;
+            }
+            cacheControl = message.getHeader(HttpHeaders.CACHE_CONTROL, String.class);
+            ttl = ttl(cacheControl, ttl);
+            if (ttl <= 0) {
+                return;
+            }
+        }
+        put(key, new Entry(message.getBody(String.class), message.getHeader(Exchange.CONTENT_TYPE, String.class),
+                System.currentTimeMillis() + ttl));
+    }
+
+    private String key(Message message) {
+        StringBuilder key = new StringBuilder()
+                .append(message.getHeader(CxfConstants.OPERATION_NAME, String.class));
+        for (String header : keyHeaders) {
+            key.append('\n').append(header).append('=').append(message.getHeader(header, String.class));
+        }
+        key.append('\n').append(message.getHeader(CxfConstants.CAMEL_CXF_RS_QUERY_MAP, Map.class));
+        key.append('\n').append(message.getBody(String.class));
+        return key.toString();
+    }
+
+    private static long ttl(String cacheControl, long ttl) {
+        if (hasDirective(cacheControl, "no-store") || hasDirective(cacheControl, "no-cache")
+                || hasDirective(cacheControl, "private")) {
+            return 0;
+        }
+        if (cacheControl != null) {
+            for (String directive : cacheControl.split(",")) {
+                directive = directive.trim();
+                if (directive.startsWith("max-age=")) {
+                    try {
+                        return Math.min(ttl, Duration.ofSeconds(Long.parseLong(directive.substring(8))).toMillis());
+                    } catch (NumberFormatException e) {
+                        return 0;
+                    }
+                }
+            }
+        }
+        return ttl;
+    }
+
+    private static boolean hasDirective(String cacheControl, String directive) {
+        if (cacheControl == null) {
+            return false;
+        }
+        for (String d : cacheControl.split(",")) {
+            if (d.trim().equalsIgnoreCase(directive)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void record(Exchange exchange, String result, Counter counter) {
+        counter.increment();
+        Span span = SpanContexts.span(exchange);
+        if (span != null) {
+            span.setAttribute("cache.result", result);
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("reproducer.rest.cache.requests")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private synchronized Entry get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt() <= System.currentTimeMillis()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private synchronized void put(String key, Entry entry) {
+        entries.put(key, entry);
+    }
+
+    private synchronized int size() {
+        return entries.size();
+    }
+
+    private record Entry(String body, String contentType, long expiresAt) {
+    }
+}
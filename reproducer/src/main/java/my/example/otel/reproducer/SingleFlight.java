@@ -0,0 +1,154 @@
+package my.example.otel.reproducer;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import jakarta.ws.rs.core.Response;
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.Exchange;
+import org.apache.camel.Expression;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.support.AsyncProcessorSupport;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends the exchange to an endpoint, sharing one call between the exchanges with the same key sent at the same time:
+ * the first exchange makes the call, the others wait for its response without blocking a thread.
+ * <p/>
+ * The response body is read as a String to be shared. Each waiter gets a span linked to the CLIENT span of the call.
+ * Once {@code maxInFlight} calls are in flight, the exchanges are sent on their own.
+ */
+class SingleFlight extends AsyncProcessorSupport {
+
+    private static final Set<String> TRACE_HEADERS = Set.of("traceparent", "tracestate", "baggage");
+    private static final TextMapGetter<Map<String, Object>> HEADERS = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(Map<String, Object> carrier) {
+            return carrier.keySet();
+        }
+
+        @Override
+        public String get(Map<String, Object> carrier, String key) {
+            Object value = carrier != null ? carrier.get(key) : null;
+            return value != null ? value.toString() : null;
+        }
+    };
+
+    private final ProducerTemplate template;
+    private final String endpointUri;
+    private final Expression key;
+    private final int maxInFlight;
+    private final Tracer tracer;
+    private final Map<String, CompletableFuture<Result>> inFlight = new ConcurrentHashMap<>();
+
+    SingleFlight(ProducerTemplate template, String endpointUri, Expression key, int maxInFlight, Tracer tracer) {
+        this.template = template;
+        this.endpointUri = endpointUri;
+        this.key = key;
+        this.maxInFlight = maxInFlight;
+        this.tracer = tracer;
+    }
+
+    @Override
+    public boolean process(Exchange exchange, AsyncCallback callback) {
+        String k = key.evaluate(exchange, String.class);
+        if (k == null || inFlight.size() >= maxInFlight) {
+            template.asyncSend(endpointUri, exchange).whenComplete((e, t) -> callback.done(false));
+            return false;
+        }
+        CompletableFuture<Result> call = new CompletableFuture<>();
+        CompletableFuture<Result> leader = inFlight.putIfAbsent(k, call);
+        if (leader != null) {
+            Instant waitStart = Instant.now();
+            leader.whenComplete((result, t) -> {
+                try {
+                    result.applyTo(exchange);
+                    linkToCall(exchange, result, waitStart);
+                } catch (RuntimeException ex) {
+                    exchange.setException(ex);
+                } finally {
+                    callback.done(false);
+                }
+            });
+            return false;
+        }
+        template.asyncSend(endpointUri, exchange).whenComplete((e, t) -> {
+            try {
+                Result result = Result.of(exchange);
+                inFlight.remove(k, call);
+                call.complete(result);
+            } catch (RuntimeException ex) {
+                exchange.setException(ex);
+                inFlight.remove(k, call);
+                call.complete(new Result(null, Map.of(), ex, null));
+            } finally {
+                callback.done(false);
+            }
+        });
+        return false;
+    }
+
+    private void linkToCall(Exchange exchange, Result result, Instant waitStart) {
+        SpanContext parent = SpanContexts.of(exchange);
+        Context context = parent != null ? Context.root().with(Span.wrap(parent)) : Context.root();
+        SpanBuilder builder = tracer.spanBuilder("single-flight-wait")
+                .setParent(context)
+                .setStartTimestamp(waitStart)
+                .setAttribute("single-flight.endpoint", endpointUri);
+        if (result.call() != null) {
+            builder.addLink(result.call());
+        }
+        Span span = builder.startSpan();
+        if (result.exception() != null) {
+            span.setStatus(StatusCode.ERROR);
+            span.recordException(result.exception());
+        }
+        span.end();
+    }
+
+    private record Result(String body, Map<String, Object> headers, Exception exception, SpanContext call) {
+
+        static Result of(Exchange exchange) {
+            Object body = exchange.getMessage().getBody();
+            // a response entity can only be read once
+            String shared = body instanceof Response response
+                    ? response.readEntity(String.class)
+                    : exchange.getMessage().getBody(String.class);
+            exchange.getMessage().setBody(shared);
+            Map<String, Object> headers = new HashMap<>(exchange.getMessage().getHeaders());
+            // the trace headers of the call belong to the leader
+            headers.keySet().removeAll(TRACE_HEADERS);
+            return new Result(shared, headers, exchange.getException(), clientSpan(exchange));
+        }
+
+        /**
+         * The tracer injects the CLIENT span of the call in the request headers, the response is in the out message.
+         * Null if the call was not traced: the span of the route is not the call, the waiters are not linked to it.
+         */
+        private static SpanContext clientSpan(Exchange exchange) {
+            SpanContext spanContext = Span.fromContext(W3CTraceContextPropagator.getInstance()
+                    .extract(Context.root(), exchange.getIn().getHeaders(), HEADERS)).getSpanContext();
+            return spanContext.isValid() ? spanContext : null;
+        }
+
+        void applyTo(Exchange exchange) {
+            if (exception != null) {
+                exchange.setException(exception);
+                return;
+            }
+            exchange.getMessage().setBody(body);
+            exchange.getMessage().getHeaders().putAll(headers);
+        }
+    }
+}
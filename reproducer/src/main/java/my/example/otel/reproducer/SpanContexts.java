@@ -0,0 +1,67 @@
+package my.example.otel.reproducer;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.context.Context;
+import org.apache.camel.Exchange;
+import org.apache.camel.tracing.ActiveSpanManager;
+import org.apache.camel.tracing.SpanAdapter;
+
+/**
+ * The Camel span active on an exchange, with the Camel tracer or the {@code OpenTelemetryTracer} of camel-cxf-fixes,
+ * and its {@link SpanContext}, with its own trace flags and trace state.
+ */
+final class SpanContexts {
+
+    // see ActiveSpanManager, the tracer of camel-cxf-fixes keeps its own holder under the same property
+    static final String ACTIVE_SPAN_PROPERTY = "OpenTracing.activeSpan";
+
+    private SpanContexts() {
+    }
+
+    /**
+     * @return the span context, or null if no span is active on the exchange
+     */
+    static SpanContext of(Exchange exchange) {
+        Span span = span(exchange);
+        return span != null ? span.getSpanContext() : null;
+    }
+
+    /**
+     * ActiveSpanManager only knows the holder of the Camel tracer, and fails on another one, the holder of
+     * camel-cxf-fixes is read by its {@code getContext()} method, as the reproducer does not depend on that module.
+     *
+     * @return the span, or null if no span is active on the exchange
+     */
+    static Span span(Exchange exchange) {
+        Object holder = exchange.getProperty(ACTIVE_SPAN_PROPERTY);
+        if (holder == null) {
+            return null;
+        }
+        if (holder instanceof ActiveSpanManager.Holder) {
+            SpanAdapter adapter = ActiveSpanManager.getSpan(exchange);
+            return adapter != null ? span(adapter) : null;
+        }
+        try {
+            if (holder.getClass().getMethod("getContext").invoke(holder) instanceof Context context) {
+                Span span = Span.fromContext(context);
+                return span.getSpanContext().isValid() ? span : null;
+            }
+        } catch (ReflectiveOperationException e) {
+            // not a holder of a known tracer
+        }
+        return null;
+    }
+
+    // the SpanAdapter only exposes the ids, the OpenTelemetry span is reached by making it current
+    private static Span span(SpanAdapter adapter) {
+        Span span;
+        try (AutoCloseable ignored = adapter.makeCurrent()) {
+            span = Span.current();
+        } catch (Exception e) {
+            return null;
+        }
+        SpanContext spanContext = span.getSpanContext();
+        return spanContext.isValid() && spanContext.getSpanId().equals(adapter.spanId()) ? span : null;
+    }
+}
@@ -0,0 +1,97 @@
+package my.example.otel.reproducer;
+
+import io.opentelemetry.api.trace.Span;
+import org.apache.camel.AggregationStrategy;
+import org.apache.camel.Exchange;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the exchange being split as result, like the default split behaviour, so that the body and headers of the
+ * split exchanges do not leak into the rest of the route, and records a summary of all the split exchanges on the span
+ * active on it: count, errors, max and p99 latency. The first exception of the split exchanges is propagated.
+ * <p/>
+ * The latency of a split exchange is measured from {@link #markStart(Exchange)}, called by the split exchange itself:
+ * a split exchange starts with a copy of the clock of the exchange being split.
+ */
+class SplitSummaryAggregationStrategy implements AggregationStrategy {
+
+    static final String START_PROPERTY = "splitSummaryStart";
+
+    // by id of the exchange being split, kept out of its properties, which are copied into the split exchanges
+    private final Map<String, Summary> summaries = new ConcurrentHashMap<>();
+
+    @Override
+    public Exchange aggregate(Exchange oldExchange, Exchange newExchange) {
+        // only called without the exchange being split outside of the Splitter and Multicast
+        return aggregate(oldExchange, newExchange, oldExchange != null ? oldExchange : newExchange);
+    }
+
+    @Override
+    public Exchange aggregate(Exchange oldExchange, Exchange newExchange, Exchange inputExchange) {
+        Long start = newExchange.getProperty(START_PROPERTY, Long.class);
+        summaries.computeIfAbsent(inputExchange.getExchangeId(), id -> new Summary())
+                .add(start != null ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) : -1,
+                        newExchange.isFailed());
+        if (newExchange.getException() != null && inputExchange.getException() == null) {
+            inputExchange.setException(newExchange.getException());
+        }
+        return inputExchange;
+    }
+
+    @Override
+    public void onCompletion(Exchange exchange, Exchange inputExchange) {
+        if (inputExchange == null) {
+            return;
+        }
+        Summary summary = summaries.remove(inputExchange.getExchangeId());
+        Span span = SpanContexts.span(inputExchange);
+        if (summary != null && span != null) {
+            summary.record(span);
+        }
+    }
+
+    /**
+     * Stamps the start of the split exchange, to be called first thing in the split.
+     */
+    static void markStart(Exchange exchange) {
+        exchange.setProperty(START_PROPERTY, System.nanoTime());
+    }
+
+    private static final class Summary {
+
+        private long[] latencies = new long[16];
+        private int measured;
+        private int count;
+        private int errors;
+
+        // a negative latency if the start of the split exchange was not marked
+        synchronized void add(long latency, boolean failed) {
+            count++;
+            if (failed) {
+                errors++;
+            }
+            if (latency < 0) {
+                return;
+            }
+            if (measured == latencies.length) {
+                latencies = Arrays.copyOf(latencies, measured * 2);
+            }
+            latencies[measured++] = latency;
+        }
+
+        synchronized void record(Span span) {
+            span.setAttribute("split.count", count);
+            span.setAttribute("split.errors", errors);
+            if (measured > 0) {
+                long[] sorted = Arrays.copyOf(latencies, measured);
+                Arrays.sort(sorted);
+                span.setAttribute("split.latency.max_ms", sorted[measured - 1]);
+                span.setAttribute("split.latency.p99_ms", sorted[(int) Math.ceil(measured * 0.99) - 1]);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package my.example.otel.reproducer;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.StringReader;
+import java.util.Map;
+
+/**
+ * A static XML request template, parsed once per thread and handed out as deep clones.
+ * <p>
+ * The DOM implementation does not guarantee thread-safe reads, even for cloning, so each thread clones its own parsed
+ * copy instead of sharing one document behind a lock.
+ * <p>
+ * Parameters replace the text content of the first element with the given local name, e.g. {@code arg0}.
+ */
+class XmlTemplate {
+
+    private final ThreadLocal<Document> template;
+
+    XmlTemplate(String xml) {
+        // fail fast on an invalid template
+        parse(xml);
+        this.template = ThreadLocal.withInitial(() -> parse(xml));
+    }
+
+    private static Document parse(String xml) {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            return factory.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid XML template", e);
+        }
+    }
+
+    Document newDocument() {
+        return (Document) template.get().cloneNode(true);
+    }
+
+    Document newDocument(Map<String, String> parameters) {
+        Document document = newDocument();
+        for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+            Element element = findElement(document.getDocumentElement(), parameter.getKey());
+            if (element == null) {
+                throw new IllegalArgumentException("No element " + parameter.getKey() + " in template");
+            }
+            element.setTextContent(parameter.getValue());
+        }
+        return document;
+    }
+
+    private static Element findElement(Element parent, String localName) {
+        if (localName.equals(parent.getLocalName())) {
+            return parent;
+        }
+        NodeList children = parent.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            Node child = children.item(i);
+            if (child instanceof Element element) {
+                Element found = findElement(element, localName);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+}
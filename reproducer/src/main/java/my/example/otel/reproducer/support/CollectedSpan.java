@@ -0,0 +1,39 @@
+package my.example.otel.reproducer.support;
+
+import java.util.Map;
+
+/**
+ * Span received by the {@link OtlpCollectorStandIn}. The ids are lower case hex, the parent span id is null for the
+ * root spans, and the kind is the OTLP one without its prefix, e.g. {@code SERVER}.
+ */
+public record CollectedSpan(String traceId, String spanId, String parentSpanId, String name, String kind,
+                            long startEpochNanos, long endEpochNanos, int statusCode,
+                            Map<String, Object> attributes, Map<String, Object> resource) {
+
+    static final String ROUTE_ID = "camel.route.id";
+
+    /**
+     * The {@value #ROUTE_ID} attribute, or the name of the span, which is the path of the endpoint for the Camel
+     * spans, e.g. {@code pizza-soap-invoker} for {@code direct:pizza-soap-invoker}.
+     */
+    public String route() {
+        return attributes.get(ROUTE_ID) instanceof String routeId ? routeId : name;
+    }
+
+    public Object attribute(String key) {
+        return attributes.get(key);
+    }
+
+    public boolean isRoot() {
+        return parentSpanId == null;
+    }
+
+    public boolean isError() {
+        // STATUS_CODE_ERROR
+        return statusCode == 2;
+    }
+
+    public long durationNanos() {
+        return endEpochNanos - startEpochNanos;
+    }
+}
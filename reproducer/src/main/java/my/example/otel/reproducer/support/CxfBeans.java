@@ -7,16 +7,24 @@ import org.apache.camel.component.cxf.jaxws.CxfEndpoint;
 import org.apache.camel.component.cxf.spring.jaxrs.SpringJAXRSClientFactoryBean;
 import org.apache.camel.cxf.wsrm.HelloWorld;
 import org.apache.camel.pizza.Pizza;
+import org.apache.camel.pizza.batch.PizzaBatch;
+import org.apache.cxf.feature.Feature;
 import org.apache.cxf.tracing.opentelemetry.OpenTelemetryClientFeature;
 import org.apache.cxf.tracing.opentelemetry.OpenTelemetryFeature;
 import org.apache.cxf.tracing.opentelemetry.jaxrs.OpenTelemetryProvider;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Configuration(proxyBeanMethods = false)
 class CxfBeans {
 
@@ -26,12 +34,59 @@ class CxfBeans {
         return new OpenTelemetryFeature();
     }
 
+    // from camel-cxf-fixes, enriches the Camel client span instead of creating a second one
+    private static final String CAMEL_CLIENT_FEATURE = "org.apache.camel.opentelemetry.cxf.CamelOpenTelemetryClientFeature";
+
     @Bean
+    @Qualifier("cxfClientTracing")
     @ConditionalOnProperty(prefix = "reproducer", name = "enable-cxf-otel-features", havingValue = "true")
+    @ConditionalOnMissingClass(CAMEL_CLIENT_FEATURE)
     OpenTelemetryClientFeature openTelemetryClientFeature() {
         return new OpenTelemetryClientFeature();
     }
 
+    @Bean
+    @Qualifier("cxfClientTracing")
+    @ConditionalOnProperty(prefix = "reproducer", name = "enable-cxf-otel-features", havingValue = "true")
+    @ConditionalOnClass(name = CAMEL_CLIENT_FEATURE)
+    Feature camelOpenTelemetryClientFeature() throws ReflectiveOperationException {
+        return (Feature) Class.forName(CAMEL_CLIENT_FEATURE).getConstructor().newInstance();
+    }
+
+    // from camel-cxf-fixes, makes the OTEL context of the caller current while the responses are handled
+    private static final String CAMEL_ASYNC_CLIENT_FEATURE =
+            "org.apache.camel.opentelemetry.cxf.CamelOpenTelemetryAsyncClientFeature";
+
+    @Bean
+    @Qualifier("cxfAsyncClient")
+    @ConditionalOnClass(name = CAMEL_ASYNC_CLIENT_FEATURE)
+    Feature camelOpenTelemetryAsyncClientFeature() throws ReflectiveOperationException {
+        return (Feature) Class.forName(CAMEL_ASYNC_CLIENT_FEATURE).getConstructor(boolean.class)
+                .newInstance(cxfAsyncConduit);
+    }
+
+    // from camel-cxf-fixes, answers 503 with Retry-After while the default work queue is full
+    private static final String WORK_QUEUE_OVERLOAD_FEATURE =
+            "org.apache.camel.opentelemetry.cxf.WorkQueueOverloadFeature";
+
+    @Bean
+    @Qualifier("cxfOverload")
+    @ConditionalOnClass(name = WORK_QUEUE_OVERLOAD_FEATURE)
+    Feature workQueueOverloadFeature() throws ReflectiveOperationException {
+        return (Feature) Class.forName(WORK_QUEUE_OVERLOAD_FEATURE).getConstructor().newInstance();
+    }
+
+    // from camel-cxf-fixes, bounds the receive timeout of the calls by the request deadline, for the clients which
+    // don't have the Camel client feature
+    private static final String CAMEL_DEADLINE_FEATURE = "org.apache.camel.opentelemetry.cxf.CamelDeadlineFeature";
+
+    @Bean
+    @Qualifier("cxfDeadline")
+    @ConditionalOnClass(name = CAMEL_DEADLINE_FEATURE)
+    Feature camelDeadlineFeature() throws ReflectiveOperationException {
+        return (Feature) Class.forName(CAMEL_DEADLINE_FEATURE).getConstructor().newInstance();
+    }
+
     @Bean
     @ConditionalOnBean(OpenTelemetry.class)
     OpenTelemetryProvider openTelemetryProvider(OpenTelemetry openTelemetry) {
@@ -41,57 +96,102 @@ class CxfBeans {
     @Value("${reproducer.cxf-sync:false}")
     boolean cxfSynchronous;
 
+    // the logging feature caches the whole message, so it is off when streaming
+    @Value("${reproducer.cxf-streaming:false}")
+    boolean cxfStreaming;
+
+    // see AsyncHTTPConduitFactory.USE_ASYNC, the conduit is only asynchronous for asynchronous producers
+    @Value("${reproducer.cxf-async-conduit:false}")
+    boolean cxfAsyncConduit;
+
     @Bean
     CxfEndpoint otelMainSoapService(
-            ObjectProvider<OpenTelemetryFeature> openTelemetryFeature
+            ObjectProvider<OpenTelemetryFeature> openTelemetryFeature,
+            @Qualifier("cxfOverload") ObjectProvider<Feature> overloadFeature
     ) {
         CxfEndpoint endpoint = new CxfEndpoint();
 
         endpoint.setAddress("/otel-main-service");
-        endpoint.setLoggingFeatureEnabled(true);
+        endpoint.setLoggingFeatureEnabled(!cxfStreaming);
         endpoint.setSkipFaultLogging(false);
         endpoint.setDataFormat(DataFormat.PAYLOAD);
         endpoint.setServiceClass(TempConvertSoap.class);
         endpoint.setSynchronous(cxfSynchronous);
+        endpoint.setAllowStreaming(cxfStreaming);
         openTelemetryFeature.ifAvailable(f -> endpoint.getFeatures().add(f));
+        overloadFeature.ifAvailable(f -> endpoint.getFeatures().add(f));
 
         return endpoint;
     }
 
     @Bean
     CxfEndpoint sayHiSoap(
-            ObjectProvider<OpenTelemetryClientFeature> openTelemetryClientFeature,
+            @Qualifier("cxfClientTracing") ObjectProvider<Feature> openTelemetryClientFeature,
+            @Qualifier("cxfAsyncClient") ObjectProvider<Feature> asyncClientFeature,
             @Value("${say-hi-soap-url}") String address
     ) {
         CxfEndpoint endpoint = new CxfEndpoint();
 
         endpoint.setAddress(address);
-        endpoint.setLoggingFeatureEnabled(true);
+        endpoint.setLoggingFeatureEnabled(!cxfStreaming);
         endpoint.setLoggingSizeLimit(5_000);
         endpoint.setSkipFaultLogging(false);
         endpoint.setDataFormat(DataFormat.PAYLOAD);
         endpoint.setServiceClass(HelloWorld.class);
         endpoint.setSynchronous(cxfSynchronous);
+        endpoint.setAllowStreaming(cxfStreaming);
+        endpoint.setProperties(conduitProperties());
         openTelemetryClientFeature.ifAvailable(f -> endpoint.getFeatures().add(f));
+        asyncClientFeature.ifAvailable(f -> endpoint.getFeatures().add(f));
 
         return endpoint;
     }
 
     @Bean
     CxfEndpoint pizzaSoap(
-            ObjectProvider<OpenTelemetryClientFeature> openTelemetryClientFeature,
+            @Qualifier("cxfClientTracing") ObjectProvider<Feature> openTelemetryClientFeature,
+            @Qualifier("cxfAsyncClient") ObjectProvider<Feature> asyncClientFeature,
             @Value("${pizza-soap-url}") String address
     ) {
         CxfEndpoint endpoint = new CxfEndpoint();
 
         endpoint.setAddress(address);
-        endpoint.setLoggingFeatureEnabled(true);
+        endpoint.setLoggingFeatureEnabled(!cxfStreaming);
         endpoint.setLoggingSizeLimit(5_000);
         endpoint.setSkipFaultLogging(false);
         endpoint.setDataFormat(DataFormat.PAYLOAD);
         endpoint.setServiceClass(Pizza.class);
         endpoint.setSynchronous(cxfSynchronous);
+        endpoint.setAllowStreaming(cxfStreaming);
+        endpoint.setProperties(conduitProperties());
+        openTelemetryClientFeature.ifAvailable(f -> endpoint.getFeatures().add(f));
+        asyncClientFeature.ifAvailable(f -> endpoint.getFeatures().add(f));
+
+        return endpoint;
+    }
+
+    /**
+     * The OrderPizzaBatch operation of the mock pizza service, which the real service does not have.
+     */
+    @Bean
+    CxfEndpoint pizzaBatchSoap(
+            @Qualifier("cxfClientTracing") ObjectProvider<Feature> openTelemetryClientFeature,
+            @Qualifier("cxfAsyncClient") ObjectProvider<Feature> asyncClientFeature,
+            @Value("${pizza-batch-soap-url}") String address
+    ) {
+        CxfEndpoint endpoint = new CxfEndpoint();
+
+        endpoint.setAddress(address);
+        endpoint.setLoggingFeatureEnabled(!cxfStreaming);
+        endpoint.setLoggingSizeLimit(5_000);
+        endpoint.setSkipFaultLogging(false);
+        endpoint.setDataFormat(DataFormat.PAYLOAD);
+        endpoint.setServiceClass(PizzaBatch.class);
+        endpoint.setSynchronous(cxfSynchronous);
+        endpoint.setAllowStreaming(cxfStreaming);
+        endpoint.setProperties(conduitProperties());
         openTelemetryClientFeature.ifAvailable(f -> endpoint.getFeatures().add(f));
+        asyncClientFeature.ifAvailable(f -> endpoint.getFeatures().add(f));
 
         return endpoint;
     }
@@ -99,6 +199,8 @@ class CxfBeans {
     @Bean
     SpringJAXRSClientFactoryBean sayHiRest(
             ObjectProvider<OpenTelemetryProvider> openTelemetryProvider,
+            @Qualifier("cxfAsyncClient") ObjectProvider<Feature> asyncClientFeature,
+            @Qualifier("cxfDeadline") ObjectProvider<Feature> deadlineFeature,
             @Value("${say-hi-rest-url}") String address
     ) {
         SpringJAXRSClientFactoryBean endpoint = new SpringJAXRSClientFactoryBean();
@@ -108,9 +210,19 @@ class CxfBeans {
         endpoint.setLoggingSizeLimit(5_000);
         endpoint.setSkipFaultLogging(false);
         endpoint.setServiceClass(SayHiRestService.class);
+        endpoint.setProperties(conduitProperties());
         openTelemetryProvider.ifAvailable(endpoint::setProvider);
+        asyncClientFeature.ifAvailable(f -> endpoint.getFeatures().add(f));
+        deadlineFeature.ifAvailable(f -> endpoint.getFeatures().add(f));
 
         return endpoint;
     }
-    
+
+    private Map<String, Object> conduitProperties() {
+        // mutable, CXF adds its own endpoint properties
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("use.async.http.conduit", cxfAsyncConduit);
+        return properties;
+    }
+
 }
@@ -4,6 +4,9 @@ import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.model.rest.RestParamType;
 import org.springframework.stereotype.Component;
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 @Component
 class ExternalServicesMockingRoutes extends RouteBuilder {
 
@@ -15,6 +18,7 @@ class ExternalServicesMockingRoutes extends RouteBuilder {
         rest("/mock/services")
                 .post("/sayHiSoap").routeId("rest-POST-say-hi").to("direct:mock-POST-say-hi")
                 .post("/pizzaSoap").routeId("rest-POST-pizza").to("direct:mock-POST-pizza")
+                .post("/pizzaBatchSoap").routeId("rest-POST-pizza-batch").to("direct:mock-POST-pizza-batch")
                 .get("/sayHiRest").routeId("rest-GET-say-hi").param().name("name").type(RestParamType.header).endParam().to("direct:mock-GET-say-hi")
         ;
 
@@ -25,6 +29,14 @@ class ExternalServicesMockingRoutes extends RouteBuilder {
                 .log("postPizza response: ${body}")
         ;
 
+        // pizza_batch_mock_extension.wsdl, the real pizza service has no batch operation
+        from("direct:mock-POST-pizza-batch")
+                .routeId("mock-POST-pizza-batch")
+                .log("from ${routeId}. body received: ${body}")
+                .setBody(e -> batchPizzaResponse(e.getMessage().getBody(String.class)))
+                .log("${routeId} response: ${body}")
+        ;
+
         from("direct:mock-POST-say-hi")
                 .routeId("mock-POST-say-hi")
                 .log("from ${routeId}. body received: ${body}")
@@ -39,4 +51,29 @@ class ExternalServicesMockingRoutes extends RouteBuilder {
                 .log("${routeId} response: ${body}")
         ;
     }
+
+    private static String batchPizzaResponse(String request) {
+        Matcher orders = ORDER.matcher(request);
+        StringBuilder responses = new StringBuilder();
+        while (orders.find()) {
+            responses.append(BATCH_RESPONSE_ORDER);
+        }
+        return BATCH_RESPONSE.formatted(responses);
+    }
+
+    // the Order elements of an OrderBatchRequest, whatever their namespace prefix
+    private static final Pattern ORDER = Pattern.compile("<(\\w+:)?Order[\\s>]");
+
+    private static final String BATCH_RESPONSE_ORDER = """
+            <pizza:Order><pizza:MinutesUntilReady>10</pizza:MinutesUntilReady></pizza:Order>""";
+
+    //language=xml
+    private static final String BATCH_RESPONSE = """
+            <?xml version="1.0" encoding="utf-8"?>
+            <soap:Envelope xmlns:soap="http://schemas.xmlsoap.org/soap/envelope/">
+                <soap:Body xmlns:pizza="http://camel.apache.org/pizza/batch/types">
+                    <pizza:OrderBatchResponse>%s</pizza:OrderBatchResponse>
+                </soap:Body>
+            </soap:Envelope>
+            """;
 }
@@ -0,0 +1,281 @@
+package my.example.otel.reproducer.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * In-process stand-in for an OpenTelemetry collector: an OTLP/HTTP receiver, protobuf or JSON, on its own port, keeping
+ * the spans in memory, indexed by trace id, parent span id and route, for assertions and export throughput
+ * measurements without an external collector.
+ * <p/>
+ * Export to it with {@code OTEL_EXPORTER_OTLP_ENDPOINT=http://localhost:4318} and
+ * {@code OTEL_EXPORTER_OTLP_PROTOCOL=http/protobuf}. The JDK HTTP server is used because the Java agent (2.8.0) has no
+ * instrumentation for it, so the export requests are not traced themselves. A latency can be injected before each
+ * response, to reproduce a slow collector. The tests add an OTLP/gRPC receiver with {@code OtlpGrpcReceiver}.
+ * <p/>
+ * Started as a bean with {@code reproducer.otlp-collector.enabled=true}, or from a test with {@link #start()}, on port
+ * 0 to get free ports.
+ */
+public class OtlpCollectorStandIn implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(OtlpCollectorStandIn.class);
+    private static final String TRACES_PATH = "/v1/traces";
+    private final int port;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private volatile Duration latency;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    private final List<CollectedSpan> spans = new ArrayList<>();
+    private final Map<String, CollectedSpan> bySpanId = new HashMap<>();
+    private final Map<String, List<CollectedSpan>> byTraceId = new HashMap<>();
+    private final Map<String, List<CollectedSpan>> byParentSpanId = new HashMap<>();
+    private final Map<String, List<CollectedSpan>> byRoute = new HashMap<>();
+
+    private final AtomicLong receivedRequests = new AtomicLong();
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private final AtomicLong receivedSpans = new AtomicLong();
+
+    public OtlpCollectorStandIn(int port, Duration latency) {
+        this.port = port;
+        this.latency = latency;
+    }
+
+    /**
+     * Starts a stand-in on a free port, without latency.
+     */
+    public static OtlpCollectorStandIn start() throws IOException {
+        OtlpCollectorStandIn collector = new OtlpCollectorStandIn(0, Duration.ZERO);
+        collector.open();
+        return collector;
+    }
+
+    public void open() throws IOException {
+        executor = Executors.newFixedThreadPool(4, r -> {
+            Thread thread = new Thread(r, "otlp-collector-stand-in");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext(TRACES_PATH, this::handle);
+        server.setExecutor(executor);
+        server.start();
+        log.info("OTLP collector stand-in receiving spans on http://localhost:{}{}", getPort(), TRACES_PATH);
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    /**
+     * The port listened on, useful when started on port 0.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * The OTLP/HTTP endpoint, e.g. {@code http://localhost:4318/v1/traces}.
+     */
+    public String getEndpoint() {
+        return "http://localhost:" + getPort() + TRACES_PATH;
+    }
+
+    public void setLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] request = read(exchange);
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            boolean json = contentType != null && contentType.startsWith("application/json");
+            List<CollectedSpan> received;
+            try {
+                received = json
+                        ? OtlpTraceDecoder.decodeJson(request, objectMapper)
+                        : OtlpTraceDecoder.decodeProtobuf(request);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Cannot read the OTLP export request: {}", e.toString());
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+            injectLatency();
+            add(received, request.length);
+            // an empty ExportTraceServiceResponse
+            byte[] response = json ? "{}".getBytes(StandardCharsets.UTF_8) : new byte[0];
+            exchange.getResponseHeaders().set("Content-Type", json ? "application/json" : "application/x-protobuf");
+            exchange.sendResponseHeaders(200, response.length == 0 ? -1 : response.length);
+            if (response.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(response);
+                }
+            }
+        }
+    }
+
+    /**
+     * Receives an OTLP/protobuf {@code ExportTraceServiceRequest} from another transport, after the injected latency.
+     *
+     * @throws IllegalArgumentException if the request cannot be decoded
+     */
+    void receive(byte[] request) {
+        List<CollectedSpan> received = OtlpTraceDecoder.decodeProtobuf(request);
+        injectLatency();
+        add(received, request.length);
+    }
+
+    private static byte[] read(HttpExchange exchange) throws IOException {
+        InputStream body = exchange.getRequestBody();
+        try (InputStream in = "gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))
+                ? new GZIPInputStream(body) : body) {
+            return in.readAllBytes();
+        }
+    }
+
+    private void injectLatency() {
+        long millis = latency.toMillis();
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private synchronized void add(List<CollectedSpan> received, int bytes) {
+        receivedRequests.incrementAndGet();
+        receivedBytes.addAndGet(bytes);
+        for (CollectedSpan span : received) {
+            spans.add(span);
+            bySpanId.put(span.spanId(), span);
+            byTraceId.computeIfAbsent(span.traceId(), k -> new ArrayList<>()).add(span);
+            if (span.parentSpanId() != null) {
+                byParentSpanId.computeIfAbsent(span.parentSpanId(), k -> new ArrayList<>()).add(span);
+            }
+            byRoute.computeIfAbsent(span.route(), k -> new ArrayList<>()).add(span);
+        }
+        receivedSpans.addAndGet(received.size());
+        notifyAll();
+    }
+
+    public synchronized List<CollectedSpan> spans() {
+        return List.copyOf(spans);
+    }
+
+    public synchronized CollectedSpan span(String spanId) {
+        return bySpanId.get(spanId);
+    }
+
+    /**
+     * The parent of the span, null for a root span or if the parent was not received.
+     */
+    public synchronized CollectedSpan parent(CollectedSpan span) {
+        return span.parentSpanId() != null ? bySpanId.get(span.parentSpanId()) : null;
+    }
+
+    /**
+     * The spans of the trace, by start time.
+     */
+    public synchronized List<CollectedSpan> trace(String traceId) {
+        List<CollectedSpan> trace = new ArrayList<>(byTraceId.getOrDefault(traceId, List.of()));
+        trace.sort(Comparator.comparingLong(CollectedSpan::startEpochNanos));
+        return trace;
+    }
+
+    public synchronized List<CollectedSpan> children(String spanId) {
+        return List.copyOf(byParentSpanId.getOrDefault(spanId, List.of()));
+    }
+
+    public synchronized List<CollectedSpan> route(String route) {
+        return List.copyOf(byRoute.getOrDefault(route, List.of()));
+    }
+
+    public synchronized List<String> traceIds() {
+        return List.copyOf(byTraceId.keySet());
+    }
+
+    /**
+     * The spans whose parent was not received, the root spans excepted. Their context was lost, or they were
+     * exported before their parent, whose export did not arrive yet.
+     */
+    public synchronized List<CollectedSpan> orphans() {
+        return spans.stream()
+                .filter(span -> span.parentSpanId() != null && !bySpanId.containsKey(span.parentSpanId()))
+                .toList();
+    }
+
+    /**
+     * Waits for at least {@code count} spans matching the predicate, and returns them, or the ones received in time.
+     */
+    public synchronized List<CollectedSpan> await(Predicate<CollectedSpan> predicate, int count, Duration timeout)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        List<CollectedSpan> matching = spans.stream().filter(predicate).toList();
+        while (matching.size() < count) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            wait(Math.max(1, remaining / 1_000_000));
+            matching = spans.stream().filter(predicate).toList();
+        }
+        return matching;
+    }
+
+    /**
+     * Forgets the spans received, and resets the counters.
+     */
+    public synchronized void clear() {
+        spans.clear();
+        bySpanId.clear();
+        byTraceId.clear();
+        byParentSpanId.clear();
+        byRoute.clear();
+        receivedRequests.set(0);
+        receivedBytes.set(0);
+        receivedSpans.set(0);
+    }
+
+    public long getReceivedRequests() {
+        return receivedRequests.get();
+    }
+
+    public long getReceivedBytes() {
+        return receivedBytes.get();
+    }
+
+    public long getReceivedSpans() {
+        return receivedSpans.get();
+    }
+}
@@ -0,0 +1,21 @@
+package my.example.otel.reproducer.support;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration(proxyBeanMethods = false)
+class OtlpCollectorStandInConfiguration {
+
+    @Bean(initMethod = "open", destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "reproducer", name = "otlp-collector.enabled", havingValue = "true")
+    OtlpCollectorStandIn otlpCollectorStandIn(
+            @Value("${reproducer.otlp-collector.port:4318}") int port,
+            @Value("${reproducer.otlp-collector.latency:0ms}") Duration latency
+    ) {
+        return new OtlpCollectorStandIn(port, latency);
+    }
+}
@@ -0,0 +1,325 @@
+package my.example.otel.reproducer.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the spans of an OTLP {@code ExportTraceServiceRequest}, in the protobuf or the JSON encoding, without the
+ * generated OTLP classes. Only the fields needed for the assertions are read, events and links are skipped.
+ */
+final class OtlpTraceDecoder {
+
+    private static final String[] KINDS = {"UNSPECIFIED", "INTERNAL", "SERVER", "CLIENT", "PRODUCER", "CONSUMER"};
+    private static final HexFormat HEX = HexFormat.of();
+
+    private OtlpTraceDecoder() {
+    }
+
+    static List<CollectedSpan> decodeProtobuf(byte[] request) {
+        List<CollectedSpan> spans = new ArrayList<>();
+        ProtoReader export = new ProtoReader(request, 0, request.length);
+        while (export.hasNext()) {
+            if (export.tag() == field(1, 2)) {
+                readResourceSpans(export.message(), spans);
+            } else {
+                export.skip();
+            }
+        }
+        return spans;
+    }
+
+    private static void readResourceSpans(ProtoReader resourceSpans, List<CollectedSpan> spans) {
+        Map<String, Object> resource = Map.of();
+        List<ProtoReader> scopeSpans = new ArrayList<>();
+        while (resourceSpans.hasNext()) {
+            int tag = resourceSpans.tag();
+            if (tag == field(1, 2)) {
+                resource = readAttributes(resourceSpans.message(), 1);
+            } else if (tag == field(2, 2)) {
+                scopeSpans.add(resourceSpans.message());
+            } else {
+                resourceSpans.skip();
+            }
+        }
+        for (ProtoReader scope : scopeSpans) {
+            while (scope.hasNext()) {
+                if (scope.tag() == field(2, 2)) {
+                    spans.add(readSpan(scope.message(), resource));
+                } else {
+                    scope.skip();
+                }
+            }
+        }
+    }
+
+    private static CollectedSpan readSpan(ProtoReader span, Map<String, Object> resource) {
+        String traceId = null;
+        String spanId = null;
+        String parentSpanId = null;
+        String name = "";
+        int kind = 0;
+        long start = 0;
+        long end = 0;
+        int statusCode = 0;
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        while (span.hasNext()) {
+            int tag = span.tag();
+            switch (tag >>> 3) {
+                case 1 -> traceId = HEX.formatHex(span.bytes());
+                case 2 -> spanId = HEX.formatHex(span.bytes());
+                case 4 -> parentSpanId = hexOrNull(span.bytes());
+                case 5 -> name = span.string();
+                case 6 -> kind = (int) span.varint();
+                case 7 -> start = span.fixed64();
+                case 8 -> end = span.fixed64();
+                case 9 -> readKeyValue(span.message(), attributes);
+                case 15 -> statusCode = readStatusCode(span.message());
+                default -> span.skip(tag);
+            }
+        }
+        return new CollectedSpan(traceId, spanId, parentSpanId, name, kind(kind), start, end, statusCode,
+                attributes, resource);
+    }
+
+    private static int readStatusCode(ProtoReader status) {
+        int code = 0;
+        while (status.hasNext()) {
+            if (status.tag() == field(3, 0)) {
+                code = (int) status.varint();
+            } else {
+                status.skip();
+            }
+        }
+        return code;
+    }
+
+    private static Map<String, Object> readAttributes(ProtoReader message, int fieldNumber) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        while (message.hasNext()) {
+            if (message.tag() == field(fieldNumber, 2)) {
+                readKeyValue(message.message(), attributes);
+            } else {
+                message.skip();
+            }
+        }
+        return attributes;
+    }
+
+    private static void readKeyValue(ProtoReader keyValue, Map<String, Object> attributes) {
+        String key = null;
+        Object value = null;
+        while (keyValue.hasNext()) {
+            int tag = keyValue.tag();
+            if (tag == field(1, 2)) {
+                key = keyValue.string();
+            } else if (tag == field(2, 2)) {
+                value = readAnyValue(keyValue.message());
+            } else {
+                keyValue.skip();
+            }
+        }
+        if (key != null) {
+            attributes.put(key, value);
+        }
+    }
+
+    private static Object readAnyValue(ProtoReader anyValue) {
+        Object value = null;
+        while (anyValue.hasNext()) {
+            int tag = anyValue.tag();
+            switch (tag >>> 3) {
+                case 1 -> value = anyValue.string();
+                case 2 -> value = anyValue.varint() != 0;
+                case 3 -> value = anyValue.varint();
+                case 4 -> value = Double.longBitsToDouble(anyValue.fixed64());
+                case 5 -> {
+                    List<Object> values = new ArrayList<>();
+                    ProtoReader array = anyValue.message();
+                    while (array.hasNext()) {
+                        if (array.tag() == field(1, 2)) {
+                            values.add(readAnyValue(array.message()));
+                        } else {
+                            array.skip();
+                        }
+                    }
+                    value = values;
+                }
+                case 6 -> value = readAttributes(anyValue.message(), 1);
+                case 7 -> value = anyValue.bytes();
+                default -> anyValue.skip(tag);
+            }
+        }
+        return value;
+    }
+
+    static List<CollectedSpan> decodeJson(byte[] request, ObjectMapper objectMapper) throws IOException {
+        List<CollectedSpan> spans = new ArrayList<>();
+        for (JsonNode resourceSpans : objectMapper.readTree(request).path("resourceSpans")) {
+            Map<String, Object> resource = readAttributes(resourceSpans.path("resource").path("attributes"));
+            for (JsonNode scopeSpans : resourceSpans.path("scopeSpans")) {
+                for (JsonNode span : scopeSpans.path("spans")) {
+                    spans.add(new CollectedSpan(
+                            span.path("traceId").asText().toLowerCase(),
+                            span.path("spanId").asText().toLowerCase(),
+                            span.path("parentSpanId").asText().isEmpty()
+                                    ? null : span.path("parentSpanId").asText().toLowerCase(),
+                            span.path("name").asText(),
+                            kind(span.path("kind").asInt()),
+                            span.path("startTimeUnixNano").asLong(),
+                            span.path("endTimeUnixNano").asLong(),
+                            span.path("status").path("code").asInt(),
+                            readAttributes(span.path("attributes")),
+                            resource));
+                }
+            }
+        }
+        return spans;
+    }
+
+    private static Map<String, Object> readAttributes(JsonNode keyValues) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        for (JsonNode keyValue : keyValues) {
+            attributes.put(keyValue.path("key").asText(), readAnyValue(keyValue.path("value")));
+        }
+        return attributes;
+    }
+
+    private static Object readAnyValue(JsonNode anyValue) {
+        if (anyValue.has("stringValue")) {
+            return anyValue.get("stringValue").asText();
+        } else if (anyValue.has("boolValue")) {
+            return anyValue.get("boolValue").asBoolean();
+        } else if (anyValue.has("intValue")) {
+            // int64 values are JSON strings
+            return anyValue.get("intValue").asLong();
+        } else if (anyValue.has("doubleValue")) {
+            return anyValue.get("doubleValue").asDouble();
+        } else if (anyValue.has("arrayValue")) {
+            List<Object> values = new ArrayList<>();
+            for (JsonNode value : anyValue.get("arrayValue").path("values")) {
+                values.add(readAnyValue(value));
+            }
+            return values;
+        } else if (anyValue.has("kvlistValue")) {
+            return readAttributes(anyValue.get("kvlistValue").path("values"));
+        } else if (anyValue.has("bytesValue")) {
+            return Base64.getDecoder().decode(anyValue.get("bytesValue").asText());
+        }
+        return null;
+    }
+
+    private static String kind(int kind) {
+        return kind >= 0 && kind < KINDS.length ? KINDS[kind] : KINDS[0];
+    }
+
+    private static String hexOrNull(byte[] id) {
+        return id.length == 0 ? null : HEX.formatHex(id);
+    }
+
+    private static int field(int number, int wireType) {
+        return number << 3 | wireType;
+    }
+
+    /**
+     * Reader of the protobuf wire format over a range of a byte array.
+     */
+    private static final class ProtoReader {
+
+        private final byte[] buffer;
+        private final int limit;
+        private int position;
+        private int lastTag;
+
+        ProtoReader(byte[] buffer, int offset, int limit) {
+            this.buffer = buffer;
+            this.position = offset;
+            this.limit = limit;
+        }
+
+        boolean hasNext() {
+            return position < limit;
+        }
+
+        int tag() {
+            lastTag = (int) varint();
+            return lastTag;
+        }
+
+        long varint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer[position++];
+                value |= (long) (b & 0x7f) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        long fixed64() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value |= (buffer[position++] & 0xffL) << (8 * i);
+            }
+            return value;
+        }
+
+        byte[] bytes() {
+            int length = length();
+            byte[] bytes = new byte[length];
+            System.arraycopy(buffer, position, bytes, 0, length);
+            position += length;
+            return bytes;
+        }
+
+        String string() {
+            int length = length();
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        ProtoReader message() {
+            int length = length();
+            ProtoReader message = new ProtoReader(buffer, position, position + length);
+            position += length;
+            return message;
+        }
+
+        void skip() {
+            skip(lastTag);
+        }
+
+        void skip(int tag) {
+            switch (tag & 7) {
+                case 0 -> varint();
+                case 1 -> position += 8;
+                case 2 -> {
+                    // not position += length(), which would add the length to the position before its varint
+                    int length = length();
+                    position += length;
+                }
+                case 5 -> position += 4;
+                default -> throw new IllegalArgumentException("Unsupported wire type " + (tag & 7));
+            }
+        }
+
+        private int length() {
+            int length = (int) varint();
+            if (length < 0 || position + length > limit) {
+                throw new IllegalArgumentException("Truncated protobuf message");
+            }
+            return length;
+        }
+    }
+}
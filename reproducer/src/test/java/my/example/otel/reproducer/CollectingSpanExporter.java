@@ -0,0 +1,45 @@
+package my.example.otel.reproducer;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps the exported spans, for the tests of the processors creating their own spans.
+ */
+class CollectingSpanExporter implements SpanExporter {
+
+    private final List<SpanData> spans = new CopyOnWriteArrayList<>();
+
+    List<SpanData> spans() {
+        return List.copyOf(spans);
+    }
+
+    List<SpanData> spans(String name) {
+        return spans.stream().filter(span -> span.getName().equals(name)).toList();
+    }
+
+    void clear() {
+        spans.clear();
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> batch) {
+        spans.addAll(batch);
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return CompletableResultCode.ofSuccess();
+    }
+}
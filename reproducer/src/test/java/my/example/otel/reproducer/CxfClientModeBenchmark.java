@@ -0,0 +1,170 @@
+package my.example.otel.reproducer;
+
+import com.sun.net.httpserver.HttpServer;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.apache.camel.CamelContext;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.cxf.common.DataFormat;
+import org.apache.camel.component.cxf.jaxws.CxfEndpoint;
+import org.apache.camel.cxf.wsrm.HelloWorld;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.opentelemetry.OpenTelemetryTracer;
+import org.apache.cxf.feature.Feature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The sayHiSoap call of the reproducer with {@code reproducer.cxf-sync: true} against the non-blocking HttpClient 5
+ * conduit ({@code cxf-sync: false}, {@code cxf-async-conduit: true}), against a stub service answering after a fixed
+ * latency.
+ * <p/>
+ * The calls go through a seda route with few consumers, as the Camel threads of a real route: in sync mode each call
+ * holds a consumer for the whole latency, in async mode the consumers are released while the response is awaited.
+ * The calls are traced, and go through the {@code CamelOpenTelemetryAsyncClientFeature} of camel-cxf-fixes when it is
+ * on the classpath, as in the reproducer.
+ * Run with {@code mvn -Pjmh verify -Djmh.includes=CxfClientModeBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@Threads(64)
+public class CxfClientModeBenchmark {
+
+    private static final String ASYNC_CLIENT_FEATURE =
+            "org.apache.camel.opentelemetry.cxf.CamelOpenTelemetryAsyncClientFeature";
+
+    @Param({ "sync", "async" })
+    public String mode;
+
+    @Param("4")
+    public int consumers;
+
+    @Param("10")
+    public int latencyMillis;
+
+    private SdkTracerProvider tracerProvider;
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private CamelContext camelContext;
+    private ProducerTemplate template;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        byte[] response;
+        try (InputStream in = getClass().getResourceAsStream("/responses/sayHi-response.xml")) {
+            response = in.readAllBytes();
+        }
+        serverExecutor = Executors.newFixedThreadPool(256);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(serverExecutor);
+        server.createContext("/sayHiSoap", exchange -> {
+            try {
+                exchange.getRequestBody().readAllBytes();
+                Thread.sleep(latencyMillis);
+                exchange.getResponseHeaders().add("Content-Type", "text/xml; charset=UTF-8");
+                exchange.sendResponseHeaders(200, response.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(response);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+
+        // the CXF features take the propagators from the global instance
+        tracerProvider = SdkTracerProvider.builder().build();
+        OpenTelemetrySdk openTelemetry = OpenTelemetrySdk.builder()
+                .setTracerProvider(tracerProvider)
+                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                .build();
+        GlobalOpenTelemetry.resetForTest();
+        GlobalOpenTelemetry.set(openTelemetry);
+
+        boolean sync = "sync".equals(mode);
+        CxfEndpoint endpoint = new CxfEndpoint();
+        endpoint.setAddress("http://localhost:" + server.getAddress().getPort() + "/sayHiSoap");
+        endpoint.setDataFormat(DataFormat.PAYLOAD);
+        endpoint.setServiceClass(HelloWorld.class);
+        endpoint.setSynchronous(sync);
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("use.async.http.conduit", !sync);
+        endpoint.setProperties(properties);
+        Feature asyncClientFeature = asyncClientFeature(!sync);
+        if (asyncClientFeature != null) {
+            endpoint.getFeatures().add(asyncClientFeature);
+        }
+
+        camelContext = new DefaultCamelContext();
+        OpenTelemetryTracer tracer = new OpenTelemetryTracer();
+        tracer.setTracer(openTelemetry.getTracer("camel"));
+        tracer.setContextPropagators(openTelemetry.getPropagators());
+        tracer.init(camelContext);
+        camelContext.getRegistry().bind("sayHiSoap", endpoint);
+        camelContext.addRoutes(new RouteBuilder() {
+            @Override
+            public void configure() {
+                from("seda:say-hi?concurrentConsumers=" + consumers)
+                        .process(new CreateSayHiPayloadProcessor())
+                        .to("cxf:bean:sayHiSoap");
+            }
+        });
+        camelContext.start();
+        template = camelContext.createProducerTemplate();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        camelContext.stop();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        tracerProvider.close();
+        GlobalOpenTelemetry.resetForTest();
+    }
+
+    @Benchmark
+    public Object sayHi() {
+        return template.requestBody("seda:say-hi", (Object) null);
+    }
+
+    // null without camel-cxf-fixes, the conduit property alone then switches the conduit
+    private static Feature asyncClientFeature(boolean useAsyncConduit) throws ReflectiveOperationException {
+        try {
+            return (Feature) Class.forName(ASYNC_CLIENT_FEATURE).getConstructor(boolean.class)
+                    .newInstance(useAsyncConduit);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+}
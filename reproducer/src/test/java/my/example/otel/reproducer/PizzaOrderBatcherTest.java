@@ -0,0 +1,185 @@
+package my.example.otel.reproducer;
+
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.cxf.common.CxfPayload;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.pizza.batch.types.BatchOrderResponseType;
+import org.apache.camel.pizza.batch.types.BatchOrderType;
+import org.apache.camel.pizza.batch.types.OrderPizzaBatchResponseType;
+import org.apache.camel.pizza.batch.types.OrderPizzaBatchType;
+import org.apache.camel.pizza.types.OrderPizzaResponseType;
+import org.apache.camel.pizza.types.OrderPizzaType;
+import org.apache.camel.pizza.types.ToppingsListType;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.xml.namespace.QName;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PizzaOrderBatcherTest {
+
+    private static final String TYPES_NAMESPACE = "http://camel.apache.org/pizza/types";
+    private static final String BATCH_TYPES_NAMESPACE = "http://camel.apache.org/pizza/batch/types";
+
+    private static final JaxbPayloadFactory<OrderPizzaType> ORDER_FACTORY =
+            new JaxbPayloadFactory<>(OrderPizzaType.class, new QName(TYPES_NAMESPACE, "OrderRequest"));
+    private static final JaxbPayloadFactory<OrderPizzaResponseType> RESPONSE_FACTORY =
+            new JaxbPayloadFactory<>(OrderPizzaResponseType.class, new QName(TYPES_NAMESPACE, "OrderResponse"));
+    private static final JaxbPayloadFactory<OrderPizzaBatchType> BATCH_FACTORY =
+            new JaxbPayloadFactory<>(OrderPizzaBatchType.class,
+                    new QName(BATCH_TYPES_NAMESPACE, "OrderBatchRequest"));
+    private static final JaxbPayloadFactory<OrderPizzaBatchResponseType> BATCH_RESPONSE_FACTORY =
+            new JaxbPayloadFactory<>(OrderPizzaBatchResponseType.class,
+                    new QName(BATCH_TYPES_NAMESPACE, "OrderBatchResponse"));
+
+    private final CollectingSpanExporter exporter = new CollectingSpanExporter();
+    private final List<String> traceparents = new CopyOnWriteArrayList<>();
+    private SdkTracerProvider tracerProvider;
+    private ScheduledExecutorService scheduler;
+    private CamelContext camelContext;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tracerProvider = SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(exporter)).build();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        camelContext = new DefaultCamelContext();
+        camelContext.addRoutes(new RouteBuilder() {
+            @Override
+            public void configure() {
+                // answers each order with 10 minutes per topping
+                from("direct:pizza-batch")
+                        .process(e -> {
+                            traceparents.add(e.getMessage().getHeader("traceparent", String.class));
+                            OrderPizzaBatchType request = BATCH_FACTORY.unmarshal(
+                                    e.getMessage().getBody(CxfPayload.class));
+                            OrderPizzaBatchResponseType response = new OrderPizzaBatchResponseType();
+                            for (BatchOrderType order : request.getOrder()) {
+                                BatchOrderResponseType minutes = new BatchOrderResponseType();
+                                minutes.setMinutesUntilReady(10 * order.getToppings().getTopping().size());
+                                response.getOrder().add(minutes);
+                            }
+                            e.getMessage().setBody(BATCH_RESPONSE_FACTORY.createPayload(response, e));
+                        });
+                from("direct:failing-batch")
+                        .throwException(new IllegalStateException("pizza service down"));
+            }
+        });
+        camelContext.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        camelContext.stop();
+        scheduler.shutdownNow();
+        tracerProvider.close();
+    }
+
+    @Test
+    void fullBatchIsSentInOneCallAndEachExchangeGetsItsOwnResponse() throws Exception {
+        PizzaOrderBatcher batcher = batcher("direct:pizza-batch", 3, 10_000);
+        CountDownLatch done = new CountDownLatch(3);
+        List<Exchange> exchanges = new ArrayList<>();
+        for (int toppings = 1; toppings <= 3; toppings++) {
+            Exchange exchange = order(toppings);
+            exchanges.add(exchange);
+            batcher.process(exchange, doneSync -> done.countDown());
+        }
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(traceparents).hasSize(1);
+        for (int i = 0; i < exchanges.size(); i++) {
+            assertThat(exchanges.get(i).getException()).isNull();
+            assertThat(minutesUntilReady(exchanges.get(i))).isEqualTo(10 * (i + 1));
+        }
+    }
+
+    @Test
+    void partialBatchIsSentAfterTheMaxDelay() throws Exception {
+        PizzaOrderBatcher batcher = batcher("direct:pizza-batch", 10, 50);
+        CountDownLatch done = new CountDownLatch(2);
+        Exchange first = order(1);
+        Exchange second = order(2);
+
+        batcher.process(first, doneSync -> done.countDown());
+        batcher.process(second, doneSync -> done.countDown());
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(traceparents).hasSize(1);
+        assertThat(minutesUntilReady(first)).isEqualTo(10);
+        assertThat(minutesUntilReady(second)).isEqualTo(20);
+    }
+
+    @Test
+    void callIsMadeUnderTheBatchSpanAndTheWaitsAreLinkedToIt() throws Exception {
+        PizzaOrderBatcher batcher = batcher("direct:pizza-batch", 2, 10_000);
+        CountDownLatch done = new CountDownLatch(2);
+
+        batcher.process(order(1), doneSync -> done.countDown());
+        batcher.process(order(1), doneSync -> done.countDown());
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        List<SpanData> batches = exporter.spans("pizza-order-batch");
+        assertThat(batches).hasSize(1);
+        SpanData batch = batches.get(0);
+        assertThat(batch.getAttributes().asMap()).containsValue(2L);
+        assertThat(traceparents.get(0)).contains(batch.getTraceId() + "-" + batch.getSpanId());
+        List<SpanData> waits = exporter.spans("pizza-order-batch-wait");
+        assertThat(waits).hasSize(2)
+                .allSatisfy(wait -> assertThat(wait.getLinks().get(0).getSpanContext())
+                        .isEqualTo(batch.getSpanContext()));
+    }
+
+    @Test
+    void failedBatchFailsEveryWaitingExchange() throws Exception {
+        PizzaOrderBatcher batcher = batcher("direct:failing-batch", 2, 10_000);
+        CountDownLatch done = new CountDownLatch(2);
+        Exchange first = order(1);
+        Exchange second = order(2);
+
+        batcher.process(first, doneSync -> done.countDown());
+        batcher.process(second, doneSync -> done.countDown());
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(first.getException()).hasMessage("pizza service down");
+        assertThat(second.getException()).hasMessage("pizza service down");
+        assertThat(exporter.spans("pizza-order-batch").get(0).getStatus().getStatusCode())
+                .isEqualTo(StatusCode.ERROR);
+    }
+
+    private PizzaOrderBatcher batcher(String endpointUri, int maxSize, long maxDelayMillis) {
+        return new PizzaOrderBatcher(camelContext.createProducerTemplate(), endpointUri, maxSize, maxDelayMillis,
+                scheduler, tracerProvider.get("test"));
+    }
+
+    private Exchange order(int toppings) throws Exception {
+        OrderPizzaType order = new OrderPizzaType();
+        order.setToppings(new ToppingsListType());
+        for (int i = 0; i < toppings; i++) {
+            order.getToppings().getTopping().add("topping " + i);
+        }
+        Exchange exchange = new DefaultExchange(camelContext);
+        exchange.getMessage().setBody(ORDER_FACTORY.createPayload(order, exchange));
+        return exchange;
+    }
+
+    private static int minutesUntilReady(Exchange exchange) throws Exception {
+        return RESPONSE_FACTORY.unmarshal(exchange.getMessage().getBody(CxfPayload.class))
+                .getMinutesUntilReady();
+    }
+}
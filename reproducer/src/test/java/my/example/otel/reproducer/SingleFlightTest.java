@@ -0,0 +1,137 @@
+package my.example.otel.reproducer;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.Builder;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTest {
+
+    private static final String TRACEPARENT = "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-00";
+
+    private final CollectingSpanExporter exporter = new CollectingSpanExporter();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private SdkTracerProvider tracerProvider;
+    private CamelContext camelContext;
+    private SingleFlight singleFlight;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tracerProvider = SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(exporter)).build();
+        camelContext = new DefaultCamelContext();
+        camelContext.addRoutes(new RouteBuilder() {
+            @Override
+            public void configure() {
+                from("direct:call")
+                        .process(e -> {
+                            calls.incrementAndGet();
+                            release.await(10, TimeUnit.SECONDS);
+                        })
+                        .transform(simple("Hi ${body}"))
+                        .setHeader("served-by", constant("call"));
+            }
+        });
+        camelContext.start();
+        singleFlight = new SingleFlight(camelContext.createProducerTemplate(), "direct:call", Builder.body(), 16,
+                tracerProvider.get("test"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        camelContext.stop();
+        tracerProvider.close();
+    }
+
+    @Test
+    void concurrentExchangesWithTheSameKeyShareOneCall() throws Exception {
+        CountDownLatch done = new CountDownLatch(3);
+        Exchange leader = exchange("Camel");
+        leader.getIn().setHeader("traceparent", TRACEPARENT);
+        leader.getIn().setHeader("tracestate", "vendor=value");
+        Exchange waiter = exchange("Camel");
+        Exchange other = exchange("CXF");
+
+        singleFlight.process(leader, doneSync -> done.countDown());
+        awaitCalls(1);
+        singleFlight.process(waiter, doneSync -> done.countDown());
+        singleFlight.process(other, doneSync -> done.countDown());
+        awaitCalls(2);
+        release.countDown();
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(calls).hasValue(2);
+        assertThat(leader.getMessage().getBody()).isEqualTo("Hi Camel");
+        assertThat(waiter.getMessage().getBody()).isEqualTo("Hi Camel");
+        assertThat(waiter.getMessage().getHeader("served-by")).isEqualTo("call");
+        assertThat(waiter.getMessage().getHeader("traceparent")).isNull();
+        assertThat(other.getMessage().getBody()).isEqualTo("Hi CXF");
+    }
+
+    @Test
+    void waiterIsLinkedToTheCallWithItsOwnFlagsAndState() throws Exception {
+        CountDownLatch done = new CountDownLatch(2);
+        Exchange leader = exchange("Camel");
+        leader.getIn().setHeader("traceparent", TRACEPARENT);
+        leader.getIn().setHeader("tracestate", "vendor=value");
+
+        singleFlight.process(leader, doneSync -> done.countDown());
+        awaitCalls(1);
+        singleFlight.process(exchange("Camel"), doneSync -> done.countDown());
+        release.countDown();
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        List<SpanData> waits = exporter.spans("single-flight-wait");
+        assertThat(waits).hasSize(1);
+        SpanContext call = waits.get(0).getLinks().get(0).getSpanContext();
+        assertThat(call.getTraceId()).isEqualTo("0af7651916cd43dd8448eb211c80319c");
+        assertThat(call.getSpanId()).isEqualTo("b7ad6b7169203331");
+        assertThat(call.isSampled()).isFalse();
+        assertThat(call.getTraceState().get("vendor")).isEqualTo("value");
+    }
+
+    @Test
+    void waiterIsNotLinkedToAnUntracedCall() throws Exception {
+        CountDownLatch done = new CountDownLatch(2);
+
+        singleFlight.process(exchange("Camel"), doneSync -> done.countDown());
+        awaitCalls(1);
+        singleFlight.process(exchange("Camel"), doneSync -> done.countDown());
+        release.countDown();
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        List<SpanData> waits = exporter.spans("single-flight-wait");
+        assertThat(waits).hasSize(1);
+        assertThat(waits.get(0).getLinks()).isEmpty();
+    }
+
+    private Exchange exchange(String body) {
+        Exchange exchange = new DefaultExchange(camelContext);
+        exchange.getIn().setBody(body);
+        return exchange;
+    }
+
+    private void awaitCalls(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (calls.get() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(calls).hasValue(expected);
+    }
+}
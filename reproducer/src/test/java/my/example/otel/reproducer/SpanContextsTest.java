@@ -0,0 +1,53 @@
+package my.example.otel.reproducer;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Context;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpanContextsTest {
+
+    private final Exchange exchange = new DefaultExchange(new DefaultCamelContext());
+
+    @Test
+    void spanIsReadFromTheHolderOfTheCamelCxfFixesTracer() {
+        SpanContext spanContext = SpanContext.create("0af7651916cd43dd8448eb211c80319c", "b7ad6b7169203331",
+                TraceFlags.getSampled(), TraceState.getDefault());
+        exchange.setProperty(SpanContexts.ACTIVE_SPAN_PROPERTY, new Holder(Context.root().with(Span.wrap(spanContext))));
+
+        assertThat(SpanContexts.of(exchange)).isEqualTo(spanContext);
+    }
+
+    @Test
+    void noSpanWithoutHolder() {
+        assertThat(SpanContexts.of(exchange)).isNull();
+    }
+
+    @Test
+    void noSpanForAnUnknownHolder() {
+        exchange.setProperty(SpanContexts.ACTIVE_SPAN_PROPERTY, "not a holder");
+
+        assertThat(SpanContexts.span(exchange)).isNull();
+    }
+
+    // like OpenTelemetryTracer.Holder of camel-cxf-fixes
+    public static class Holder {
+
+        private final Context context;
+
+        Holder(Context context) {
+            this.context = context;
+        }
+
+        public Context getContext() {
+            return context;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package my.example.otel.reproducer;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.opentelemetry.OpenTelemetryTracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SplitSummaryAggregationStrategyTest {
+
+    private final CollectingSpanExporter exporter = new CollectingSpanExporter();
+    private SdkTracerProvider tracerProvider;
+    private CamelContext camelContext;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tracerProvider = SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(exporter)).build();
+        camelContext = new DefaultCamelContext();
+        OpenTelemetryTracer tracer = new OpenTelemetryTracer();
+        tracer.setTracer(tracerProvider.get("camel"));
+        tracer.init(camelContext);
+        camelContext.addRoutes(new RouteBuilder() {
+            @Override
+            public void configure() {
+                from("direct:split")
+                        .split(body(), new SplitSummaryAggregationStrategy()).streaming()
+                            .setHeader("child", body())
+                            .transform(simple("child ${body}"))
+                        .end();
+            }
+        });
+        camelContext.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        camelContext.stop();
+        tracerProvider.close();
+    }
+
+    @Test
+    void inputExchangeIsKeptAsResult() {
+        Exchange result = camelContext.createProducerTemplate().request("direct:split", e -> {
+            e.getMessage().setBody(List.of("a", "b", "c"));
+            e.getMessage().setHeader("original", "yes");
+        });
+
+        assertThat(result.getException()).isNull();
+        assertThat(result.getMessage().getBody()).isEqualTo(List.of("a", "b", "c"));
+        assertThat(result.getMessage().getHeader("original")).isEqualTo("yes");
+        assertThat(result.getMessage().getHeader("child")).isNull();
+    }
+
+    @Test
+    void firstChildExceptionIsPropagated() throws Exception {
+        camelContext.addRoutes(new RouteBuilder() {
+            @Override
+            public void configure() {
+                from("direct:failing-split")
+                        .split(body(), new SplitSummaryAggregationStrategy())
+                            .throwException(new IllegalStateException("boom"))
+                        .end();
+            }
+        });
+
+        Exchange result = camelContext.createProducerTemplate().request("direct:failing-split",
+                e -> e.getMessage().setBody(List.of("a", "b")));
+
+        assertThat(result.getException()).hasMessage("boom");
+    }
+
+    @Test
+    void summaryIsRecordedOnTheSpanOfTheSplitExchange() throws Exception {
+        camelContext.addRoutes(new RouteBuilder() {
+            @Override
+            public void configure() {
+                from("direct:timed-split").routeId("timed-split")
+                        .split(body(), new SplitSummaryAggregationStrategy()).streaming()
+                            .process(SplitSummaryAggregationStrategy::markStart)
+                            .process(e -> {
+                                String delay = e.getMessage().getBody(String.class);
+                                if ("fail".equals(delay)) {
+                                    throw new IllegalStateException("boom");
+                                }
+                                Thread.sleep(Long.parseLong(delay));
+                            })
+                        .end();
+            }
+        });
+        // 100 split exchanges, so that the p99 is the second slowest one
+        List<String> delays = new ArrayList<>(Collections.nCopies(96, "0"));
+        delays.addAll(List.of("fail", "fail", "100", "200"));
+        // the time spent before the split is not part of the latencies
+        camelContext.createProducerTemplate().request("direct:timed-split", e -> {
+            Thread.sleep(300);
+            e.getMessage().setBody(delays);
+        });
+
+        List<SpanData> summaries = exporter.spans().stream()
+                .filter(span -> span.getAttributes().get(AttributeKey.longKey("split.count")) != null)
+                .toList();
+        assertThat(summaries).hasSize(1);
+        SpanData span = summaries.get(0);
+        assertThat(span.getAttributes().get(AttributeKey.longKey("split.count"))).isEqualTo(100L);
+        assertThat(span.getAttributes().get(AttributeKey.longKey("split.errors"))).isEqualTo(2L);
+        assertThat(span.getAttributes().get(AttributeKey.longKey("split.latency.max_ms"))).isBetween(200L, 299L);
+        assertThat(span.getAttributes().get(AttributeKey.longKey("split.latency.p99_ms"))).isBetween(100L, 199L);
+    }
+}
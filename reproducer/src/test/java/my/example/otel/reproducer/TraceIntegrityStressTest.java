@@ -0,0 +1,332 @@
+package my.example.otel.reproducer;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.TracerProvider;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Processor;
+import org.apache.camel.model.ModelCamelContext;
+import org.apache.camel.model.ProcessDefinition;
+import org.apache.camel.model.ProcessorDefinitionHelper;
+import org.apache.camel.model.RouteDefinition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.actuate.autoconfigure.tracing.SpanProcessors;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fires concurrent requests at otel-main-service, with both {@code reproducer.cxf-sync} settings, then checks the
+ * exported spans:
+ * <ul>
+ * <li>every span has its parent, in the same trace,</li>
+ * <li>each trace of a request has all the watched spans, none of them in a trace of its own,</li>
+ * <li>the span of each mock is a descendant of the span of the route calling it,</li>
+ * <li>each request gives its own trace, a known failure: with the Camel tracer, the scope of the client spans is left
+ * open on the server threads, and the next requests they serve join the trace of the leaked span. This is asserted as
+ * such, so that the fix shows up as a failure.</li>
+ * </ul>
+ * The watched spans are named after the direct endpoints of the routes. The single flight, pizza batching and REST
+ * cache are disabled, as they replace parents with links.
+ * <p>
+ * Each run reports its throughput. The number of requests is set with {@code -Dstress.requests}.
+ */
+class TraceIntegrityStressTest {
+
+    private static final Logger log = LoggerFactory.getLogger(TraceIntegrityStressTest.class);
+
+    // mock span -> span of the route calling it
+    private static final Map<String, String> CALLERS = Map.of(
+            "mock-POST-say-hi", "say-hi-soap-invoker",
+            "mock-GET-say-hi", "say-hi-rest-invoker",
+            "mock-POST-pizza", "pizza-soap-invoker");
+    private static final AttributeKey<String> ROUTE_ID = AttributeKey.stringKey("camel.route.id");
+    private static final int REQUESTS = Integer.getInteger("stress.requests", 2_000);
+    private static final int CONCURRENCY = 20;
+    private static final Duration EXPORT_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration QUIET_PERIOD = Duration.ofMillis(500);
+
+    @Nested
+    @TestPropertySource(properties = "reproducer.cxf-sync=true")
+    class CxfSync extends StressRun {
+    }
+
+    @Nested
+    @TestPropertySource(properties = "reproducer.cxf-sync=false")
+    class CxfAsync extends StressRun {
+    }
+
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT, properties = {
+            "reproducer.single-flight.max-in-flight=0",
+            "reproducer.pizza-batch.max-size=0",
+            "reproducer.rest-cache.enabled=false",
+            "management.tracing.sampling.probability=1.0",
+            // the Camel spans, the starter only registers its tracer when asked to
+            "camel.opentelemetry.enabled=true",
+            // with cxf-sync, each request holds a worker thread while the mocks, served by the same server, answer
+            "server.undertow.threads.worker=" + 4 * CONCURRENCY,
+            // the reproducer logs every message and hop, which would slow the run down and fill the disk
+            "logging.level.root=WARN",
+            "logging.level.java=WARN",
+            "logging.level.jdk.internal.httpclient=WARN",
+            "logging.level.org.apache.cxf=WARN",
+            "logging.level.org.apache.camel.component.cxf.jaxws=WARN",
+            "logging.level.org.apache.camel.component.cxf.jaxrs=WARN",
+            "logging.level.my.example.otel.reproducer.TraceIntegrityStressTest=INFO"
+    })
+    @AutoConfigureObservability(metrics = false)
+    @Import(InMemoryExport.class)
+    abstract static class StressRun {
+
+        @LocalServerPort
+        int port;
+
+        @Value("${reproducer.cxf-sync}")
+        boolean cxfSync;
+
+        @Autowired
+        CamelContext camelContext;
+
+        @Autowired
+        RestResponseCache restResponseCache;
+
+        @Autowired
+        SdkTracerProvider tracerProvider;
+
+        @Autowired
+        CollectingSpanExporter exporter;
+
+        // the mock URLs point to server.port, which must then be known before the start
+        @DynamicPropertySource
+        static void serverPort(DynamicPropertyRegistry registry) throws IOException {
+            int port;
+            try (ServerSocket socket = new ServerSocket(0)) {
+                port = socket.getLocalPort();
+            }
+            registry.add("server.port", () -> port);
+        }
+
+        @BeforeEach
+        void linksAreNotUsed() {
+            assertThat(processors(SingleFlight.class)).as("single flight").isEmpty();
+            assertThat(processors(PizzaOrderBatcher.class)).as("pizza batching").isEmpty();
+            assertThat(restResponseCache.isEnabled()).as("REST cache").isFalse();
+        }
+
+        @Test
+        void everyRequestGivesOneCompleteTrace() throws Exception {
+            exporter.clear();
+
+            long start = System.nanoTime();
+            int failed = send(port);
+            long elapsed = System.nanoTime() - start;
+            log.info("cxf-sync={}: {} requests in {} ms, {} requests/s", cxfSync, REQUESTS,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), "%.1f".formatted(REQUESTS * 1e9 / elapsed));
+
+            assertThat(failed).as("failed requests").isZero();
+
+            List<SpanData> spans = awaitQuiet();
+            assertThat(verify(spans)).isEmpty();
+            // expected failure, see the class javadoc
+            assertThat(traces(spans)).as("traces of the %d requests", REQUESTS).isLessThan(REQUESTS);
+        }
+
+        private List<Processor> processors(Class<? extends Processor> type) {
+            List<Processor> processors = new ArrayList<>();
+            for (RouteDefinition route : ((ModelCamelContext) camelContext).getRouteDefinitions()) {
+                for (ProcessDefinition process : ProcessorDefinitionHelper.filterTypeInOutputs(route.getOutputs(),
+                        ProcessDefinition.class)) {
+                    if (type.isInstance(process.getProcessor())) {
+                        processors.add(process.getProcessor());
+                    }
+                }
+            }
+            return processors;
+        }
+
+        // until no more spans are exported
+        private List<SpanData> awaitQuiet() throws InterruptedException {
+            long deadline = System.nanoTime() + EXPORT_TIMEOUT.toNanos();
+            int exported = -1;
+            while (System.nanoTime() < deadline) {
+                tracerProvider.forceFlush().join(EXPORT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                int now = exporter.spans().size();
+                if (now == exported) {
+                    break;
+                }
+                exported = now;
+                Thread.sleep(QUIET_PERIOD.toMillis());
+            }
+            return exporter.spans();
+        }
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class InMemoryExport {
+
+        @Bean
+        CollectingSpanExporter collectingSpanExporter() {
+            return new CollectingSpanExporter();
+        }
+
+        // in place of the batch processor, which drops the spans past its queue size
+        @Bean
+        SpanProcessors spanProcessors(CollectingSpanExporter exporter) {
+            return SpanProcessors.of(SimpleSpanProcessor.create(exporter));
+        }
+
+        // the CXF features take the global instance when created, which may be before the OpenTelemetry bean
+        @Bean
+        static BeanFactoryPostProcessor globalOpenTelemetry() {
+            return beanFactory -> {
+                GlobalOpenTelemetry.resetForTest();
+                GlobalOpenTelemetry.set(new OpenTelemetry() {
+                    @Override
+                    public TracerProvider getTracerProvider() {
+                        return beanFactory.getBean(OpenTelemetry.class).getTracerProvider();
+                    }
+
+                    @Override
+                    public ContextPropagators getPropagators() {
+                        return beanFactory.getBean(OpenTelemetry.class).getPropagators();
+                    }
+                });
+            };
+        }
+    }
+
+    private static int send(int port) throws Exception {
+        byte[] request = new ClassPathResource("requests/sample-request.xml").getContentAsByteArray();
+        URI uri = URI.create("http://localhost:%d/services/otel-main-service".formatted(port));
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+        AtomicInteger failed = new AtomicInteger();
+        try {
+            for (int i = 0; i < REQUESTS; i++) {
+                executor.execute(() -> {
+                    try {
+                        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri)
+                                        .header("Content-Type", "text/xml; charset=utf-8")
+                                        .POST(HttpRequest.BodyPublishers.ofByteArray(request))
+                                        .build(),
+                                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+                        if (response.statusCode() != 200) {
+                            failed.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.MINUTES);
+        }
+        return failed.get();
+    }
+
+    private static List<String> verify(List<SpanData> spans) {
+        Map<String, SpanData> bySpanId = new HashMap<>();
+        Map<String, List<SpanData>> byTraceId = new HashMap<>();
+        for (SpanData span : spans) {
+            bySpanId.put(span.getSpanId(), span);
+            byTraceId.computeIfAbsent(span.getTraceId(), k -> new ArrayList<>()).add(span);
+        }
+        List<String> violations = new ArrayList<>();
+        Set<String> traces = new HashSet<>();
+        for (SpanData span : spans) {
+            SpanData parent = parent(bySpanId, span);
+            if (span.getParentSpanContext().isValid() && parent == null) {
+                violations.add("parent %s of span %s (%s) not exported".formatted(span.getParentSpanId(),
+                        span.getSpanId(), route(span)));
+            } else if (parent != null && !parent.getTraceId().equals(span.getTraceId())) {
+                violations.add("span %s (%s) in trace %s has its parent in trace %s".formatted(span.getSpanId(),
+                        route(span), span.getTraceId(), parent.getTraceId()));
+            }
+            String caller = CALLERS.get(route(span));
+            if (caller != null) {
+                traces.add(span.getTraceId());
+                if (!hasAncestor(bySpanId, span, caller)) {
+                    violations.add("span %s (%s) in trace %s is not a descendant of a %s span".formatted(
+                            span.getSpanId(), route(span), span.getTraceId(), caller));
+                }
+            }
+        }
+        for (String traceId : traces) {
+            Set<String> routes = new HashSet<>();
+            byTraceId.get(traceId).forEach(span -> routes.add(route(span)));
+            for (Map.Entry<String, String> call : CALLERS.entrySet()) {
+                if (!routes.contains(call.getKey()) || !routes.contains(call.getValue())) {
+                    violations.add("trace %s misses %s or %s spans".formatted(traceId, call.getValue(),
+                            call.getKey()));
+                }
+            }
+        }
+        return violations;
+    }
+
+    // the traces with mock spans
+    private static long traces(List<SpanData> spans) {
+        return spans.stream().filter(span -> CALLERS.containsKey(route(span))).map(SpanData::getTraceId).distinct()
+                .count();
+    }
+
+    private static SpanData parent(Map<String, SpanData> bySpanId, SpanData span) {
+        return span.getParentSpanContext().isValid() ? bySpanId.get(span.getParentSpanId()) : null;
+    }
+
+    private static boolean hasAncestor(Map<String, SpanData> bySpanId, SpanData span, String route) {
+        for (SpanData parent = parent(bySpanId, span); parent != null; parent = parent(bySpanId, parent)) {
+            if (route.equals(route(parent))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the route id, or the name of the span, which is the path of the endpoint for the Camel spans
+    private static String route(SpanData span) {
+        String routeId = span.getAttributes().get(ROUTE_ID);
+        return routeId != null ? routeId : span.getName();
+    }
+}
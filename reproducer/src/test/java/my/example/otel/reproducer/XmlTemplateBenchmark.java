@@ -0,0 +1,50 @@
+package my.example.otel.reproducer;
+
+import org.apache.camel.converter.jaxp.XmlConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The sayHi request built by parsing the template on each exchange, as before, against cloning the pre-parsed one.
+ * <p>
+ * Run with {@code mvn -Pjmh verify -Djmh.includes=XmlTemplateBenchmark}, add {@code -prof gc} to the JMH arguments
+ * for the allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class XmlTemplateBenchmark {
+
+    private final XmlConverter xmlConverter = new XmlConverter();
+    private final XmlTemplate template = new XmlTemplate(CreateSayHiPayloadProcessor.TEMPLATE_XML);
+
+    @Benchmark
+    public Document parseOnEachExchange() throws Exception {
+        return xmlConverter.toDOMDocument(CreateSayHiPayloadProcessor.TEMPLATE_XML, null);
+    }
+
+    @Benchmark
+    public Document cloneTemplate() {
+        return template.newDocument();
+    }
+
+    @Benchmark
+    public Document cloneTemplateWithParameters() {
+        return template.newDocument(CreateSayHiPayloadProcessor.PARAMETERS);
+    }
+}
@@ -0,0 +1,65 @@
+package my.example.otel.reproducer;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class XmlTemplateTest {
+
+    private final XmlTemplate template = new XmlTemplate(CreateSayHiPayloadProcessor.TEMPLATE_XML);
+
+    @Test
+    void parametersReplaceTheTextOfTheElements() {
+        Document document = template.newDocument(Map.of("arg0", "Pizza"));
+
+        assertThat(document.getDocumentElement().getLocalName()).isEqualTo("sayHi");
+        assertThat(document.getDocumentElement().getNamespaceURI()).isEqualTo("http://camel.apache.org/cxf/wsrm");
+        assertThat(document.getElementsByTagName("arg0").item(0).getTextContent()).isEqualTo("Pizza");
+    }
+
+    @Test
+    void documentsAreIndependentCopies() {
+        Document first = template.newDocument(Map.of("arg0", "first"));
+        Document second = template.newDocument();
+
+        assertThat(first).isNotSameAs(second);
+        assertThat(second.getElementsByTagName("arg0").item(0).getTextContent()).isEmpty();
+    }
+
+    @Test
+    void unknownParameterIsRejected() {
+        assertThatIllegalArgumentException().isThrownBy(() -> template.newDocument(Map.of("arg1", "x")));
+    }
+
+    @Test
+    void invalidTemplateIsRejected() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new XmlTemplate("<sayHi>"));
+    }
+
+    @Test
+    void documentsAreBuiltConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                String name = "name-" + i;
+                results.add(executor.submit(() -> template.newDocument(Map.of("arg0", name))
+                        .getElementsByTagName("arg0").item(0).getTextContent()));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertThat(results.get(i).get()).isEqualTo("name-" + i);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
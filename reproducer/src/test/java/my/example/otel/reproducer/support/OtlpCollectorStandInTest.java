@@ -0,0 +1,120 @@
+package my.example.otel.reproducer.support;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import io.opentelemetry.exporter.otlp.trace.OtlpGrpcSpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OtlpCollectorStandInTest {
+
+    private OtlpCollectorStandIn collector;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        collector = OtlpCollectorStandIn.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        collector.close();
+    }
+
+    @Test
+    void spansExportedOverHttpAreIndexed() throws Exception {
+        SpanExporter exporter = OtlpHttpSpanExporter.builder().setEndpoint(collector.getEndpoint()).build();
+        String[] ids = exportParentAndChild(exporter);
+
+        List<CollectedSpan> spans = collector.await(span -> true, 2, Duration.ofSeconds(10));
+
+        assertThat(spans).hasSize(2);
+        CollectedSpan child = collector.span(ids[1]);
+        assertThat(collector.parent(child).spanId()).isEqualTo(ids[0]);
+        assertThat(collector.children(ids[0])).containsExactly(child);
+        assertThat(collector.trace(child.traceId())).extracting(CollectedSpan::name)
+                .containsExactly("otel-main-service", "pizzaSoap");
+        assertThat(collector.route("pizzaSoap")).containsExactly(child);
+        assertThat(collector.orphans()).isEmpty();
+        assertThat(collector.getReceivedSpans()).isEqualTo(2);
+        assertThat(collector.getReceivedRequests()).isEqualTo(2);
+    }
+
+    @Test
+    void spansExportedOverGrpcAreReceived() throws Exception {
+        String[] ids;
+        try (OtlpGrpcReceiver receiver = OtlpGrpcReceiver.start(collector)) {
+            SpanExporter exporter = OtlpGrpcSpanExporter.builder()
+                    .setEndpoint(receiver.getEndpoint())
+                    .setCompression("gzip")
+                    .build();
+            ids = exportParentAndChild(exporter);
+        }
+
+        List<CollectedSpan> spans = collector.await(span -> true, 2, Duration.ofSeconds(10));
+
+        assertThat(spans).extracting(CollectedSpan::spanId).containsExactlyInAnyOrder(ids);
+        assertThat(collector.parent(collector.span(ids[1])).spanId()).isEqualTo(ids[0]);
+        assertThat(collector.getReceivedBytes()).isPositive();
+    }
+
+    @Test
+    void spansWhoseParentWasNotReceivedAreOrphans() throws Exception {
+        SpanContext remoteParent = SpanContext.createFromRemoteParent("0af7651916cd43dd8448eb211c80319c",
+                "b7ad6b7169203331", TraceFlags.getSampled(), TraceState.getDefault());
+        try (SdkTracerProvider tracerProvider = tracerProvider(
+                OtlpHttpSpanExporter.builder().setEndpoint(collector.getEndpoint()).build())) {
+            tracerProvider.get("test").spanBuilder("pizzaSoap")
+                    .setParent(Context.root().with(Span.wrap(remoteParent)))
+                    .startSpan()
+                    .end();
+        }
+
+        collector.await(span -> true, 1, Duration.ofSeconds(10));
+
+        assertThat(collector.orphans()).extracting(CollectedSpan::parentSpanId).containsExactly("b7ad6b7169203331");
+    }
+
+    @Test
+    void clearForgetsTheSpansAndResetsTheCounters() throws Exception {
+        exportParentAndChild(OtlpHttpSpanExporter.builder().setEndpoint(collector.getEndpoint()).build());
+        collector.await(span -> true, 2, Duration.ofSeconds(10));
+
+        collector.clear();
+
+        assertThat(collector.spans()).isEmpty();
+        assertThat(collector.traceIds()).isEmpty();
+        assertThat(collector.getReceivedSpans()).isZero();
+        assertThat(collector.getReceivedRequests()).isZero();
+        assertThat(collector.getReceivedBytes()).isZero();
+    }
+
+    // returns the span ids of the parent and the child
+    private static String[] exportParentAndChild(SpanExporter exporter) {
+        try (SdkTracerProvider tracerProvider = tracerProvider(exporter)) {
+            Tracer tracer = tracerProvider.get("test");
+            Span parent = tracer.spanBuilder("otel-main-service").startSpan();
+            Span child = tracer.spanBuilder("pizzaSoap").setParent(Context.root().with(parent)).startSpan();
+            child.end();
+            parent.end();
+            return new String[] { parent.getSpanContext().getSpanId(), child.getSpanContext().getSpanId() };
+        }
+    }
+
+    private static SdkTracerProvider tracerProvider(SpanExporter exporter) {
+        return SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(exporter)).build();
+    }
+}
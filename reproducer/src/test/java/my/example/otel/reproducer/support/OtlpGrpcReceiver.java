@@ -0,0 +1,100 @@
+package my.example.otel.reproducer.support;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.MethodDescriptor;
+import io.grpc.Server;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.Status;
+import io.grpc.stub.ServerCalls;
+import io.grpc.stub.StreamObserver;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OTLP/gRPC receiver for the tests, handing the export requests over to an {@link OtlpCollectorStandIn}. Export to it
+ * with {@code OtlpGrpcSpanExporter.builder().setEndpoint(receiver.getEndpoint())}.
+ * <p/>
+ * The Java agent instruments {@code io.grpc.ServerBuilder}, so with the agent attached the export calls received here
+ * would be traced, and exported again. The tests run without the agent.
+ */
+class OtlpGrpcReceiver implements AutoCloseable {
+
+    private static final String TRACE_SERVICE = "opentelemetry.proto.collector.trace.v1.TraceService";
+
+    // the requests are decoded by OtlpTraceDecoder, the response is an empty ExportTraceServiceResponse
+    private static final MethodDescriptor.Marshaller<byte[]> BYTES = new MethodDescriptor.Marshaller<>() {
+        @Override
+        public InputStream stream(byte[] value) {
+            return new ByteArrayInputStream(value);
+        }
+
+        @Override
+        public byte[] parse(InputStream stream) {
+            try (stream) {
+                return stream.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    };
+    private static final MethodDescriptor<byte[], byte[]> EXPORT = MethodDescriptor.<byte[], byte[]>newBuilder()
+            .setType(MethodDescriptor.MethodType.UNARY)
+            .setFullMethodName(MethodDescriptor.generateFullMethodName(TRACE_SERVICE, "Export"))
+            .setRequestMarshaller(BYTES)
+            .setResponseMarshaller(BYTES)
+            .build();
+
+    private final OtlpCollectorStandIn collector;
+    private final Server server;
+
+    private OtlpGrpcReceiver(OtlpCollectorStandIn collector) {
+        this.collector = collector;
+        this.server = Grpc.newServerBuilderForPort(0, InsecureServerCredentials.create())
+                .addService(ServerServiceDefinition.builder(TRACE_SERVICE)
+                        .addMethod(EXPORT, ServerCalls.asyncUnaryCall(this::export))
+                        .build())
+                .build();
+    }
+
+    /**
+     * Starts a receiver on a free port.
+     */
+    static OtlpGrpcReceiver start(OtlpCollectorStandIn collector) throws IOException {
+        OtlpGrpcReceiver receiver = new OtlpGrpcReceiver(collector);
+        receiver.server.start();
+        return receiver;
+    }
+
+    /**
+     * The OTLP/gRPC endpoint, on the free port the receiver listens on.
+     */
+    String getEndpoint() {
+        return "http://localhost:" + server.getPort();
+    }
+
+    private void export(byte[] request, StreamObserver<byte[]> response) {
+        try {
+            collector.receive(request);
+        } catch (RuntimeException e) {
+            response.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+        response.onNext(new byte[0]);
+        response.onCompleted();
+    }
+
+    @Override
+    public void close() {
+        server.shutdownNow();
+        try {
+            server.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package my.example.otel.reproducer.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.exporter.internal.otlp.traces.TraceRequestMarshaler;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OtlpTraceDecoderTest {
+
+    private SdkTracerProvider tracerProvider;
+    private List<SpanData> spans;
+
+    @BeforeEach
+    void setUp() {
+        tracerProvider = SdkTracerProvider.builder()
+                .setResource(Resource.create(Attributes.of(AttributeKey.stringKey("service.name"), "reproducer")))
+                .build();
+        Tracer tracer = tracerProvider.get("test");
+        Span parent = tracer.spanBuilder("otel-main-service")
+                .setSpanKind(SpanKind.SERVER)
+                .setAttribute("camel.route.id", "main")
+                .setAttribute("count", 42L)
+                .setAttribute("ratio", 0.5)
+                .setAttribute("cached", true)
+                .setAttribute(AttributeKey.stringArrayKey("toppings"), List.of("cheese", "ham"))
+                .startSpan();
+        Span child = tracer.spanBuilder("pizzaSoap")
+                .setParent(Context.root().with(parent))
+                .setSpanKind(SpanKind.CLIENT)
+                .startSpan();
+        child.setStatus(StatusCode.ERROR);
+        child.end();
+        parent.end();
+        spans = List.of(((ReadableSpan) parent).toSpanData(), ((ReadableSpan) child).toSpanData());
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.close();
+    }
+
+    @Test
+    void protobufRequestIsDecoded() throws IOException {
+        assertDecoded(OtlpTraceDecoder.decodeProtobuf(protobuf()));
+    }
+
+    @Test
+    void jsonRequestIsDecoded() throws IOException {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        TraceRequestMarshaler.create(spans).writeJsonTo(json);
+
+        assertDecoded(OtlpTraceDecoder.decodeJson(json.toByteArray(), new ObjectMapper()));
+    }
+
+    @Test
+    void truncatedProtobufRequestIsRejected() throws IOException {
+        byte[] request = protobuf();
+
+        assertThatThrownBy(() -> OtlpTraceDecoder.decodeProtobuf(Arrays.copyOf(request, request.length - 3)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private byte[] protobuf() throws IOException {
+        ByteArrayOutputStream protobuf = new ByteArrayOutputStream();
+        TraceRequestMarshaler.create(spans).writeBinaryTo(protobuf);
+        return protobuf.toByteArray();
+    }
+
+    private void assertDecoded(List<CollectedSpan> decoded) {
+        assertThat(decoded).hasSize(2);
+        SpanData parentData = spans.get(0);
+        CollectedSpan parent = decoded.stream().filter(CollectedSpan::isRoot).findFirst().orElseThrow();
+        CollectedSpan child = decoded.stream().filter(span -> !span.isRoot()).findFirst().orElseThrow();
+
+        assertThat(parent.traceId()).isEqualTo(parentData.getTraceId());
+        assertThat(parent.spanId()).isEqualTo(parentData.getSpanId());
+        assertThat(parent.name()).isEqualTo("otel-main-service");
+        assertThat(parent.kind()).isEqualTo("SERVER");
+        assertThat(parent.startEpochNanos()).isEqualTo(parentData.getStartEpochNanos());
+        assertThat(parent.endEpochNanos()).isEqualTo(parentData.getEndEpochNanos());
+        assertThat(parent.route()).isEqualTo("main");
+        assertThat(parent.attributes()).containsEntry("count", 42L)
+                .containsEntry("ratio", 0.5)
+                .containsEntry("cached", true)
+                .containsEntry("toppings", List.of("cheese", "ham"));
+        assertThat(parent.resource()).containsEntry("service.name", "reproducer");
+        assertThat(parent.isError()).isFalse();
+
+        assertThat(child.traceId()).isEqualTo(parent.traceId());
+        assertThat(child.parentSpanId()).isEqualTo(parent.spanId());
+        assertThat(child.kind()).isEqualTo("CLIENT");
+        assertThat(child.route()).isEqualTo("pizzaSoap");
+        assertThat(child.isError()).isTrue();
+        assertThat(child.resource()).isEqualTo(parent.resource());
+    }
+}